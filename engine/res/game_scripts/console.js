@@ -5,6 +5,12 @@ return {
     
     echo : function(msg) {obj.println(msg); },
     
+    profile : function(enable) {updateManager.getProfiler().setEnabled(enable); },
+    
+    stats : function() {obj.println(updateManager.getProfiler().report()); },
+    
+    pools : function() {obj.println(util.Pool.report()); },
+    
     evaluateLine:function(line) { return eval(line); }
 }
 
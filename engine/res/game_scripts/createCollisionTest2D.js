@@ -52,7 +52,7 @@ function createCollisionTest(lighting, layer) {
         playerY += speed * playerDY;
         player.setPosition(playerX, playerY);
         
-        collisionSpace.detectCollisions();
+        collisionSpace.detectCollisions(layer.getJobSystem());
         
     });
 
@@ -66,7 +66,7 @@ function createCollisionTest(layer) {
         playerPos.z += speed * playerVel.z;
         player.transform.setPosition(playerPos);
         
-        collisionSpace.detectCollisions();
+        collisionSpace.detectCollisions(layer.getJobSystem());
         
     });
 
@@ -0,0 +1,91 @@
+package event;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A reusable slot of an EventQueue
+ *
+ * Events are preallocated and overwritten in place, so handlers must copy
+ * out anything they need before returning
+ */
+public final class Event {
+
+    //an id interned by game.EventId
+    private int type;
+    private long value;
+    private float x, y, z, w;
+    private Object object;
+    private String name;
+
+    Event() {
+    }
+
+    void clear() {
+        type = 0;
+        value = 0;
+        x = y = z = w = 0;
+        object = null;
+        name = null;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public Event setType(int type) {
+        this.type = type;
+        return this;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public Event setValue(long value) {
+        this.value = value;
+        return this;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public float getZ() {
+        return z;
+    }
+
+    public float getW() {
+        return w;
+    }
+
+    public Event setVector(float x, float y, float z, float w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+        return this;
+    }
+
+    public Object getObject() {
+        return object;
+    }
+
+    public Event setObject(Object object) {
+        this.object = object;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Event setName(String name) {
+        this.name = name;
+        return this;
+    }
+}
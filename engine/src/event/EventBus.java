@@ -0,0 +1,55 @@
+package event;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * The EventBus gathers the EventQueues of each consuming thread by name
+ *
+ * Any thread may look up a queue and send to it. Each queue is drained
+ * by its owner, such as the UpdateManager at the start of each tick and the
+ * RenderManager at the start of each frame.
+ */
+public class EventBus {
+
+    private final Map<String, EventQueue> queues;
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventBus.class);
+
+    public EventBus() {
+        queues = new ConcurrentHashMap<>();
+    }
+
+    public void register(EventQueue queue) {
+        if (queues.putIfAbsent(queue.getName(), queue) != null) {
+            LOG.warn("EventQueue {} already registered", queue.getName());
+        }
+    }
+
+    public EventQueue createQueue(String name, int capacity) {
+        EventQueue queue = new EventQueue(name, capacity);
+        register(queue);
+        return queue;
+    }
+
+    public EventQueue getQueue(String name) {
+        return queues.get(name);
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder("EventBus");
+        for (EventQueue queue : queues.values()) {
+            sb.append("\n").append(queue);
+        }
+        return sb.toString();
+    }
+
+    public static EventBus createEventBus() {
+        return new EventBus();
+    }
+}
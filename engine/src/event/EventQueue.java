@@ -0,0 +1,236 @@
+package event;
+
+import game.EventHandler;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A bounded lock free queue of events with many producers and one consumer
+ *
+ * Slots are preallocated in a ring, so sending an event allocates nothing.
+ * A producer claims a slot, fills it and commits it. The consumer drains
+ * committed slots in order at a fixed point in its loop and hands each to
+ * the handlers registered for its type.
+ *
+ * When the ring is full offer fails and is counted as an overflow, while
+ * claim waits for the consumer to free a slot.
+ *
+ * A handler that throws is logged and the event is still consumed, so a
+ * failing event is never handed out again.
+ */
+public class EventQueue {
+
+    private final String name;
+    private final Event[] slots;
+    //the sequence each slot expects next, as in a Vyukov bounded queue
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail;
+    //consumer only
+    private long head;
+    private volatile Thread consumer;
+
+    private volatile EventHandler<Event>[][] handlers;
+
+    private final AtomicLong overflows;
+    private final AtomicLong waits;
+    private volatile long drained;
+    private volatile long highWater;
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int SPINS = 100;
+    private static final long PARK_NANOS = 10000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventQueue.class);
+
+    @SuppressWarnings("unchecked")
+    public EventQueue(String name, int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.name = name;
+        slots = new Event[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Event();
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+        tail = new AtomicLong();
+        handlers = (EventHandler<Event>[][]) new EventHandler<?>[0][];
+        overflows = new AtomicLong();
+        waits = new AtomicLong();
+    }
+
+    //claim a slot to fill, returning its sequence or -1 if the ring is full
+    public long tryClaim() {
+        while (true) {
+            long t = tail.get();
+            long diff = sequences.get((int) (t & mask)) - t;
+            if (diff == 0) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    return t;
+                }
+            } else if (diff < 0) {
+                return -1;
+            }
+        }
+    }
+
+    //claim a slot to fill, waiting for the consumer if the ring is full
+    public long claim() {
+        long seq = tryClaim();
+        if (seq >= 0) {
+            return seq;
+        }
+        waits.incrementAndGet();
+        int spins = 0;
+        while ((seq = tryClaim()) < 0) {
+            if (Thread.currentThread() == consumer) {
+                //the consumer would otherwise wait on itself
+                drain();
+            } else if (spins++ < SPINS) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+        return seq;
+    }
+
+    public Event get(long seq) {
+        return slots[(int) (seq & mask)];
+    }
+
+    public void commit(long seq) {
+        sequences.lazySet((int) (seq & mask), seq + 1);
+    }
+
+    //send an event without waiting, returns false if the ring was full
+    public boolean offer(int type, String name, long value, Object object) {
+        long seq = tryClaim();
+        if (seq < 0) {
+            overflows.incrementAndGet();
+            return false;
+        }
+        get(seq).setType(type).setName(name).setValue(value).setObject(object);
+        commit(seq);
+        return true;
+    }
+
+    //send an event, waiting for space if the ring is full
+    public void publish(int type, String name, long value, Object object) {
+        long seq = claim();
+        get(seq).setType(type).setName(name).setValue(value).setObject(object);
+        commit(seq);
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized void addHandler(int type, EventHandler<Event> handler) {
+        EventHandler<Event>[][] table = handlers;
+        if (type >= table.length) {
+            table = Arrays.copyOf(table, type + 1);
+        } else {
+            table = table.clone();
+        }
+        EventHandler<Event>[] list = table[type];
+        if (list == null) {
+            list = (EventHandler<Event>[]) new EventHandler<?>[]{handler};
+        } else {
+            list = Arrays.copyOf(list, list.length + 1);
+            list[list.length - 1] = handler;
+        }
+        table[type] = list;
+        handlers = table;
+    }
+
+    //consumer thread only, handles every committed event and frees its slot
+    public int drain() {
+        return drain(Integer.MAX_VALUE);
+    }
+
+    public int drain(int max) {
+        consumer = Thread.currentThread();
+        long pending = tail.get() - head;
+        if (pending > highWater) {
+            highWater = pending;
+        }
+        EventHandler<Event>[][] table = handlers;
+        int count = 0;
+        while (count < max) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            Event e = slots[index];
+            int type = e.getType();
+            try {
+                if (type < table.length && table[type] != null) {
+                    for (EventHandler<Event> h : table[type]) {
+                        try {
+                            h.handle(e);
+                        } catch (Exception ex) {
+                            LOG.error("{}", ex);
+                        }
+                    }
+                }
+            } finally {
+                e.clear();
+                sequences.lazySet(index, head + slots.length);
+                head++;
+                count++;
+            }
+        }
+        drained += count;
+        return count;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    //events claimed but not yet drained
+    public long getPending() {
+        return tail.get() - head;
+    }
+
+    public long getPublishedCount() {
+        return tail.get();
+    }
+
+    public long getDrainedCount() {
+        return drained;
+    }
+
+    public long getOverflowCount() {
+        return overflows.get();
+    }
+
+    //claims that had to wait for the consumer
+    public long getWaitCount() {
+        return waits.get();
+    }
+
+    public long getHighWater() {
+        return highWater;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: published %d, drained %d, high water %d/%d, overflows %d, waits %d",
+                name, getPublishedCount(), drained, highWater, slots.length, getOverflowCount(), getWaitCount());
+    }
+}
@@ -1,6 +1,8 @@
 package game;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,16 +26,28 @@ public abstract class Component {
 
     private Component parent;
     private final List<Component> children;
-    private final Map<String, List<Action>> eventHandler;
+    //children indexed by class and by simple class name, as copy on write arrays
+    private final Map<Class<?>, Component[]> childrenByType;
+    private final Map<String, Component[]> childrenByName;
+    private volatile EventHandler<?>[][] handlers;
+    private volatile Component[] subtree;
+    //counts changes below this, a subtree flattened during a change is dropped
+    private volatile int subtreeVersion;
     private boolean isEnabled = true;
     private boolean requestRelease = false;
     private boolean isReleased = false;
+    //the pool this returns to on release, if obtained from one
+    private ComponentPool<?> pool;
+    //the registry of the root this is attached below, null if none
+    private volatile ComponentRegistry registry;
 
     private static final Logger LOG = LoggerFactory.getLogger(Component.class);
 
     public Component() {
-        eventHandler = new ConcurrentHashMap<>();
+        handlers = new EventHandler<?>[0][];
         children = new CopyOnWriteArrayList<>();
+        childrenByType = new ConcurrentHashMap<>();
+        childrenByName = new ConcurrentHashMap<>();
     }
 
     private void setParent(Component parent) {
@@ -50,26 +64,152 @@ public abstract class Component {
         }
     }
 
+    //a read only view, iteration sees a snapshot of the children
     public final List<Component> getChildren() {
-        return new ArrayList<>(children);
+        return Collections.unmodifiableList(children);
     }
 
+    //the first child whose simple class name matches
     public final Component getChild(String name) {
+        Component[] named = childrenByName.get(name);
+        return named == null ? null : named[0];
+    }
+
+    //the first child of the given type, or else the first added of a subtype
+    public final <T> T getChild(Class<T> type) {
+        Component[] exact = childrenByType.get(type);
+        if (exact != null) {
+            return type.cast(exact[0]);
+        }
         for (Component c : children) {
-            if (c.getClass().getSimpleName().equals(name)) {
-                return c;
+            if (type.isInstance(c)) {
+                return type.cast(c);
             }
         }
         return null;
     }
 
+    public final <T> List<T> getChildren(Class<T> type) {
+        List<T> list = new ArrayList<>();
+        for (Map.Entry<Class<?>, Component[]> e : childrenByType.entrySet()) {
+            if (type.isAssignableFrom(e.getKey())) {
+                for (Component c : e.getValue()) {
+                    list.add(type.cast(c));
+                }
+            }
+        }
+        return list;
+    }
+
     public final void addChild(Component c) {
-        children.add(c);
+        synchronized (children) {
+            children.add(c);
+            childrenByType.put(c.getClass(), append(childrenByType.get(c.getClass()), c));
+            String name = c.getClass().getSimpleName();
+            childrenByName.put(name, append(childrenByName.get(name), c));
+        }
         c.setParent(this);
+        ComponentRegistry r = registry;
+        if (r != null) {
+            c.attachRegistry(r);
+        }
+        invalidateSubtree();
+    }
+
+    //add many children, copying the child list and indexes once
+    public final void addChildren(List<? extends Component> cs) {
+        synchronized (children) {
+            children.addAll(cs);
+            Map<Class<?>, List<Component>> byType = new HashMap<>();
+            for (Component c : cs) {
+                byType.computeIfAbsent(c.getClass(), k -> new ArrayList<>()).add(c);
+            }
+            for (Map.Entry<Class<?>, List<Component>> e : byType.entrySet()) {
+                childrenByType.put(e.getKey(), appendAll(childrenByType.get(e.getKey()), e.getValue()));
+                String name = e.getKey().getSimpleName();
+                childrenByName.put(name, appendAll(childrenByName.get(name), e.getValue()));
+            }
+        }
+        ComponentRegistry r = registry;
+        for (Component c : cs) {
+            c.setParent(this);
+            if (r != null) {
+                c.attachRegistry(r);
+            }
+        }
+        invalidateSubtree();
     }
 
     private void removeChild(Component c) {
-        children.remove(c);
+        synchronized (children) {
+            children.remove(c);
+            removeIndex(childrenByType, c.getClass(), c);
+            removeIndex(childrenByName, c.getClass().getSimpleName(), c);
+        }
+        invalidateSubtree();
+    }
+
+    //the registry is set before the children are read, so a child added
+    //meanwhile is either seen here or sees the registry in addChild
+    final void attachRegistry(ComponentRegistry r) {
+        registry = r;
+        r.register(this);
+        for (Component c : children) {
+            c.attachRegistry(r);
+        }
+    }
+
+    final void detachRegistry() {
+        ComponentRegistry r = registry;
+        if (r != null) {
+            registry = null;
+            r.unregister(this);
+        }
+        for (Component c : children) {
+            c.detachRegistry();
+        }
+    }
+
+    public final ComponentRegistry getRegistry() {
+        return registry;
+    }
+
+    private static Component[] append(Component[] array, Component c) {
+        if (array == null) {
+            return new Component[]{c};
+        }
+        Component[] longer = Arrays.copyOf(array, array.length + 1);
+        longer[array.length] = c;
+        return longer;
+    }
+
+    private static Component[] appendAll(Component[] array, List<Component> cs) {
+        int length = array == null ? 0 : array.length;
+        Component[] longer = array == null ? new Component[cs.size()] : Arrays.copyOf(array, length + cs.size());
+        for (int i = 0; i < cs.size(); i++) {
+            longer[length + i] = cs.get(i);
+        }
+        return longer;
+    }
+
+    private static <K> void removeIndex(Map<K, Component[]> index, K key, Component c) {
+        Component[] array = index.get(key);
+        if (array == null) {
+            return;
+        }
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == c) {
+                if (array.length == 1) {
+                    index.remove(key);
+                } else {
+                    Component[] shorter = new Component[array.length - 1];
+                    System.arraycopy(array, 0, shorter, 0, i);
+                    System.arraycopy(array, i + 1, shorter, i, array.length - i - 1);
+                    index.put(key, shorter);
+                }
+                return;
+            }
+        }
     }
 
     public final Component getParent() {
@@ -80,9 +220,49 @@ public abstract class Component {
     
     public final void release() {
         requestRelease = true;
-        dispatchLocal("release");
+        dispatchLocal(EventId.RELEASE, this);
         releaseComponent();
-        parent.removeChild(this);
+        //the descendants leave the game with this, so none stay registered
+        detachRegistry();
+        if (parent != null) {
+            parent.removeChild(this);
+        }
+        if (pool != null) {
+            freeToPool();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void freeToPool() {
+        ((ComponentPool<Component>) pool).free(this);
+    }
+
+    final void setPool(ComponentPool<?> pool) {
+        this.pool = pool;
+    }
+
+    //restore the state of a pooled component for reuse
+    protected void resetComponent(){}
+
+    final void reset() {
+        resetComponent();
+        for (Component child : children) {
+            child.parent = null;
+        }
+        synchronized (children) {
+            children.clear();
+            childrenByType.clear();
+            childrenByName.clear();
+        }
+        synchronized (this) {
+            handlers = new EventHandler<?>[0][];
+        }
+        parent = null;
+        registry = null;
+        subtree = null;
+        isEnabled = true;
+        requestRelease = false;
+        isReleased = false;
     }
 
     public boolean requestRelease() {
@@ -99,7 +279,7 @@ public abstract class Component {
 
     public final void setEnabled(boolean enabled) {
         this.isEnabled = enabled;
-        dispatchLocal("enable");
+        dispatchLocal(EventId.ENABLE, this);
         for (Component child : children) {
             child.setEnabled(enabled);
         }
@@ -110,33 +290,148 @@ public abstract class Component {
     }
 
     public final void addDispatch(String name, Action action) {
-        if (eventHandler.get(name) == null) {
-            eventHandler.put(name, new CopyOnWriteArrayList<>());
-        }
-        eventHandler.get(name).add(action);
+        addHandler(EventId.intern(name), new ActionHandler(action));
     }
 
     public final void removeDispatch(String name, Action action) {
-        List<Action> actions = eventHandler.get(name);
-        if (actions != null) {
-            actions.remove(action);
+        int id = EventId.lookup(name);
+        if (id >= 0) {
+            removeHandler(id, new ActionHandler(action));
+        }
+    }
+
+    //handlers are kept as copy on write arrays indexed by event id
+    public final synchronized void addHandler(int id, EventHandler<?> handler) {
+        EventHandler<?>[][] table = handlers;
+        if (id >= table.length) {
+            table = Arrays.copyOf(table, Math.max(id + 1, table.length * 2));
+        }
+        EventHandler<?>[] list = table[id];
+        if (list == null) {
+            list = new EventHandler<?>[]{handler};
+        } else {
+            list = Arrays.copyOf(list, list.length + 1);
+            list[list.length - 1] = handler;
+        }
+        table[id] = list;
+        handlers = table;
+    }
+
+    public final synchronized void removeHandler(int id, EventHandler<?> handler) {
+        EventHandler<?>[][] table = handlers;
+        if (id >= table.length || table[id] == null) {
+            return;
+        }
+        EventHandler<?>[] list = table[id];
+        for (int i = 0; i < list.length; i++) {
+            if (list[i].equals(handler)) {
+                EventHandler<?>[] shorter = new EventHandler<?>[list.length - 1];
+                System.arraycopy(list, 0, shorter, 0, i);
+                System.arraycopy(list, i + 1, shorter, i, list.length - i - 1);
+                table = table.clone();
+                table[id] = shorter.length == 0 ? null : shorter;
+                handlers = table;
+                return;
+            }
         }
     }
 
     //receive an event with name and arguments
     public final void dispatchLocal(String name, Object... args) {
-        List<Action> actions = eventHandler.get(name);
-        if (actions != null) {
-            for (Action a : eventHandler.get(name)) {
-                a.act(args);
-            }
+        int id = EventId.lookup(name);
+        if (id >= 0) {
+            dispatchLocal(id, args);
         }
     }
+
     //receive an event with name and arguments
     public final void dispatch(String name, Object... args) {
-        dispatchLocal(name, args);
+        int id = EventId.lookup(name);
+        if (id >= 0) {
+            dispatch(id, args);
+        }
+    }
+
+    //receive an event by interned id with a typed payload
+    @SuppressWarnings("unchecked")
+    public final <T> void dispatchLocal(int id, T payload) {
+        EventHandler<?>[][] table = handlers;
+        if (id < table.length) {
+            EventHandler<?>[] list = table[id];
+            if (list != null) {
+                for (EventHandler<?> h : list) {
+                    ((EventHandler<T>) h).handle(payload);
+                }
+            }
+        }
+    }
+
+    //dispatch to this component and every descendant, in depth first order
+    public final <T> void dispatch(int id, T payload) {
+        for (Component c : getSubtree()) {
+            c.dispatchLocal(id, payload);
+        }
+    }
+
+    //the flattened subtree rooted here, rebuilt only after the tree changes
+    private Component[] getSubtree() {
+        Component[] flat = subtree;
+        if (flat == null) {
+            int version = subtreeVersion;
+            List<Component> list = new ArrayList<>();
+            flatten(list);
+            flat = list.toArray(new Component[list.size()]);
+            synchronized (this) {
+                if (subtreeVersion == version) {
+                    subtree = flat;
+                }
+            }
+        }
+        return flat;
+    }
+
+    private void flatten(List<Component> list) {
+        list.add(this);
         for (Component child : children) {
-            child.dispatch(name, args);
+            child.flatten(list);
+        }
+    }
+
+    private void invalidateSubtree() {
+        for (Component c = this; c != null; c = c.parent) {
+            synchronized (c) {
+                c.subtreeVersion++;
+                c.subtree = null;
+            }
+        }
+    }
+
+    //adapts a varargs Action to a handler of Object[] payloads
+    private static final class ActionHandler implements EventHandler<Object> {
+
+        private final Action action;
+
+        private ActionHandler(Action action) {
+            this.action = action;
+        }
+
+        @Override
+        public void handle(Object payload) {
+            if (payload instanceof Object[]) {
+                action.act((Object[]) payload);
+            } else {
+                action.act(payload);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ActionHandler && ((ActionHandler) o).action.equals(action);
+        }
+
+        @Override
+        public int hashCode() {
+            return action.hashCode();
         }
     }
 }
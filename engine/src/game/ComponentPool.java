@@ -0,0 +1,35 @@
+package game;
+
+import java.util.function.Supplier;
+import util.Pool;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A Pool of Components that return to it when released
+ *
+ * Pooling is opt-in, only components obtained from a ComponentPool return
+ * to one, those constructed directly are left to the garbage collector.
+ * A reused component has no parent, children or handlers and is enabled,
+ * as if newly constructed. Subclasses restore anything else in
+ * resetComponent and so should register handlers when obtained rather than
+ * in their constructor.
+ */
+public class ComponentPool<T extends Component> extends Pool<T> {
+
+    public ComponentPool(String name, Supplier<? extends T> factory, int maxSize) {
+        super(name, factory, Component::reset, maxSize);
+    }
+
+    @Override
+    public T obtain() {
+        T c = super.obtain();
+        c.setPool(this);
+        return c;
+    }
+
+    public static <T extends Component> ComponentPool<T> createComponentPool(String name, Supplier<? extends T> factory) {
+        return Pool.register(new ComponentPool<>(name, factory, DEFAULT_MAX_SIZE));
+    }
+}
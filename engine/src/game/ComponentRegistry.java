@@ -0,0 +1,83 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * An index of the live Components below registered roots by class
+ *
+ * A root added with addRoot is registered with its whole subtree, and any
+ * component later attached below it is registered with its descendants, so
+ * systems may visit every component of a type in the game without walking
+ * the tree. Trees not attached to a registered root, such as Prefab
+ * templates, are never registered. A released component leaves with its
+ * descendants, as does a root removed with removeRoot.
+ * The registry is owned by its creator, dropping it and its roots leaves
+ * nothing reachable.
+ * Queries by a supertype visit every registered subclass.
+ */
+public final class ComponentRegistry {
+
+    private final Map<Class<?>, Set<Component>> byClass = new ConcurrentHashMap<>();
+
+    public void addRoot(Component root) {
+        root.attachRegistry(this);
+    }
+
+    public void removeRoot(Component root) {
+        root.detachRegistry();
+    }
+
+    void register(Component c) {
+        byClass.computeIfAbsent(c.getClass(), k -> ConcurrentHashMap.newKeySet()).add(c);
+    }
+
+    void unregister(Component c) {
+        Set<Component> set = byClass.get(c.getClass());
+        if (set != null) {
+            set.remove(c);
+        }
+    }
+
+    public <T> void forEach(Class<T> type, Consumer<? super T> action) {
+        for (Map.Entry<Class<?>, Set<Component>> e : byClass.entrySet()) {
+            if (type.isAssignableFrom(e.getKey())) {
+                for (Component c : e.getValue()) {
+                    action.accept(type.cast(c));
+                }
+            }
+        }
+    }
+
+    public <T> List<T> getAll(Class<T> type) {
+        List<T> list = new ArrayList<>();
+        forEach(type, list::add);
+        return list;
+    }
+
+    public int count(Class<?> type) {
+        int count = 0;
+        for (Map.Entry<Class<?>, Set<Component>> e : byClass.entrySet()) {
+            if (type.isAssignableFrom(e.getKey())) {
+                count += e.getValue().size();
+            }
+        }
+        return count;
+    }
+
+    public Set<Class<?>> getRegisteredClasses() {
+        return Collections.unmodifiableSet(byClass.keySet());
+    }
+
+    public static ComponentRegistry createComponentRegistry() {
+        return new ComponentRegistry();
+    }
+}
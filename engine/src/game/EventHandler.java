@@ -0,0 +1,15 @@
+package game;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A typed response to an event dispatched by id through Components
+ *
+ * Unlike Action, the payload is passed as is, without a varargs array
+ */
+@FunctionalInterface
+public interface EventHandler<T> {
+
+    public void handle(T payload);
+}
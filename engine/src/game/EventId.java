@@ -0,0 +1,52 @@
+package game;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * Event names are interned once to small integer ids
+ *
+ * Ids are dense from zero so Components may index handlers by id directly.
+ * Intern names once, such as in a static field, and dispatch by id.
+ */
+public final class EventId {
+
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static final CopyOnWriteArrayList<String> names = new CopyOnWriteArrayList<>();
+
+    public static final int RELEASE = intern("release");
+    public static final int ENABLE = intern("enable");
+
+    private EventId() {
+    }
+
+    public static int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (names) {
+            return ids.computeIfAbsent(name, n -> {
+                names.add(n);
+                return names.size() - 1;
+            });
+        }
+    }
+
+    //the id of an interned name, or -1 if the name has never been interned
+    public static int lookup(String name) {
+        return ids.getOrDefault(name, -1);
+    }
+
+    public static String getName(int id) {
+        return names.get(id);
+    }
+
+    public static int getCount() {
+        return names.size();
+    }
+}
@@ -1,6 +1,9 @@
 package game;
 
+import event.EventBus;
 import io.GLFWManager;
+import java.util.concurrent.CountDownLatch;
+import job.JobSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import resource.ResourceManager;
@@ -14,31 +17,43 @@ public class GLFWGame extends Game {
     private final GLFWManager glfwManager;
     private final UpdateManager updateManager;
     private final ResourceManager resourceManager;
+    private final JobSystem jobSystem;
     private Thread updateThread;
     private Thread resourceThread;
     
-    private boolean requestEnd;
+    private final CountDownLatch endLatch;
+    private final LifecycleCoordinator lifecycleCoordinator;
+    private final EventBus eventBus;
     
     static final Logger LOG = LoggerFactory.getLogger(GLFWGame.class);
     
     public GLFWGame(GameStateManager gameStateManager, GLFWManager glfwManager,
-            UpdateManager updateManager, ResourceManager resourceManager) {
+            UpdateManager updateManager, ResourceManager resourceManager,
+            JobSystem jobSystem) {
         super(gameStateManager);
         this.glfwManager = glfwManager;
         this.updateManager = updateManager;
         this.resourceManager = resourceManager;
+        this.jobSystem = jobSystem;
+        endLatch = new CountDownLatch(1);
+        
+        lifecycleCoordinator = new LifecycleCoordinator();
+        lifecycleCoordinator.register(glfwManager.getLifecycle());
+        lifecycleCoordinator.register(jobSystem.getLifecycle());
+        lifecycleCoordinator.register(updateManager.getLifecycle());
+        lifecycleCoordinator.register(resourceManager.getLifecycle());
+        
+        eventBus = EventBus.createEventBus();
+        eventBus.register(updateManager.getEventQueue());
     }
     
     @Override
     protected void engineInit() {
         
-        while(!glfwManager.isInitialized()) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException ex) {
-                LOG.error("{}", ex);
-            }
-        }
+        glfwManager.getLifecycle().awaitInitialized();
+        jobSystem.initialize();
+        updateManager.setJobSystem(jobSystem);
+        
         updateThread = new Thread(updateManager);
         updateThread.start();
         resourceThread = new Thread(resourceManager);
@@ -50,27 +65,29 @@ public class GLFWGame extends Game {
     @Override
     protected void engineRun() {
         
-        while(!requestEnd) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException ex) {
-                LOG.error("{}", ex);
-            }
+        LOG.info(lifecycleCoordinator.getStartupReport());
+        
+        try {
+            endLatch.await();
+        } catch (InterruptedException ex) {
+            LOG.error("{}", ex);
         }
         
     }
     
     @Override
     protected void engineRelease() {
+        LOG.info(eventBus.report());
         updateManager.release();
         resourceManager.release();
+        jobSystem.release();
         
         glfwManager.release();
     }
     
     @Override
     public void endRequested() {
-        this.requestEnd = true;
+        endLatch.countDown();
     }
     
     //must be called from main application thread
@@ -89,4 +106,16 @@ public class GLFWGame extends Game {
     public ResourceManager getResourceManager() {
         return resourceManager;
     }
+
+    public JobSystem getJobSystem() {
+        return jobSystem;
+    }
+
+    public LifecycleCoordinator getLifecycleCoordinator() {
+        return lifecycleCoordinator;
+    }
+
+    public EventBus getEventBus() {
+        return eventBus;
+    }
 }
@@ -7,9 +7,14 @@ package game;
  * This class serves as an empty component to be used
  * as a parent to group together child components
  */
-public final class GameObject extends Component{
+public final class GameObject extends Component implements Instantiable {
 
     public GameObject() {
         super();
     }
+
+    @Override
+    public Component instantiate() {
+        return new GameObject();
+    }
 }
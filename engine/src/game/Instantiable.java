@@ -0,0 +1,16 @@
+package game;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A Component that may be captured in a Prefab
+ *
+ * instantiate returns a new component without parent or children, sharing
+ * any immutable data such as shaders and meshes and copying only state that
+ * belongs to each instance
+ */
+public interface Instantiable {
+
+    public Component instantiate();
+}
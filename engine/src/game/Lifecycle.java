@@ -0,0 +1,117 @@
+package game;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * Lifecycle tracks when a manager is initialized, ready and released
+ *
+ * Each state is a future completed once by the manager's own thread, so other
+ * threads can block on it or chain work after it instead of polling a flag.
+ * The time each state was reached is kept for the startup report.
+ */
+public class Lifecycle {
+
+    private final String name;
+    private final CompletableFuture<Void> initialized;
+    private final CompletableFuture<Void> ready;
+    private final CompletableFuture<Void> released;
+    private volatile long initializedTime, readyTime, releasedTime;
+
+    private static final Logger LOG = LoggerFactory.getLogger(Lifecycle.class);
+
+    public Lifecycle(String name) {
+        this.name = name;
+        initialized = new CompletableFuture<>();
+        ready = new CompletableFuture<>();
+        released = new CompletableFuture<>();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setInitialized() {
+        initializedTime = System.nanoTime();
+        initialized.complete(null);
+    }
+
+    //ready implies initialized
+    public void setReady() {
+        if (!initialized.isDone()) {
+            setInitialized();
+        }
+        readyTime = System.nanoTime();
+        ready.complete(null);
+    }
+
+    public void setReleased() {
+        releasedTime = System.nanoTime();
+        released.complete(null);
+    }
+
+    public boolean isInitialized() {
+        return initialized.isDone();
+    }
+
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    public boolean isReleased() {
+        return released.isDone();
+    }
+
+    public void awaitInitialized() {
+        await(initialized);
+    }
+
+    public void awaitReady() {
+        await(ready);
+    }
+
+    public void awaitReleased() {
+        await(released);
+    }
+
+    private void await(CompletableFuture<Void> state) {
+        try {
+            state.get();
+        } catch (InterruptedException ex) {
+            LOG.error("{}", ex);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            LOG.error("{}", ex);
+        }
+    }
+
+    public CompletableFuture<Void> getInitialized() {
+        return initialized;
+    }
+
+    public CompletableFuture<Void> getReady() {
+        return ready;
+    }
+
+    public CompletableFuture<Void> getReleased() {
+        return released;
+    }
+
+    //nanoTime stamps, 0 until the state is reached
+    public long getInitializedTime() {
+        return initializedTime;
+    }
+
+    public long getReadyTime() {
+        return readyTime;
+    }
+
+    public long getReleasedTime() {
+        return releasedTime;
+    }
+}
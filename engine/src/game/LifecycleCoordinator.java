@@ -0,0 +1,67 @@
+package game;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * LifecycleCoordinator gathers the Lifecycles of the engine's managers
+ *
+ * It offers combined futures over all managers and a report of how long
+ * after the engine started each manager was initialized and ready.
+ */
+public class LifecycleCoordinator {
+
+    private final long startTime;
+    private final List<Lifecycle> lifecycles;
+
+    public LifecycleCoordinator() {
+        startTime = System.nanoTime();
+        lifecycles = new CopyOnWriteArrayList<>();
+    }
+
+    public Lifecycle register(Lifecycle lifecycle) {
+        lifecycles.add(lifecycle);
+        return lifecycle;
+    }
+
+    //a lifecycle for a manager without one of its own
+    public Lifecycle register(String name) {
+        return register(new Lifecycle(name));
+    }
+
+    public List<Lifecycle> getLifecycles() {
+        return lifecycles;
+    }
+
+    public CompletableFuture<Void> allInitialized() {
+        return CompletableFuture.allOf(lifecycles.stream()
+                .map(Lifecycle::getInitialized).toArray(CompletableFuture[]::new));
+    }
+
+    public CompletableFuture<Void> allReleased() {
+        return CompletableFuture.allOf(lifecycles.stream()
+                .map(Lifecycle::getReleased).toArray(CompletableFuture[]::new));
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public String getStartupReport() {
+        StringBuilder out = new StringBuilder("Startup times from engine start:");
+        for (Lifecycle l : lifecycles) {
+            out.append("\n  ").append(l.getName())
+                    .append(" initialized ").append(format(l.getInitializedTime()))
+                    .append(" ready ").append(format(l.getReadyTime()));
+        }
+        return out.toString();
+    }
+
+    private String format(long time) {
+        return time == 0 ? "-" : String.format("%.1fms", (time - startTime) / 1e6);
+    }
+}
@@ -0,0 +1,121 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A Prefab is a Component subtree captured once as a template
+ *
+ * The tree is flattened in depth first order, so an instance is built by one
+ * pass creating each node from its template and attaching it to its parent.
+ * Templates are Instantiable and share immutable data with their copies.
+ * Bindings run on each new instance to connect it to shared resources, such
+ * as adding its transform to a BoxGraphic or a TransformSnapshots.
+ */
+public class Prefab {
+
+    private final String name;
+    private final Instantiable[] templates;
+    //index of the parent of each node, -1 for the root
+    private final int[] parents;
+    private final List<PrefabBinding> bindings;
+
+    private static final Logger LOG = LoggerFactory.getLogger(Prefab.class);
+
+    private Prefab(String name, Instantiable[] templates, int[] parents) {
+        this.name = name;
+        this.templates = templates;
+        this.parents = parents;
+        bindings = new CopyOnWriteArrayList<>();
+    }
+
+    //capture the subtree of root, skipping components that are not Instantiable
+    public static Prefab capture(String name, Component root) {
+        List<Instantiable> templates = new ArrayList<>();
+        List<Integer> parents = new ArrayList<>();
+        collect(root, -1, templates, parents);
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException("Prefab root must be Instantiable");
+        }
+        int[] parentArray = new int[parents.size()];
+        for (int i = 0; i < parentArray.length; i++) {
+            parentArray[i] = parents.get(i);
+        }
+        return new Prefab(name, templates.toArray(new Instantiable[templates.size()]), parentArray);
+    }
+
+    private static void collect(Component c, int parent, List<Instantiable> templates, List<Integer> parents) {
+        if (!(c instanceof Instantiable)) {
+            LOG.warn("Cannot capture {} in a prefab, skipping its subtree", c.getClass().getSimpleName());
+            return;
+        }
+        int index = templates.size();
+        templates.add((Instantiable) c);
+        parents.add(parent);
+        for (Component child : c.getChildren()) {
+            collect(child, index, templates, parents);
+        }
+    }
+
+    public void addBinding(PrefabBinding binding) {
+        bindings.add(binding);
+    }
+
+    public Component instantiate() {
+        return instantiate(null, new Component[templates.length]);
+    }
+
+    public Component instantiate(Component parent) {
+        return instantiate(parent, new Component[templates.length]);
+    }
+
+    //instantiate many copies, attached to parent together at the end
+    public List<Component> instantiate(Component parent, int count) {
+        List<Component> instances = new ArrayList<>(count);
+        Component[] nodes = new Component[templates.length];
+        for (int i = 0; i < count; i++) {
+            instances.add(instantiate(null, nodes));
+        }
+        if (parent != null) {
+            parent.addChildren(instances);
+        }
+        return instances;
+    }
+
+    private Component instantiate(Component parent, Component[] nodes) {
+        for (int i = 0; i < templates.length; i++) {
+            nodes[i] = templates[i].instantiate();
+            if (parents[i] >= 0) {
+                nodes[parents[i]].addChild(nodes[i]);
+            }
+        }
+        Component root = nodes[0];
+        for (PrefabBinding binding : bindings) {
+            binding.bind(root);
+        }
+        if (parent != null) {
+            parent.addChild(root);
+        }
+        return root;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getNodeCount() {
+        return templates.length;
+    }
+
+    //connects a new instance to shared resources
+    public interface PrefabBinding {
+
+        public void bind(Component instance);
+    }
+}
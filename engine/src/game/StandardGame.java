@@ -1,9 +1,13 @@
 package game;
 
+import geometry.TransformHierarchy;
 import graphics.RenderManager;
 import io.GLFWManager;
 import io.KeyCallback;
 import io.Window;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import job.JobSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import static org.lwjgl.glfw.GLFW.GLFW_KEY_ESCAPE;
@@ -25,6 +29,7 @@ public class StandardGame extends GLFWGame {
     private RenderManager renderManager;
     private ScriptManager scriptManager;
     private SoundManager soundManager;
+    private final TransformHierarchy transformHierarchy;
     
     private Thread renderThread;
     
@@ -36,47 +41,69 @@ public class StandardGame extends GLFWGame {
     
     public StandardGame(GameStateManager gameStateManager, GLFWManager glfwManager,
             UpdateManager updateManager, ResourceManager resourceManager,
-            Window window,
+            JobSystem jobSystem, Window window,
             RenderManager renderManager, ScriptManager scriptManager,
             SoundManager soundManager) {
-        super(gameStateManager, glfwManager, updateManager, resourceManager);
+        super(gameStateManager, glfwManager, updateManager, resourceManager, jobSystem);
         this.window = window;
         this.renderManager = renderManager;
         this.scriptManager = scriptManager;
         this.soundManager = soundManager;
+        
+        getLifecycleCoordinator().register(window.getLifecycle());
+        getLifecycleCoordinator().register(renderManager.getLifecycle());
+        getLifecycleCoordinator().register(renderManager.getFirstFrameLifecycle());
+        getEventBus().register(renderManager.getEventQueue());
+        
+        //after each tick the update thread computes world transforms
+        //then publishes transforms for the render thread
+        transformHierarchy = TransformHierarchy.createTransformHierarchy();
+        updateManager.addTickListener(() -> transformHierarchy.update(updateManager.getJobSystem()));
+        updateManager.addTickListener(renderManager.getTransformSnapshots()::publish);
+        //the render thread blends the last two ticks by the update loop's alpha
+        renderManager.getTransformSnapshots().setAlphaSource(updateManager::getInterpolationAlpha);
     }
     
     @Override
     protected void engineInit() {
         super.engineInit();
         
-        window.initialize();
+        //subsystems are initialized as a graph, each waiting only on its prerequisites
+        //the openal context, the script engine and the resource prefetch depend
+        //on nothing and run on the job system while the window is created
+        //alcMakeContextCurrent sets the context for the whole process, not the
+        //calling thread, so sound is still usable from the update thread
+        Lifecycle soundLifecycle = getLifecycleCoordinator().register("SoundManager");
+        CompletableFuture<Void> soundInit = CompletableFuture.runAsync(() -> {
+            soundManager.initialize();
+            soundLifecycle.setReady();
+        }, getJobSystem());
         
-        renderThread = new Thread(renderManager);
-        renderThread.start();
+        Lifecycle scriptLifecycle = getLifecycleCoordinator().register("ScriptManager");
+        CompletableFuture<Void> scriptEngineInit = CompletableFuture.runAsync(
+                scriptManager::createEngine, getJobSystem());
         
-        soundManager.initialize();
+        CompletableFuture<Void> prefetch = CompletableFuture.runAsync(
+                this::prefetchResources, getJobSystem());
         
-        scriptManager.initialize();
+        window.initialize();
         
-        scriptManager.addGLobal("gameInst", this);
-        scriptManager.addGLobal("renderManager", renderManager);
-        scriptManager.addGLobal("window", window);
-        scriptManager.addGLobal("resourceManager", getResourceManager());
-        scriptManager.addGLobal("scriptManager", scriptManager);
-        scriptManager.addGLobal("soundManager", soundManager);
-        scriptManager.addGLobal("updateManager", getUpdateManager());
-        scriptManager.addGLobal("glfwManager", getGLFWManager());
+        renderManager.setJobSystem(getJobSystem());
+        renderThread = new Thread(renderManager);
+        renderThread.start();
         
-        while(!renderManager.isInitialized()) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException ex) {
-                LOG.error("{}", ex);
-                }
+        try {
+            CompletableFuture.allOf(soundInit, scriptEngineInit, prefetch,
+                    renderManager.getLifecycle().getReady()).join();
+        } catch (CompletionException ex) {
+            LOG.error("{}", ex.getCause());
+            throw new IllegalStateException("Engine init failed", ex.getCause());
         }
         
-        
+        //startup scripts may use any global, so they run once all else is ready
+        addScriptGlobals();
+        scriptManager.loadStartupScripts();
+        scriptLifecycle.setReady();
         
         Action exitAction = new Action() {
 
@@ -99,9 +126,33 @@ public class StandardGame extends GLFWGame {
         window.addExitCallback(exitAction);
         window.addKeyCallback(exitKeyCallback);
         
+        //init ends once a frame has been presented, so the startup report
+        //always includes the time to first frame
+        renderManager.getFirstFrameLifecycle().awaitReady();
+        
        
     }
     
+    //loads resources needed soon after startup into the cache, run on the
+    //job system during init, subclasses may add their own
+    protected void prefetchResources() {
+        scriptManager.prefetchStartupScripts();
+    }
+    
+    private void addScriptGlobals() {
+        scriptManager.addGLobal("gameInst", this);
+        scriptManager.addGLobal("renderManager", renderManager);
+        scriptManager.addGLobal("window", window);
+        scriptManager.addGLobal("resourceManager", getResourceManager());
+        scriptManager.addGLobal("scriptManager", scriptManager);
+        scriptManager.addGLobal("soundManager", soundManager);
+        scriptManager.addGLobal("updateManager", getUpdateManager());
+        scriptManager.addGLobal("eventBus", getEventBus());
+        scriptManager.addGLobal("transformHierarchy", transformHierarchy);
+        scriptManager.addGLobal("glfwManager", getGLFWManager());
+        scriptManager.addGLobal("jobSystem", getJobSystem());
+    }
+    
     @Override
     protected void engineRelease() {
         scriptManager.release();
@@ -114,6 +165,10 @@ public class StandardGame extends GLFWGame {
     public RenderManager getRenderManager() {
         return renderManager;
     }
+    
+    public TransformHierarchy getTransformHierarchy() {
+        return transformHierarchy;
+    }
     public ScriptManager getScriptManager() {
         return scriptManager;
     }
@@ -127,6 +182,7 @@ public class StandardGame extends GLFWGame {
         GLFWManager glfwManager = new GLFWManager();
         UpdateManager updateManager = new UpdateManager();
         ResourceManager resourceManager = new ResourceManager();
+        JobSystem jobSystem = JobSystem.createJobSystem();
         
         ScriptManager scriptManager = new ScriptManager(updateManager, resourceManager);
         
@@ -136,7 +192,7 @@ public class StandardGame extends GLFWGame {
         
         LOG.info("Standard Game managers created");
         
-        StandardGame game = new StandardGame(gameStateManager, glfwManager, updateManager, resourceManager, window, renderManager, scriptManager, soundManager);
+        StandardGame game = new StandardGame(gameStateManager, glfwManager, updateManager, resourceManager, jobSystem, window, renderManager, scriptManager, soundManager);
         Thread gameThread = new Thread(game);
         gameThread.start();
         
@@ -0,0 +1,50 @@
+package game;
+
+import geometry.HasTransform;
+import geometry.Transform;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A Component holding a Transform, so a transform may be part of a
+ * Component tree and be captured in a Prefab
+ */
+public class TransformComponent extends Component implements HasTransform, Instantiable {
+
+    private final Transform transform;
+
+    public TransformComponent() {
+        this(new Transform());
+    }
+
+    public TransformComponent(Transform transform) {
+        this.transform = transform;
+    }
+
+    public Transform getTransform() {
+        return transform;
+    }
+
+    @Override
+    public Vector3f getPosition(Vector3f dest) {
+        return transform.getPosition(dest);
+    }
+
+    @Override
+    public Quaternionf getOrientation(Quaternionf dest) {
+        return transform.getOrientation(dest);
+    }
+
+    @Override
+    public Vector3f getScale(Vector3f dest) {
+        return transform.getScale(dest);
+    }
+
+    @Override
+    public Component instantiate() {
+        return new TransformComponent(new Transform(transform));
+    }
+}
@@ -0,0 +1,119 @@
+package game.entity;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * All entities with exactly the same set of component types
+ *
+ * Each type is stored as one packed float array, width floats per row, so a
+ * system touching a type walks memory in order. Rows are kept dense by
+ * moving the last row into the place of a removed one.
+ */
+public final class Archetype {
+
+    private final long mask;
+    private final ComponentType[] types;
+    //column index of each type id, or -1 if absent
+    private final int[] columnOf;
+    private final float[][] columns;
+    private long[] entities;
+    private int size;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    Archetype(long mask) {
+        this.mask = mask;
+        types = new ComponentType[Long.bitCount(mask)];
+        columnOf = new int[ComponentType.MAX_TYPES];
+        Arrays.fill(columnOf, -1);
+        columns = new float[types.length][];
+        int column = 0;
+        for (int id = 0; id < ComponentType.MAX_TYPES; id++) {
+            if ((mask & (1L << id)) != 0) {
+                types[column] = ComponentType.get(id);
+                columnOf[id] = column;
+                columns[column] = new float[INITIAL_CAPACITY * types[column].getWidth()];
+                column++;
+            }
+        }
+        entities = new long[INITIAL_CAPACITY];
+    }
+
+    //append a zeroed row for the entity and return its index
+    int add(long entity) {
+        if (size == entities.length) {
+            int capacity = entities.length * 2;
+            entities = Arrays.copyOf(entities, capacity);
+            for (int c = 0; c < columns.length; c++) {
+                columns[c] = Arrays.copyOf(columns[c], capacity * types[c].getWidth());
+            }
+        }
+        for (int c = 0; c < columns.length; c++) {
+            int width = types[c].getWidth();
+            Arrays.fill(columns[c], size * width, (size + 1) * width, 0);
+        }
+        entities[size] = entity;
+        return size++;
+    }
+
+    //remove a row, returning the entity moved into its place or -1 if none
+    long remove(int row) {
+        int last = size - 1;
+        long moved = -1;
+        if (row != last) {
+            for (int c = 0; c < columns.length; c++) {
+                int width = types[c].getWidth();
+                System.arraycopy(columns[c], last * width, columns[c], row * width, width);
+            }
+            moved = entities[last];
+            entities[row] = moved;
+        }
+        size--;
+        return moved;
+    }
+
+    //copy the types shared with dest from a row here to a row there
+    void copyRow(int row, Archetype dest, int destRow) {
+        for (int c = 0; c < columns.length; c++) {
+            int destColumn = dest.columnOf[types[c].getId()];
+            if (destColumn >= 0) {
+                int width = types[c].getWidth();
+                System.arraycopy(columns[c], row * width, dest.columns[destColumn], destRow * width, width);
+            }
+        }
+    }
+
+    //the packed data of a type, null if the type is absent
+    //the array is replaced as the archetype grows, so fetch it per pass
+    public float[] getColumn(ComponentType type) {
+        int column = columnOf[type.getId()];
+        return column < 0 ? null : columns[column];
+    }
+
+    public boolean has(ComponentType type) {
+        return columnOf[type.getId()] >= 0;
+    }
+
+    public boolean matches(long required) {
+        return (mask & required) == required;
+    }
+
+    public long getEntity(int row) {
+        return entities[row];
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    public ComponentType[] getTypes() {
+        return types.clone();
+    }
+
+    public int size() {
+        return size;
+    }
+}
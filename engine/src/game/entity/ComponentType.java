@@ -0,0 +1,80 @@
+package game.entity;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A kind of entity data stored as a fixed number of floats per entity
+ *
+ * Types are numbered as created so a set of types fits in a long mask
+ */
+public final class ComponentType {
+
+    private static final List<ComponentType> types = new CopyOnWriteArrayList<>();
+
+    public static final int MAX_TYPES = 64;
+
+    public static final ComponentType POSITION = create("Position", 3);
+    public static final ComponentType ORIENTATION = create("Orientation", 4);
+    public static final ComponentType SCALE = create("Scale", 3);
+    public static final ComponentType VELOCITY = create("Velocity", 3);
+
+    private final String name;
+    private final int width;
+    private final int id;
+
+    private ComponentType(String name, int width, int id) {
+        this.name = name;
+        this.width = width;
+        this.id = id;
+    }
+
+    public static synchronized ComponentType create(String name, int width) {
+        if (types.size() >= MAX_TYPES) {
+            throw new IllegalStateException("Exceeded " + MAX_TYPES + " component types");
+        }
+        if (width <= 0) {
+            throw new IllegalArgumentException("Width must be positive");
+        }
+        ComponentType type = new ComponentType(name, width, types.size());
+        types.add(type);
+        return type;
+    }
+
+    public static ComponentType get(int id) {
+        return types.get(id);
+    }
+
+    public static long mask(ComponentType... types) {
+        long mask = 0;
+        for (ComponentType t : types) {
+            mask |= t.getBit();
+        }
+        return mask;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    //floats per entity
+    public int getWidth() {
+        return width;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getBit() {
+        return 1L << id;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
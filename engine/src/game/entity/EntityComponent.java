@@ -0,0 +1,38 @@
+package game.entity;
+
+import game.Component;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A Component owning an entity, so the entity may be placed in the
+ * Component tree and is destroyed when the component is released
+ */
+public class EntityComponent extends Component {
+
+    private final EntityWorld world;
+    private final long entity;
+
+    public EntityComponent(EntityWorld world, ComponentType... types) {
+        this.world = world;
+        this.entity = world.createEntity(types);
+    }
+
+    @Override
+    protected void releaseComponent() {
+        world.destroyEntity(entity);
+    }
+
+    public EntityWorld getWorld() {
+        return world;
+    }
+
+    public long getEntity() {
+        return entity;
+    }
+
+    public EntityTransform createTransform() {
+        return new EntityTransform(world, entity);
+    }
+}
@@ -0,0 +1,17 @@
+package game.entity;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A loop over a range of rows of one archetype
+ *
+ * Systems run by an EntityWorld in parallel receive disjoint ranges on
+ * worker threads and so must only write to the rows they are given and
+ * must not create or destroy entities
+ */
+@FunctionalInterface
+public interface EntitySystem {
+
+    public void update(Archetype archetype, int from, int to, int delta);
+}
@@ -0,0 +1,60 @@
+package game.entity;
+
+import geometry.HasTransform;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A HasTransform reading the position, orientation and scale of an entity
+ *
+ * This lets existing graphics draw entities. Absent types read as the
+ * identity. To read from the render thread while systems write, register
+ * it with the TransformSnapshots of the RenderManager and read the snapshot.
+ */
+public class EntityTransform implements HasTransform {
+
+    private final EntityWorld world;
+    private final long entity;
+
+    public EntityTransform(EntityWorld world, long entity) {
+        this.world = world;
+        this.entity = entity;
+    }
+
+    @Override
+    public Vector3f getPosition(Vector3f dest) {
+        return read(ComponentType.POSITION, dest.set(0, 0, 0));
+    }
+
+    @Override
+    public Quaternionf getOrientation(Quaternionf dest) {
+        dest.identity();
+        if (world.has(entity, ComponentType.ORIENTATION)) {
+            float[] data = world.getArchetype(entity).getColumn(ComponentType.ORIENTATION);
+            int base = world.getRow(entity) * 4;
+            dest.set(data[base], data[base + 1], data[base + 2], data[base + 3]);
+        }
+        return dest;
+    }
+
+    @Override
+    public Vector3f getScale(Vector3f dest) {
+        return read(ComponentType.SCALE, dest.set(1, 1, 1));
+    }
+
+    private Vector3f read(ComponentType type, Vector3f dest) {
+        if (world.has(entity, type)) {
+            float[] data = world.getArchetype(entity).getColumn(type);
+            int base = world.getRow(entity) * 3;
+            dest.set(data[base], data[base + 1], data[base + 2]);
+        }
+        return dest;
+    }
+
+    public long getEntity() {
+        return entity;
+    }
+}
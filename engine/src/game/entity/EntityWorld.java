@@ -0,0 +1,303 @@
+package game.entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import job.Job;
+import job.JobSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import update.UpdateLayer;
+import update.Updateable;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * An EntityWorld stores entities as rows of archetypes and runs systems
+ * over them
+ *
+ * An entity is a long handle, its index in the low bits and a generation in
+ * the high bits so stale handles are detected. The world is an Updateable so
+ * it may be added to any UpdateLayer, where its systems run in order each
+ * update, each over every archetype with the types it requires. Parallel
+ * systems split archetypes into chunks on the JobSystem.
+ *
+ * Structural changes must be made on the updating thread. Entities destroyed
+ * while systems are running are removed once the systems finish.
+ */
+public class EntityWorld implements Updateable {
+
+    private final Map<Long, Archetype> archetypes;
+    private final List<Archetype> archetypeList;
+
+    private Archetype[] entityArchetype;
+    private int[] entityRow;
+    private int[] generations;
+    private int[] freeIndices;
+    private int freeCount;
+    private int nextIndex;
+    private int entityCount;
+
+    private final List<SystemEntry> systems;
+    private final List<Job> chunkJobs;
+    private long[] pendingDestroy;
+    private int pendingDestroyCount;
+    private boolean running;
+    private JobSystem jobSystem;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+
+    public static final int DEFAULT_GRAIN = 4096;
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityWorld.class);
+
+    public EntityWorld() {
+        archetypes = new HashMap<>();
+        archetypeList = new ArrayList<>();
+        entityArchetype = new Archetype[INITIAL_CAPACITY];
+        entityRow = new int[INITIAL_CAPACITY];
+        generations = new int[INITIAL_CAPACITY];
+        freeIndices = new int[INITIAL_CAPACITY];
+        systems = new ArrayList<>();
+        chunkJobs = new ArrayList<>();
+        pendingDestroy = new long[64];
+    }
+
+    public long createEntity(ComponentType... types) {
+        int index;
+        if (freeCount > 0) {
+            index = freeIndices[--freeCount];
+        } else {
+            index = nextIndex++;
+            if (index == entityArchetype.length) {
+                int capacity = index * 2;
+                entityArchetype = Arrays.copyOf(entityArchetype, capacity);
+                entityRow = Arrays.copyOf(entityRow, capacity);
+                generations = Arrays.copyOf(generations, capacity);
+                freeIndices = Arrays.copyOf(freeIndices, capacity);
+            }
+        }
+        long entity = ((long) generations[index] << 32) | index;
+        Archetype archetype = archetypeFor(ComponentType.mask(types));
+        entityArchetype[index] = archetype;
+        entityRow[index] = archetype.add(entity);
+        entityCount++;
+        return entity;
+    }
+
+    public boolean isAlive(long entity) {
+        int index = (int) (entity & INDEX_MASK);
+        return index < nextIndex && entityArchetype[index] != null
+                && generations[index] == (int) (entity >>> 32);
+    }
+
+    public void destroyEntity(long entity) {
+        if (!isAlive(entity)) {
+            LOG.warn("Entity {} is not alive", entity);
+            return;
+        }
+        if (running) {
+            if (pendingDestroyCount == pendingDestroy.length) {
+                pendingDestroy = Arrays.copyOf(pendingDestroy, pendingDestroyCount * 2);
+            }
+            pendingDestroy[pendingDestroyCount++] = entity;
+            return;
+        }
+        int index = (int) (entity & INDEX_MASK);
+        removeRow(entityArchetype[index], entityRow[index]);
+        entityArchetype[index] = null;
+        generations[index]++;
+        freeIndices[freeCount++] = index;
+        entityCount--;
+    }
+
+    public void addComponent(long entity, ComponentType type) {
+        int index = checkAlive(entity);
+        Archetype from = entityArchetype[index];
+        if (!from.has(type)) {
+            move(index, from, archetypeFor(from.getMask() | type.getBit()));
+        }
+    }
+
+    public void removeComponent(long entity, ComponentType type) {
+        int index = checkAlive(entity);
+        Archetype from = entityArchetype[index];
+        if (from.has(type)) {
+            move(index, from, archetypeFor(from.getMask() & ~type.getBit()));
+        }
+    }
+
+    public boolean has(long entity, ComponentType type) {
+        return isAlive(entity) && entityArchetype[(int) (entity & INDEX_MASK)].has(type);
+    }
+
+    public float get(long entity, ComponentType type, int field) {
+        int index = checkAlive(entity);
+        return entityArchetype[index].getColumn(type)[entityRow[index] * type.getWidth() + field];
+    }
+
+    public void set(long entity, ComponentType type, int field, float value) {
+        int index = checkAlive(entity);
+        entityArchetype[index].getColumn(type)[entityRow[index] * type.getWidth() + field] = value;
+    }
+
+    public void set(long entity, ComponentType type, float... values) {
+        int index = checkAlive(entity);
+        System.arraycopy(values, 0, entityArchetype[index].getColumn(type), entityRow[index] * type.getWidth(), type.getWidth());
+    }
+
+    public Archetype getArchetype(long entity) {
+        return entityArchetype[checkAlive(entity)];
+    }
+
+    public int getRow(long entity) {
+        return entityRow[checkAlive(entity)];
+    }
+
+    //run a system over every archetype with the required types
+    public void forEach(long required, EntitySystem system, int delta) {
+        boolean outer = !running;
+        running = true;
+        for (int i = 0; i < archetypeList.size(); i++) {
+            Archetype archetype = archetypeList.get(i);
+            if (archetype.size() > 0 && archetype.matches(required)) {
+                system.update(archetype, 0, archetype.size(), delta);
+            }
+        }
+        if (outer) {
+            running = false;
+            flushDestroyed();
+        }
+    }
+
+    //as forEach but split into chunks of grain rows run on the job system
+    public void forEachParallel(long required, EntitySystem system, int delta, int grain, JobSystem jobSystem) {
+        if (jobSystem == null) {
+            forEach(required, system, delta);
+            return;
+        }
+        boolean outer = !running;
+        running = true;
+        for (int i = 0; i < archetypeList.size(); i++) {
+            Archetype archetype = archetypeList.get(i);
+            if (archetype.size() > 0 && archetype.matches(required)) {
+                chunkJobs.add(jobSystem.parallelFor(0, archetype.size(), grain,
+                        (from, to) -> system.update(archetype, from, to, delta)));
+            }
+        }
+        for (Job job : chunkJobs) {
+            jobSystem.waitFor(job);
+        }
+        chunkJobs.clear();
+        if (outer) {
+            running = false;
+            flushDestroyed();
+        }
+    }
+
+    public void addSystem(EntitySystem system, ComponentType... required) {
+        systems.add(new SystemEntry(system, ComponentType.mask(required), 0));
+    }
+
+    public void addParallelSystem(EntitySystem system, int grain, ComponentType... required) {
+        systems.add(new SystemEntry(system, ComponentType.mask(required), grain));
+    }
+
+    public void removeSystem(EntitySystem system) {
+        systems.removeIf(entry -> entry.system == system);
+    }
+
+    //jobs for parallel systems, defaults to that of the updating layer
+    public void setJobSystem(JobSystem jobSystem) {
+        this.jobSystem = jobSystem;
+    }
+
+    @Override
+    public void update(int delta, UpdateLayer layer) {
+        JobSystem js = jobSystem != null ? jobSystem : layer.getJobSystem();
+        running = true;
+        for (SystemEntry entry : systems) {
+            if (entry.grain > 0) {
+                forEachParallel(entry.required, entry.system, delta, entry.grain, js);
+            } else {
+                forEach(entry.required, entry.system, delta);
+            }
+        }
+        running = false;
+        flushDestroyed();
+    }
+
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    public List<Archetype> getArchetypes() {
+        return archetypeList;
+    }
+
+    private Archetype archetypeFor(long mask) {
+        Archetype archetype = archetypes.get(mask);
+        if (archetype == null) {
+            archetype = new Archetype(mask);
+            archetypes.put(mask, archetype);
+            archetypeList.add(archetype);
+        }
+        return archetype;
+    }
+
+    private void move(int index, Archetype from, Archetype to) {
+        if (running) {
+            throw new IllegalStateException("Cannot change the types of an entity while systems run");
+        }
+        int row = entityRow[index];
+        int newRow = to.add(from.getEntity(row));
+        from.copyRow(row, to, newRow);
+        removeRow(from, row);
+        entityArchetype[index] = to;
+        entityRow[index] = newRow;
+    }
+
+    private void removeRow(Archetype archetype, int row) {
+        long moved = archetype.remove(row);
+        if (moved != -1) {
+            entityRow[(int) (moved & INDEX_MASK)] = row;
+        }
+    }
+
+    private void flushDestroyed() {
+        for (int i = 0; i < pendingDestroyCount; i++) {
+            if (isAlive(pendingDestroy[i])) {
+                destroyEntity(pendingDestroy[i]);
+            }
+        }
+        pendingDestroyCount = 0;
+    }
+
+    private int checkAlive(long entity) {
+        if (!isAlive(entity)) {
+            throw new IllegalArgumentException("Entity " + entity + " is not alive");
+        }
+        return (int) (entity & INDEX_MASK);
+    }
+
+    public static EntityWorld createEntityWorld() {
+        return new EntityWorld();
+    }
+
+    private static final class SystemEntry {
+
+        private final EntitySystem system;
+        private final long required;
+        private final int grain;
+
+        private SystemEntry(EntitySystem system, long required, int grain) {
+            this.system = system;
+            this.required = required;
+            this.grain = grain;
+        }
+    }
+}
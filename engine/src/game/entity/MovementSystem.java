@@ -0,0 +1,22 @@
+package game.entity;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * Moves entities with a position by their velocity, in units per second
+ */
+public class MovementSystem implements EntitySystem {
+
+    public static final long REQUIRED = ComponentType.mask(ComponentType.POSITION, ComponentType.VELOCITY);
+
+    @Override
+    public void update(Archetype archetype, int from, int to, int delta) {
+        float[] position = archetype.getColumn(ComponentType.POSITION);
+        float[] velocity = archetype.getColumn(ComponentType.VELOCITY);
+        float seconds = delta / 1000f;
+        for (int i = from * 3; i < to * 3; i++) {
+            position[i] += velocity[i] * seconds;
+        }
+    }
+}
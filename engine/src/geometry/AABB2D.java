@@ -33,6 +33,10 @@ public class AABB2D extends Collider {
         return new Vector2f(center);
     }
 
+    public Vector2f getCenter(Vector2f dest) {
+        return dest.set(center);
+    }
+
     public float getWidth() {
         return width;
     }
@@ -0,0 +1,145 @@
+package geometry;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * Bounds hold an axis aligned box together with the sphere around it
+ * They are mutable and meant to be cached by their owner, refreshed only when
+ * the owner moves or changes shape
+ * Empty bounds contain nothing and grow with include
+ */
+public class Bounds {
+
+    private final Vector3f min;
+    private final Vector3f max;
+    private final Vector3f center;
+    private float radius;
+    private boolean empty;
+
+    public Bounds() {
+        min = new Vector3f();
+        max = new Vector3f();
+        center = new Vector3f();
+        setEmpty();
+    }
+
+    public final Bounds setEmpty() {
+        min.set(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+        max.set(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+        center.set(0, 0, 0);
+        radius = 0;
+        empty = true;
+        return this;
+    }
+
+    public Bounds set(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        min.set(minX, minY, minZ);
+        max.set(maxX, maxY, maxZ);
+        empty = false;
+        return refreshSphere();
+    }
+
+    public Bounds set(Bounds b) {
+        min.set(b.min);
+        max.set(b.max);
+        center.set(b.center);
+        radius = b.radius;
+        empty = b.empty;
+        return this;
+    }
+
+    public Bounds include(float x, float y, float z) {
+        min.set(Math.min(min.x, x), Math.min(min.y, y), Math.min(min.z, z));
+        max.set(Math.max(max.x, x), Math.max(max.y, y), Math.max(max.z, z));
+        empty = false;
+        return refreshSphere();
+    }
+
+    public Bounds include(Bounds b) {
+        if (!b.empty) {
+            include(b.min.x, b.min.y, b.min.z);
+            include(b.max.x, b.max.y, b.max.z);
+        }
+        return this;
+    }
+
+    //the box around local transformed by the matrix, local may be this
+    public Bounds setTransformed(Bounds local, Matrix4f m) {
+        if (local.empty) {
+            return setEmpty();
+        }
+        float cx = (local.min.x + local.max.x) * 0.5f;
+        float cy = (local.min.y + local.max.y) * 0.5f;
+        float cz = (local.min.z + local.max.z) * 0.5f;
+        float ex = (local.max.x - local.min.x) * 0.5f;
+        float ey = (local.max.y - local.min.y) * 0.5f;
+        float ez = (local.max.z - local.min.z) * 0.5f;
+
+        float wx = m.m00 * cx + m.m10 * cy + m.m20 * cz + m.m30;
+        float wy = m.m01 * cx + m.m11 * cy + m.m21 * cz + m.m31;
+        float wz = m.m02 * cx + m.m12 * cy + m.m22 * cz + m.m32;
+        float hx = Math.abs(m.m00) * ex + Math.abs(m.m10) * ey + Math.abs(m.m20) * ez;
+        float hy = Math.abs(m.m01) * ex + Math.abs(m.m11) * ey + Math.abs(m.m21) * ez;
+        float hz = Math.abs(m.m02) * ex + Math.abs(m.m12) * ey + Math.abs(m.m22) * ez;
+        return set(wx - hx, wy - hy, wz - hz, wx + hx, wy + hy, wz + hz);
+    }
+
+    private Bounds refreshSphere() {
+        center.set(min).add(max).mul(0.5f);
+        radius = center.distance(max);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public Vector3f getMin(Vector3f dest) {
+        return dest.set(min);
+    }
+
+    public Vector3f getMax(Vector3f dest) {
+        return dest.set(max);
+    }
+
+    public Vector3f getCenter(Vector3f dest) {
+        return dest.set(center);
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    public float getMinX() {
+        return min.x;
+    }
+
+    public float getMinY() {
+        return min.y;
+    }
+
+    public float getMinZ() {
+        return min.z;
+    }
+
+    public float getMaxX() {
+        return max.x;
+    }
+
+    public float getMaxY() {
+        return max.y;
+    }
+
+    public float getMaxZ() {
+        return max.z;
+    }
+
+    @Override
+    public String toString() {
+        return empty ? "Bounds[empty]" : "Bounds[" + min + " " + max + " r " + radius + "]";
+    }
+}
@@ -7,13 +7,23 @@ package geometry;
 public class CollisionData {
 
     //null CollisionData represents an abscence of collision
-    private final Collider primary, secondary;
+    private Collider primary, secondary;
             
     public CollisionData(Collider primary, Collider secondary) {
         this.primary = primary;
         this.secondary = secondary;
     }
     
+    protected void setColliders(Collider primary, Collider secondary) {
+        this.primary = primary;
+        this.secondary = secondary;
+    }
+    
+    //called once every response has run, pooled data returns to its pool
+    //responses must not keep the data after responding
+    public void release() {
+    }
+    
     public Collider getPrimary() {
         return primary;
     }
@@ -1,6 +1,7 @@
 package geometry;
 
 import org.joml.Vector2f;
+import util.Pool;
 
 /**
  *
@@ -12,18 +13,48 @@ public class CollisionData2D extends CollisionData {
     private final Vector2f contactPosition;
     private final Vector2f contactNormal;
     
+    private static final Pool<CollisionData2D> POOL = Pool.createPool("CollisionData2D",
+            () -> new CollisionData2D(null, null, new Vector2f(), new Vector2f()),
+            d -> d.set(null, null, 0, 0, 0, 0));
+    
     public CollisionData2D(Collider primary, Collider secondary,
             Vector2f contactPosition, Vector2f contactNormal) {
         super(primary, secondary);
         this.contactPosition = contactPosition;
         this.contactNormal = contactNormal;
     }
+    
+    public static CollisionData2D obtain(Collider primary, Collider secondary,
+            float px, float py, float nx, float ny) {
+        return POOL.obtain().set(primary, secondary, px, py, nx, ny);
+    }
+    
+    private CollisionData2D set(Collider primary, Collider secondary,
+            float px, float py, float nx, float ny) {
+        setColliders(primary, secondary);
+        contactPosition.set(px, py);
+        contactNormal.set(nx, ny);
+        return this;
+    }
+    
+    @Override
+    public void release() {
+        POOL.free(this);
+    }
 
     public Vector2f getContactPosition() {
         return new Vector2f(contactPosition);
     }
 
+    public Vector2f getContactPosition(Vector2f dest) {
+        return dest.set(contactPosition);
+    }
+
     public Vector2f getContactNormal() {
         return new Vector2f(contactNormal);
     }
+
+    public Vector2f getContactNormal(Vector2f dest) {
+        return dest.set(contactNormal);
+    }
 }
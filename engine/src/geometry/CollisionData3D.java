@@ -1,6 +1,7 @@
 package geometry;
 
 import org.joml.Vector3f;
+import util.Pool;
 
 /**
  *
@@ -11,12 +12,42 @@ public class CollisionData3D extends CollisionData{
     private final Vector3f contactPos;
     private final Vector3f contactNorm;
     
+    private static final Pool<CollisionData3D> POOL = Pool.createPool("CollisionData3D",
+            () -> new CollisionData3D(null, null, new Vector3f(), new Vector3f()),
+            d -> d.set(null, null, 0, 0, 0, 0, 0, 0));
+    
     public CollisionData3D(Collider primary, Collider secondary, Vector3f contactPos, Vector3f contactNorm) {
         super(primary, secondary);
         this.contactPos = contactPos;
         this.contactNorm = contactNorm;
     }
     
+    public static CollisionData3D obtain(Collider primary, Collider secondary,
+            float px, float py, float pz, float nx, float ny, float nz) {
+        return POOL.obtain().set(primary, secondary, px, py, pz, nx, ny, nz);
+    }
+    
+    private CollisionData3D set(Collider primary, Collider secondary,
+            float px, float py, float pz, float nx, float ny, float nz) {
+        setColliders(primary, secondary);
+        contactPos.set(px, py, pz);
+        contactNorm.set(nx, ny, nz);
+        return this;
+    }
+    
+    @Override
+    public void release() {
+        POOL.free(this);
+    }
+    
+    public Vector3f getContactPosition(Vector3f dest) {
+        return dest.set(contactPos);
+    }
+    
+    public Vector3f getContactNormal(Vector3f dest) {
+        return dest.set(contactNorm);
+    }
+    
     
     @Override
     public String toString() {
@@ -5,5 +5,6 @@ package geometry;
  * @author Andrew_2
  */
 public interface CollisionResponse {
+    //the data may be pooled, so it must not be kept after responding
     public void respond(CollisionData data);
 }
@@ -0,0 +1,113 @@
+package geometry;
+
+import org.joml.Matrix4f;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * The six planes of a view frustum extracted from a projection view matrix
+ * Plane normals point inwards, bounds are outside when fully behind a plane
+ * The tests are conservative, bounds near a corner may pass while outside
+ */
+public class Frustum {
+
+    public static final int OUTSIDE = 0;
+    public static final int INTERSECTS = 1;
+    public static final int INSIDE = 2;
+
+    //a, b, c, d for the left, right, bottom, top, near and far planes
+    private final float[] planes;
+
+    public Frustum() {
+        planes = new float[24];
+    }
+
+    public Frustum set(Matrix4f m) {
+        setPlane(0, m.m03 + m.m00, m.m13 + m.m10, m.m23 + m.m20, m.m33 + m.m30);
+        setPlane(1, m.m03 - m.m00, m.m13 - m.m10, m.m23 - m.m20, m.m33 - m.m30);
+        setPlane(2, m.m03 + m.m01, m.m13 + m.m11, m.m23 + m.m21, m.m33 + m.m31);
+        setPlane(3, m.m03 - m.m01, m.m13 - m.m11, m.m23 - m.m21, m.m33 - m.m31);
+        setPlane(4, m.m03 + m.m02, m.m13 + m.m12, m.m23 + m.m22, m.m33 + m.m32);
+        setPlane(5, m.m03 - m.m02, m.m13 - m.m12, m.m23 - m.m22, m.m33 - m.m32);
+        return this;
+    }
+
+    private void setPlane(int i, float a, float b, float c, float d) {
+        float length = (float) Math.sqrt(a * a + b * b + c * c);
+        int p = 4 * i;
+        if (length == 0) {
+            //a degenerate plane, as from a flat 2D projection, culls nothing
+            planes[p] = planes[p + 1] = planes[p + 2] = 0;
+            planes[p + 3] = 1;
+            return;
+        }
+        planes[p] = a / length;
+        planes[p + 1] = b / length;
+        planes[p + 2] = c / length;
+        planes[p + 3] = d / length;
+    }
+
+    public boolean intersectsSphere(float x, float y, float z, float radius) {
+        for (int p = 0; p < planes.length; p += 4) {
+            if (planes[p] * x + planes[p + 1] * y + planes[p + 2] * z + planes[p + 3] < -radius) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean intersectsBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int p = 0; p < planes.length; p += 4) {
+            float a = planes[p], b = planes[p + 1], c = planes[p + 2];
+            //the corner furthest along the normal
+            float x = a > 0 ? maxX : minX;
+            float y = b > 0 ? maxY : minY;
+            float z = c > 0 ? maxZ : minZ;
+            if (a * x + b * y + c * z + planes[p + 3] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //whether a box is outside, inside or crosses the frustum, so everything
+    //within a box found inside needs no further tests
+    public int classifyBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        int result = INSIDE;
+        for (int p = 0; p < planes.length; p += 4) {
+            float a = planes[p], b = planes[p + 1], c = planes[p + 2], d = planes[p + 3];
+            float far = a * (a > 0 ? maxX : minX) + b * (b > 0 ? maxY : minY) + c * (c > 0 ? maxZ : minZ) + d;
+            if (far < 0) {
+                return OUTSIDE;
+            }
+            float near = a * (a > 0 ? minX : maxX) + b * (b > 0 ? minY : maxY) + c * (c > 0 ? minZ : maxZ) + d;
+            if (near < 0) {
+                result = INTERSECTS;
+            }
+        }
+        return result;
+    }
+
+    //how far a point lies from the near plane towards the far plane, 0 at the
+    //near plane and 1 at the far plane, a flat projection gives one half
+    public float getDepth(float x, float y, float z) {
+        float near = planes[16] * x + planes[17] * y + planes[18] * z + planes[19];
+        float far = planes[20] * x + planes[21] * y + planes[22] * z + planes[23];
+        float span = near + far;
+        return span == 0 ? 0 : near / span;
+    }
+
+    //the cheap sphere test first, then the tighter box test
+    public boolean intersects(Bounds b) {
+        if (b.isEmpty()) {
+            return false;
+        }
+        float r = b.getRadius();
+        float cx = (b.getMinX() + b.getMaxX()) * 0.5f;
+        float cy = (b.getMinY() + b.getMaxY()) * 0.5f;
+        float cz = (b.getMinZ() + b.getMaxZ()) * 0.5f;
+        return intersectsSphere(cx, cy, cz, r)
+                && intersectsBox(b.getMinX(), b.getMinY(), b.getMinZ(), b.getMaxX(), b.getMaxY(), b.getMaxZ());
+    }
+}
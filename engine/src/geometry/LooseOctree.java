@@ -0,0 +1,313 @@
+package geometry;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A loose octree indexing items by their Bounds
+ * Each node tests against a box twice the size of its cell, so an item is
+ * stored in the deepest cell containing its center whose loose box still
+ * holds it and never needs to straddle nodes
+ * Queries reject whole subtrees outside the frustum or sphere and accept
+ * whole subtrees found inside a frustum without testing their items
+ * Items outside the root cell stay in the root, which is always visited
+ * Nodes are created on insert and pruned once their subtree is empty
+ * The octree is not thread safe, it is mutated and queried from one thread
+ * at a time
+ */
+public class LooseOctree<T> {
+
+    private final Node<T> root;
+    private final int maxDepth;
+    private int size;
+    private int nodeCount;
+
+    //statistics of the last query
+    private int nodesVisited;
+    private int entriesTested;
+
+    public static final int DEFAULT_MAX_DEPTH = 8;
+
+    public LooseOctree(float centerX, float centerY, float centerZ, float halfSize, int maxDepth) {
+        this.root = new Node<>(null, -1, centerX, centerY, centerZ, halfSize, 0);
+        this.maxDepth = maxDepth;
+        this.nodeCount = 1;
+    }
+
+    public static <T> LooseOctree<T> createLooseOctree(float halfSize) {
+        return new LooseOctree<>(0, 0, 0, halfSize, DEFAULT_MAX_DEPTH);
+    }
+
+    public Entry<T> insert(T item, Bounds bounds) {
+        Entry<T> e = new Entry<>(item);
+        e.bounds.set(bounds);
+        findNode(e.bounds).add(e);
+        size++;
+        return e;
+    }
+
+    //moves the entry to new bounds, leaving it in place if its node still fits
+    public void move(Entry<T> e, Bounds bounds) {
+        e.bounds.set(bounds);
+        Node<T> target = findNode(e.bounds);
+        if (target != e.node) {
+            Node<T> old = e.node;
+            old.remove(e);
+            target.add(e);
+            prune(old);
+        }
+    }
+
+    public void remove(Entry<T> e) {
+        if (e.node != null) {
+            Node<T> old = e.node;
+            old.remove(e);
+            size--;
+            prune(old);
+        }
+    }
+
+    //the deepest node whose loose box holds the bounds, created as needed
+    private Node<T> findNode(Bounds b) {
+        float x = (b.getMinX() + b.getMaxX()) * 0.5f;
+        float y = (b.getMinY() + b.getMaxY()) * 0.5f;
+        float z = (b.getMinZ() + b.getMaxZ()) * 0.5f;
+        float extent = Math.max(b.getMaxX() - x, Math.max(b.getMaxY() - y, b.getMaxZ() - z));
+
+        Node<T> node = root;
+        if (!node.containsPoint(x, y, z)) {
+            return node;
+        }
+        while (node.depth < maxDepth && extent <= node.half * 0.5f) {
+            int i = node.childIndex(x, y, z);
+            if (node.children[i] == null) {
+                float q = node.half * 0.5f;
+                node.children[i] = new Node<>(node, i,
+                        node.cx + ((i & 1) != 0 ? q : -q),
+                        node.cy + ((i & 2) != 0 ? q : -q),
+                        node.cz + ((i & 4) != 0 ? q : -q),
+                        q, node.depth + 1);
+                nodeCount++;
+            }
+            node = node.children[i];
+        }
+        return node;
+    }
+
+    private void prune(Node<T> node) {
+        while (node != root && node.subtreeCount == 0) {
+            node.parent.children[node.index] = null;
+            nodeCount--;
+            node = node.parent;
+        }
+    }
+
+    public void query(Frustum f, Consumer<? super T> visitor) {
+        nodesVisited = 0;
+        entriesTested = 0;
+        query(root, f, visitor, false);
+    }
+
+    private void query(Node<T> node, Frustum f, Consumer<? super T> visitor, boolean inside) {
+        nodesVisited++;
+        if (!inside && node != root) {
+            float l = node.half * 2;
+            int c = f.classifyBox(node.cx - l, node.cy - l, node.cz - l, node.cx + l, node.cy + l, node.cz + l);
+            if (c == Frustum.OUTSIDE) {
+                return;
+            }
+            inside = c == Frustum.INSIDE;
+        }
+        for (int i = 0; i < node.count; i++) {
+            Entry<T> e = node.entries[i];
+            if (inside) {
+                visitor.accept(e.item);
+            } else {
+                entriesTested++;
+                if (f.intersects(e.bounds)) {
+                    visitor.accept(e.item);
+                }
+            }
+        }
+        for (Node<T> child : node.children) {
+            if (child != null) {
+                query(child, f, visitor, inside);
+            }
+        }
+    }
+
+    //items whose bounds intersect the sphere
+    public void query(float x, float y, float z, float radius, Consumer<? super T> visitor) {
+        nodesVisited = 0;
+        entriesTested = 0;
+        query(root, x, y, z, radius, visitor);
+    }
+
+    private void query(Node<T> node, float x, float y, float z, float radius, Consumer<? super T> visitor) {
+        nodesVisited++;
+        if (node != root) {
+            float l = node.half * 2;
+            if (!sphereIntersectsBox(x, y, z, radius,
+                    node.cx - l, node.cy - l, node.cz - l, node.cx + l, node.cy + l, node.cz + l)) {
+                return;
+            }
+        }
+        for (int i = 0; i < node.count; i++) {
+            Entry<T> e = node.entries[i];
+            entriesTested++;
+            Bounds b = e.bounds;
+            if (sphereIntersectsBox(x, y, z, radius,
+                    b.getMinX(), b.getMinY(), b.getMinZ(), b.getMaxX(), b.getMaxY(), b.getMaxZ())) {
+                visitor.accept(e.item);
+            }
+        }
+        for (Node<T> child : node.children) {
+            if (child != null) {
+                query(child, x, y, z, radius, visitor);
+            }
+        }
+    }
+
+    private static boolean sphereIntersectsBox(float x, float y, float z, float r,
+            float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        float dx = x < minX ? minX - x : (x > maxX ? x - maxX : 0);
+        float dy = y < minY ? minY - y : (y > maxY ? y - maxY : 0);
+        float dz = z < minZ ? minZ - z : (z > maxZ ? z - maxZ : 0);
+        return dx * dx + dy * dy + dz * dz <= r * r;
+    }
+
+    public void forEach(Consumer<? super T> visitor) {
+        nodesVisited = 0;
+        entriesTested = 0;
+        forEach(root, visitor);
+    }
+
+    private void forEach(Node<T> node, Consumer<? super T> visitor) {
+        nodesVisited++;
+        for (int i = 0; i < node.count; i++) {
+            visitor.accept(node.entries[i].item);
+        }
+        for (Node<T> child : node.children) {
+            if (child != null) {
+                forEach(child, visitor);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getNodesVisited() {
+        return nodesVisited;
+    }
+
+    public int getEntriesTested() {
+        return entriesTested;
+    }
+
+    @Override
+    public String toString() {
+        return "LooseOctree[size " + size + ", nodes " + nodeCount + ", last query visited "
+                + nodesVisited + " nodes, tested " + entriesTested + "]";
+    }
+
+    //generic arrays are created empty, so the casts cannot fail
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] newNodes(int length) {
+        return (Node<T>[]) new Node<?>[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Entry<T>[] newEntries(int length) {
+        return (Entry<T>[]) new Entry<?>[length];
+    }
+
+    public static final class Entry<T> {
+
+        private final T item;
+        private final Bounds bounds;
+        private Node<T> node;
+        private int slot;
+
+        private Entry(T item) {
+            this.item = item;
+            this.bounds = new Bounds();
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public Bounds getBounds(Bounds dest) {
+            return dest.set(bounds);
+        }
+
+        public int getDepth() {
+            return node == null ? -1 : node.depth;
+        }
+    }
+
+    private static final class Node<T> {
+
+        private final Node<T> parent;
+        private final int index;
+        private final float cx, cy, cz;
+        private final float half;
+        private final int depth;
+        private final Node<T>[] children = newNodes(8);
+        private Entry<T>[] entries;
+        private int count;
+        //entries in this node and below, nodes are pruned when it reaches zero
+        private int subtreeCount;
+
+        private Node(Node<T> parent, int index, float cx, float cy, float cz, float half, int depth) {
+            this.parent = parent;
+            this.index = index;
+            this.cx = cx;
+            this.cy = cy;
+            this.cz = cz;
+            this.half = half;
+            this.depth = depth;
+            this.entries = newEntries(4);
+        }
+
+        private boolean containsPoint(float x, float y, float z) {
+            return Math.abs(x - cx) <= half && Math.abs(y - cy) <= half && Math.abs(z - cz) <= half;
+        }
+
+        private int childIndex(float x, float y, float z) {
+            return (x >= cx ? 1 : 0) | (y >= cy ? 2 : 0) | (z >= cz ? 4 : 0);
+        }
+
+        private void add(Entry<T> e) {
+            if (count == entries.length) {
+                entries = Arrays.copyOf(entries, count * 2);
+            }
+            e.node = this;
+            e.slot = count;
+            entries[count++] = e;
+            for (Node<T> n = this; n != null; n = n.parent) {
+                n.subtreeCount++;
+            }
+        }
+
+        private void remove(Entry<T> e) {
+            Entry<T> last = entries[--count];
+            entries[e.slot] = last;
+            last.slot = e.slot;
+            entries[count] = null;
+            e.node = null;
+            for (Node<T> n = this; n != null; n = n.parent) {
+                n.subtreeCount--;
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package geometry;
+
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.Vector4f;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A read only view of a transform as of the last frame acquired by
+ * TransformSnapshots, blended from the tick before it by the acquired alpha
+ * Positions and scales are interpolated linearly, orientations by nlerp and
+ * the matrix element by element, which is close enough over a single tick
+ *
+ * It may be passed anywhere a HasTransform is read on the render thread,
+ * such as a UniformTransform or BoxGraphic
+ */
+public class SnapshotTransform implements HasTransform {
+
+    private final TransformSnapshots snapshots;
+    private final int slot;
+
+    SnapshotTransform(TransformSnapshots snapshots, int slot) {
+        this.snapshots = snapshots;
+        this.slot = slot;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public Vector3f getPosition(Vector3f dest) {
+        return getVector(TransformSnapshots.POSITION, dest);
+    }
+
+    @Override
+    public Quaternionf getOrientation(Quaternionf dest) {
+        float[] data = snapshots.getReadData();
+        float[] previous = snapshots.getPreviousData();
+        float a = snapshots.getAcquiredAlpha();
+        int base = slot * TransformSnapshots.STRIDE + TransformSnapshots.ORIENTATION;
+        dest.set(data[base], data[base + 1], data[base + 2], data[base + 3]);
+        if (a >= 1) {
+            return dest;
+        }
+        //blend along the shorter arc
+        float dot = previous[base] * dest.x + previous[base + 1] * dest.y
+                + previous[base + 2] * dest.z + previous[base + 3] * dest.w;
+        float b = dot < 0 ? -a : a;
+        float s = 1 - a;
+        dest.set(s * previous[base] + b * dest.x, s * previous[base + 1] + b * dest.y,
+                s * previous[base + 2] + b * dest.z, s * previous[base + 3] + b * dest.w);
+        float length = (float) Math.sqrt(dest.x * dest.x + dest.y * dest.y + dest.z * dest.z + dest.w * dest.w);
+        //zero for slots never published
+        return length > 0 ? dest.set(dest.x / length, dest.y / length, dest.z / length, dest.w / length) : dest;
+    }
+
+    @Override
+    public Vector3f getScale(Vector3f dest) {
+        return getVector(TransformSnapshots.SCALE, dest);
+    }
+
+    @Override
+    public Matrix4f getTransformationMatrix(Matrix4f dest) {
+        float[] data = snapshots.getReadData();
+        int base = slot * TransformSnapshots.STRIDE + TransformSnapshots.MATRIX;
+        float a = snapshots.getAcquiredAlpha();
+        if (a >= 1) {
+            return dest.set(data, base);
+        }
+        float[] p = snapshots.getPreviousData();
+        return dest.set(
+                lerp(p, data, base, a), lerp(p, data, base + 1, a), lerp(p, data, base + 2, a), lerp(p, data, base + 3, a),
+                lerp(p, data, base + 4, a), lerp(p, data, base + 5, a), lerp(p, data, base + 6, a), lerp(p, data, base + 7, a),
+                lerp(p, data, base + 8, a), lerp(p, data, base + 9, a), lerp(p, data, base + 10, a), lerp(p, data, base + 11, a),
+                lerp(p, data, base + 12, a), lerp(p, data, base + 13, a), lerp(p, data, base + 14, a), lerp(p, data, base + 15, a));
+    }
+
+    private Vector3f getVector(int offset, Vector3f dest) {
+        float[] data = snapshots.getReadData();
+        float[] previous = snapshots.getPreviousData();
+        float a = snapshots.getAcquiredAlpha();
+        int base = slot * TransformSnapshots.STRIDE + offset;
+        return dest.set(lerp(previous, data, base, a), lerp(previous, data, base + 1, a), lerp(previous, data, base + 2, a));
+    }
+
+    private static float lerp(float[] previous, float[] data, int i, float a) {
+        return previous[i] + (data[i] - previous[i]) * a;
+    }
+
+    public Vector4f getState(Vector4f dest) {
+        float[] data = snapshots.getReadData();
+        int base = slot * TransformSnapshots.STRIDE + TransformSnapshots.STATE;
+        return dest.set(data[base], data[base + 1], data[base + 2], data[base + 3]);
+    }
+
+    public void release() {
+        snapshots.unregister(this);
+    }
+}
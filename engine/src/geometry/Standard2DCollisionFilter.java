@@ -18,10 +18,15 @@ public class Standard2DCollisionFilter implements CollisionFilter {
     }
     
     
+    //scratch vectors per thread, as pairs may be tested on several workers
+    private static final ThreadLocal<Vector2f[]> scratch
+            = ThreadLocal.withInitial(() -> new Vector2f[]{new Vector2f(), new Vector2f()});
+    
     public CollisionData2D collideAABB2D_AABB2D(AABB2D primary, AABB2D secondary) {
         
-        Vector2f priCenter = primary.getCenter();
-        Vector2f secCenter = secondary.getCenter();
+        Vector2f[] s = scratch.get();
+        Vector2f priCenter = primary.getCenter(s[0]);
+        Vector2f secCenter = secondary.getCenter(s[1]);
         float priWidth = primary.getWidth();
         float priHeight = primary.getHeight();
         float secWidth = secondary.getWidth();
@@ -44,28 +49,27 @@ public class Standard2DCollisionFilter implements CollisionFilter {
             return null;
         }
         
-        Vector2f pos = new Vector2f();
-        Vector2f norm = new Vector2f();
+        float posX, posY, normX, normY;
         if(rightDistance < -leftDistance) {
-            pos.x = ((priCenter.x - priWidth / 2) + (secCenter.x + secWidth / 2)) / 2;
-            norm.x = -rightDistance;
+            posX = ((priCenter.x - priWidth / 2) + (secCenter.x + secWidth / 2)) / 2;
+            normX = -rightDistance;
         } else {
-            pos.x =  ((priCenter.x + priWidth / 2) + (secCenter.x - secWidth / 2)) / 2;
-            norm.x = -leftDistance;
+            posX =  ((priCenter.x + priWidth / 2) + (secCenter.x - secWidth / 2)) / 2;
+            normX = -leftDistance;
         }
         if(topDistance < -bottomDistance) {
-            pos.y =  ((priCenter.y - priHeight / 2) + (secCenter.y + secHeight / 2)) / 2;
-            norm.y = -topDistance;
+            posY =  ((priCenter.y - priHeight / 2) + (secCenter.y + secHeight / 2)) / 2;
+            normY = -topDistance;
         } else {
-            pos.y =  ((priCenter.y + priHeight / 2) + (secCenter.y - secHeight / 2)) / 2;
-            norm.y = -bottomDistance;
+            posY =  ((priCenter.y + priHeight / 2) + (secCenter.y - secHeight / 2)) / 2;
+            normY = -bottomDistance;
         }
-        if(Math.abs(norm.y) > Math.abs(norm.x)) {
-            norm.x = 0;
+        if(Math.abs(normY) > Math.abs(normX)) {
+            normX = 0;
         } else {
-            norm.y = 0;
+            normY = 0;
         }
         
-        return new CollisionData2D(primary, secondary, pos, norm);
+        return CollisionData2D.obtain(primary, secondary, posX, posY, normX, normY);
     }
 }
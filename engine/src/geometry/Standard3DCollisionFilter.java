@@ -17,11 +17,16 @@ public class Standard3DCollisionFilter implements CollisionFilter {
         return null;
     }
 
+    //scratch vectors per thread, as pairs may be tested on several workers
+    private static final ThreadLocal<Vector3f[]> scratch
+            = ThreadLocal.withInitial(() -> new Vector3f[]{new Vector3f(), new Vector3f(), new Vector3f(), new Vector3f()});
+
     public CollisionData3D collideAABB3D_AABB3D(AABB3D primary, AABB3D secondary) {
-        Vector3f priCenter = primary.getPosition(new Vector3f());
-        Vector3f priHalf = primary.getHalfDimension(new Vector3f());
-        Vector3f secCenter = secondary.getPosition(new Vector3f());
-        Vector3f secHalf = secondary.getHalfDimension(new Vector3f());
+        Vector3f[] s = scratch.get();
+        Vector3f priCenter = primary.getPosition(s[0]);
+        Vector3f priHalf = primary.getHalfDimension(s[1]);
+        Vector3f secCenter = secondary.getPosition(s[2]);
+        Vector3f secHalf = secondary.getHalfDimension(s[3]);
 
         float cnx = -priCenter.x + secCenter.x;
         float cpx = priCenter.x + secCenter.x;
@@ -91,7 +96,7 @@ public class Standard3DCollisionFilter implements CollisionFilter {
             }
         }
 
-        return new CollisionData3D(primary, secondary, new Vector3f(cpx, cpy, cpz).mul(0.5f), new Vector3f(cnx, cny, cnz).mul(0.5f));
+        return CollisionData3D.obtain(primary, secondary, cpx * 0.5f, cpy * 0.5f, cpz * 0.5f, cnx * 0.5f, cny * 0.5f, cnz * 0.5f);
     }
 
 }
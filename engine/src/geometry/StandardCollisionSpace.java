@@ -3,20 +3,37 @@ package geometry;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CopyOnWriteArraySet;
+import job.Job;
+import job.JobSystem;
 
 /**
  *
  * @author Andrew_2
+ * 
+ * Collisions may be detected in parallel on a JobSystem, as from an update
+ * passing the job system of its layer
+ * Pairs are tested on the workers and the responses are run afterwards
+ * on the calling thread in the same order as the serial detection
  */
 public class StandardCollisionSpace extends CollisionSpace {
 
     private final Set<Collider> colliders;
     private final CollisionFilter filter;
     
+    //reused between detections to avoid allocating per frame
+    private final List<Collider> copy;
+    private final List<List<CollisionData>> rows;
+    
+    //rows of the pair matrix tested per job
+    public static final int ROWS_PER_JOB = 16;
+    
     public StandardCollisionSpace(CollisionFilter filter) {
         this.filter = filter;
         this.colliders = new CopyOnWriteArraySet<>();
+        copy = new ArrayList<>();
+        rows = new ArrayList<>();
     }
     
     @Override
@@ -32,7 +49,8 @@ public class StandardCollisionSpace extends CollisionSpace {
     @Override
     public void detectCollisions() {
         
-        List<Collider> copy = new ArrayList<>(colliders);
+        copy.clear();
+        copy.addAll(colliders);
         
         for(int i = 0; i < copy.size(); i++) {
             for(int j = i + 1; j < copy.size(); j++) {
@@ -40,8 +58,59 @@ public class StandardCollisionSpace extends CollisionSpace {
                 if(collisionData != null) {
                     copy.get(i).respond(collisionData);
                     copy.get(j).respond(collisionData);
+                    collisionData.release();
                 }
             }
         }
     }
+    
+    //detects serially without a job system
+    public void detectCollisions(JobSystem jobSystem) {
+        if (jobSystem == null) {
+            detectCollisions();
+            return;
+        }
+        
+        copy.clear();
+        copy.addAll(colliders);
+        int size = copy.size();
+        
+        while(rows.size() < size) {
+            rows.add(new ArrayList<>());
+        }
+        
+        Job pairs = jobSystem.parallelFor(0, size, ROWS_PER_JOB, (from, to) -> {
+            for(int i = from; i < to; i++) {
+                List<CollisionData> row = rows.get(i);
+                for(int j = i + 1; j < size; j++) {
+                    CollisionData collisionData = filter.collide(copy.get(i), copy.get(j));
+                    if(collisionData != null) {
+                        row.add(collisionData);
+                    }
+                }
+            }
+        });
+        try {
+            jobSystem.waitFor(pairs);
+        } catch (CompletionException ex) {
+            //responses are skipped for a failed frame, its data is released
+            for(int i = 0; i < size; i++) {
+                for(CollisionData collisionData : rows.get(i)) {
+                    collisionData.release();
+                }
+                rows.get(i).clear();
+            }
+            throw ex;
+        }
+        
+        for(int i = 0; i < size; i++) {
+            List<CollisionData> row = rows.get(i);
+            for(CollisionData collisionData : row) {
+                collisionData.getPrimary().respond(collisionData);
+                collisionData.getSecondary().respond(collisionData);
+                collisionData.release();
+            }
+            row.clear();
+        }
+    }
 }
@@ -0,0 +1,104 @@
+package geometry;
+
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A handle to a transform held in a TransformStore
+ *
+ * It holds only its store and slot, which the store updates as slots move
+ */
+public class StoredTransform implements HasTransform {
+
+    private final TransformStore store;
+    int index;
+
+    StoredTransform(TransformStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
+
+    public int getSlot() {
+        return index;
+    }
+
+    public boolean isRemoved() {
+        return index < 0;
+    }
+
+    public void set(HasTransform t) {
+        Vector3f v = new Vector3f();
+        setPosition(t.getPosition(v));
+        setScale(t.getScale(v));
+        setOrientation(t.getOrientation(new Quaternionf()));
+    }
+
+    @Override
+    public Vector3f getPosition(Vector3f dest) {
+        float[] p = store.getPositions();
+        return dest.set(p[3 * index], p[3 * index + 1], p[3 * index + 2]);
+    }
+
+    public void setPosition(Vector3f position) {
+        setPosition(position.x, position.y, position.z);
+    }
+
+    public void setPosition(float x, float y, float z) {
+        float[] p = store.getPositions();
+        p[3 * index] = x;
+        p[3 * index + 1] = y;
+        p[3 * index + 2] = z;
+        store.markDirty(index);
+    }
+
+    public void translate(float x, float y, float z) {
+        float[] p = store.getPositions();
+        p[3 * index] += x;
+        p[3 * index + 1] += y;
+        p[3 * index + 2] += z;
+        store.markDirty(index);
+    }
+
+    @Override
+    public Quaternionf getOrientation(Quaternionf dest) {
+        float[] q = store.getOrientations();
+        return dest.set(q[4 * index], q[4 * index + 1], q[4 * index + 2], q[4 * index + 3]);
+    }
+
+    public void setOrientation(Quaternionf orientation) {
+        float[] q = store.getOrientations();
+        q[4 * index] = orientation.x;
+        q[4 * index + 1] = orientation.y;
+        q[4 * index + 2] = orientation.z;
+        q[4 * index + 3] = orientation.w;
+        store.markDirty(index);
+    }
+
+    @Override
+    public Vector3f getScale(Vector3f dest) {
+        float[] s = store.getScales();
+        return dest.set(s[3 * index], s[3 * index + 1], s[3 * index + 2]);
+    }
+
+    public void setScale(Vector3f scale) {
+        float[] s = store.getScales();
+        s[3 * index] = scale.x;
+        s[3 * index + 1] = scale.y;
+        s[3 * index + 2] = scale.z;
+        store.markDirty(index);
+    }
+
+    @Override
+    public Matrix4f getTransformationMatrix(Matrix4f dest) {
+        store.refresh(index);
+        return dest.set(store.getMatrices(), index * TransformStore.MATRIX_FLOATS);
+    }
+
+    public void release() {
+        store.remove(this);
+    }
+}
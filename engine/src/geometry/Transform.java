@@ -23,6 +23,9 @@ public class Transform implements HasTransform {
 
     private boolean isStale;
     private boolean autoRefresh;
+    //incremented on every change, so observers can detect changes
+    //even after another reader has refreshed the matrix
+    private int version;
 
     private static final Vector3f unitScale = new Vector3f(1, 1, 1);
 
@@ -68,6 +71,11 @@ public class Transform implements HasTransform {
     
     protected void stale() {
         isStale = true;
+        version++;
+    }
+    
+    public int getVersion() {
+        return version;
     }
 
     public void set(HasTransform t) {
@@ -0,0 +1,156 @@
+package geometry;
+
+import java.util.ArrayList;
+import java.util.List;
+import job.Job;
+import job.JobSystem;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A TransformHierarchy computes the world transforms of a forest of
+ * TransformNodes in one pass per frame
+ *
+ * Nodes are kept flattened in depth first order, so every parent is
+ * computed before its children and each root subtree is a contiguous range.
+ * A node is recomputed only if its local transform changed or its parent was
+ * recomputed in the same pass, so the change propagates without marking
+ * descendants. Root subtrees are independent and may be computed in
+ * parallel on a JobSystem.
+ */
+public class TransformHierarchy {
+
+    private final List<TransformNode> roots;
+    private TransformNode[] order;
+    //the start of each root subtree in order, plus the end
+    private int[] rootStarts;
+    private boolean structureChanged;
+    private long pass;
+
+    //root subtrees computed per job
+    public static final int ROOTS_PER_JOB = 16;
+
+    public TransformHierarchy() {
+        roots = new ArrayList<>();
+        order = new TransformNode[0];
+        rootStarts = new int[1];
+    }
+
+    public TransformNode createNode() {
+        return createNode(new Transform(), null);
+    }
+
+    public synchronized TransformNode createNode(Transform local, TransformNode parent) {
+        TransformNode node = new TransformNode(local);
+        node.hierarchy = this;
+        attach(node, parent);
+        return node;
+    }
+
+    //move a node and its subtree under another parent, or make it a root
+    public synchronized void setParent(TransformNode node, TransformNode parent) {
+        for (TransformNode p = parent; p != null; p = p.getParent()) {
+            if (p == node) {
+                throw new IllegalArgumentException("A transform cannot be its own ancestor");
+            }
+        }
+        detach(node);
+        attach(node, parent);
+    }
+
+    //remove a node and its subtree
+    public synchronized void remove(TransformNode node) {
+        detach(node);
+        node.hierarchy = null;
+    }
+
+    private void attach(TransformNode node, TransformNode parent) {
+        if (parent == null) {
+            roots.add(node);
+        } else {
+            if (parent.hierarchy != this) {
+                throw new IllegalArgumentException("Parent belongs to another hierarchy");
+            }
+            parent.children.add(node);
+        }
+        node.setParentNode(parent);
+        structureChanged = true;
+    }
+
+    private void detach(TransformNode node) {
+        if (node.getParent() == null) {
+            roots.remove(node);
+        } else {
+            node.getParent().children.remove(node);
+        }
+        structureChanged = true;
+    }
+
+    private void flatten() {
+        List<TransformNode> flat = new ArrayList<>();
+        rootStarts = new int[roots.size() + 1];
+        for (int i = 0; i < roots.size(); i++) {
+            rootStarts[i] = flat.size();
+            flatten(roots.get(i), flat);
+        }
+        rootStarts[roots.size()] = flat.size();
+        order = flat.toArray(new TransformNode[flat.size()]);
+        structureChanged = false;
+    }
+
+    private static void flatten(TransformNode node, List<TransformNode> flat) {
+        flat.add(node);
+        for (TransformNode child : node.children) {
+            flatten(child, flat);
+        }
+    }
+
+    //compute every changed world transform on the calling thread
+    public synchronized void update() {
+        prepare();
+        for (TransformNode node : order) {
+            node.update(pass);
+        }
+    }
+
+    //compute every changed world transform, root subtrees split across jobs
+    public synchronized void update(JobSystem jobSystem) {
+        if (jobSystem == null) {
+            update();
+            return;
+        }
+        prepare();
+        TransformNode[] nodes = order;
+        int[] starts = rootStarts;
+        long current = pass;
+        Job job = jobSystem.parallelFor(0, starts.length - 1, ROOTS_PER_JOB, (from, to) -> {
+            for (int i = starts[from]; i < starts[to]; i++) {
+                nodes[i].update(current);
+            }
+        });
+        jobSystem.waitFor(job);
+    }
+
+    private void prepare() {
+        if (structureChanged) {
+            flatten();
+        }
+        pass++;
+    }
+
+    public synchronized int getNodeCount() {
+        if (structureChanged) {
+            flatten();
+        }
+        return order.length;
+    }
+
+    public synchronized List<TransformNode> getRoots() {
+        return new ArrayList<>(roots);
+    }
+
+    public static TransformHierarchy createTransformHierarchy() {
+        return new TransformHierarchy();
+    }
+}
@@ -0,0 +1,118 @@
+package geometry;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A node of a TransformHierarchy, a local Transform relative to a parent
+ *
+ * As a HasTransform it reads as its world transform, as of the last pass of
+ * its hierarchy, so it may be given directly to renderers and colliders.
+ * The local transform is edited through getLocal. World values are written
+ * on the updating thread, so other threads should read them through a
+ * TransformSnapshots.
+ */
+public class TransformNode implements HasTransform {
+
+    private final Transform local;
+    private TransformNode parent;
+    final List<TransformNode> children;
+    TransformHierarchy hierarchy;
+
+    private final Matrix4f localMatrix;
+    private final Matrix4f world;
+    private final Vector3f worldPosition;
+    private final Quaternionf worldOrientation;
+    private final Vector3f worldScale;
+
+    //the local version last applied, -1 forces a recompute
+    private int localVersion;
+    //the pass in which the world transform last changed
+    private long changedPass;
+
+    TransformNode(Transform local) {
+        this.local = local;
+        children = new ArrayList<>();
+        localMatrix = new Matrix4f();
+        world = new Matrix4f();
+        worldPosition = new Vector3f();
+        worldOrientation = new Quaternionf();
+        worldScale = new Vector3f(1, 1, 1);
+        localVersion = -1;
+        changedPass = -1;
+    }
+
+    //recompute the world transform if it or an ancestor changed this pass
+    //parents must be updated before their children
+    void update(long pass) {
+        boolean parentChanged = parent != null && parent.changedPass == pass;
+        if (!parentChanged && local.getVersion() == localVersion) {
+            return;
+        }
+        localVersion = local.getVersion();
+        local.getTransformationMatrix(localMatrix);
+        if (parent == null) {
+            world.set(localMatrix);
+            local.getOrientation(worldOrientation);
+            local.getScale(worldScale);
+        } else {
+            parent.world.mul(localMatrix, world);
+            parent.worldOrientation.mul(local.getOrientation(worldOrientation), worldOrientation);
+            parent.worldScale.mul(local.getScale(worldScale), worldScale);
+        }
+        world.getTranslation(worldPosition);
+        changedPass = pass;
+    }
+
+    void setParentNode(TransformNode parent) {
+        this.parent = parent;
+        invalidate();
+    }
+
+    void invalidate() {
+        localVersion = -1;
+    }
+
+    public Transform getLocal() {
+        return local;
+    }
+
+    public TransformNode getParent() {
+        return parent;
+    }
+
+    public TransformHierarchy getHierarchy() {
+        return hierarchy;
+    }
+
+    public int getChildCount() {
+        return children.size();
+    }
+
+    @Override
+    public Vector3f getPosition(Vector3f dest) {
+        return dest.set(worldPosition);
+    }
+
+    @Override
+    public Quaternionf getOrientation(Quaternionf dest) {
+        return dest.set(worldOrientation);
+    }
+
+    //exact for uniform scales, approximate for non uniform scales under rotation
+    @Override
+    public Vector3f getScale(Vector3f dest) {
+        return dest.set(worldScale);
+    }
+
+    @Override
+    public Matrix4f getTransformationMatrix(Matrix4f dest) {
+        return dest.set(world);
+    }
+}
@@ -0,0 +1,207 @@
+package geometry;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.DoubleSupplier;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.TripleBuffer;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * TransformSnapshots hands transforms from the update thread to the render
+ * thread without locks
+ *
+ * A transform is registered once and read through the returned
+ * SnapshotTransform. After each tick the update thread publishes every
+ * registered transform into one of three preallocated frames. At the start
+ * of each render the render thread acquires the newest complete frame, so
+ * every renderable sees the same tick and nothing tears while the update
+ * thread keeps writing. Each slot may also carry four floats of visual state.
+ *
+ * Each frame also holds the values published by the tick before it, and the
+ * render thread samples the interpolation alpha of the update loop when it
+ * acquires a frame. A SnapshotTransform blends the two ticks by that alpha,
+ * so motion stays smooth when the frame rate is above the tick rate. Without
+ * an alpha source the current tick is read as is.
+ */
+public class TransformSnapshots {
+
+    private final int capacity;
+    private final TripleBuffer<Frame> frames;
+    private final HasTransform[] sources;
+    private final VisualState[] states;
+    private final Deque<Integer> freeSlots;
+    private int used;
+
+    //update thread, the values last published and the slots not yet published
+    private final float[] last;
+    private final boolean[] fresh;
+
+    private volatile DoubleSupplier alphaSource;
+    //render thread, the alpha sampled when the frame was acquired
+    private float acquiredAlpha = 1;
+
+    private final Matrix4f matrix;
+    private final Vector3f vector;
+    private final Quaternionf quaternion;
+
+    //floats per slot: matrix, position, orientation, scale, visual state
+    static final int MATRIX = 0;
+    static final int POSITION = 16;
+    static final int ORIENTATION = 19;
+    static final int SCALE = 23;
+    static final int STATE = 26;
+    static final int STRIDE = 30;
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransformSnapshots.class);
+
+    public TransformSnapshots(int capacity) {
+        this.capacity = capacity;
+        frames = new TripleBuffer<>(() -> new Frame(capacity));
+        sources = new HasTransform[capacity];
+        states = new VisualState[capacity];
+        freeSlots = new ArrayDeque<>();
+        last = new float[capacity * STRIDE];
+        fresh = new boolean[capacity];
+        matrix = new Matrix4f();
+        vector = new Vector3f();
+        quaternion = new Quaternionf();
+    }
+
+    public SnapshotTransform register(HasTransform t) {
+        return register(t, null);
+    }
+
+    public synchronized SnapshotTransform register(HasTransform t, VisualState state) {
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.pop();
+        } else if (used < capacity) {
+            slot = used++;
+        } else {
+            LOG.error("Exceeded Capacity");
+            return null;
+        }
+        //a reused slot still holds the last owner in every frame, zero it so
+        //nothing reads the old transform before the next publish
+        int base = slot * STRIDE;
+        frames.forEach(frame -> {
+            Arrays.fill(frame.data, base, base + STRIDE, 0);
+            Arrays.fill(frame.previous, base, base + STRIDE, 0);
+        });
+        //the first publish has no earlier tick to blend from
+        fresh[slot] = true;
+        sources[slot] = t;
+        states[slot] = state;
+        return new SnapshotTransform(this, slot);
+    }
+
+    public synchronized void unregister(SnapshotTransform t) {
+        sources[t.getSlot()] = null;
+        states[t.getSlot()] = null;
+        freeSlots.push(t.getSlot());
+    }
+
+    //update thread only, called once all updates of a tick have run
+    public synchronized void publish() {
+        Frame frame = frames.getWriteBuffer();
+        float[] data = frame.data;
+        for (int i = 0; i < used; i++) {
+            HasTransform t = sources[i];
+            if (t == null) {
+                continue;
+            }
+            int base = i * STRIDE;
+            t.getTransformationMatrix(matrix).get(data, base + MATRIX);
+            t.getPosition(vector);
+            data[base + POSITION] = vector.x;
+            data[base + POSITION + 1] = vector.y;
+            data[base + POSITION + 2] = vector.z;
+            t.getOrientation(quaternion);
+            data[base + ORIENTATION] = quaternion.x;
+            data[base + ORIENTATION + 1] = quaternion.y;
+            data[base + ORIENTATION + 2] = quaternion.z;
+            data[base + ORIENTATION + 3] = quaternion.w;
+            t.getScale(vector);
+            data[base + SCALE] = vector.x;
+            data[base + SCALE + 1] = vector.y;
+            data[base + SCALE + 2] = vector.z;
+            if (states[i] != null) {
+                states[i].getState(data, base + STATE);
+            }
+            System.arraycopy(fresh[i] ? data : last, base, frame.previous, base, STRIDE);
+            System.arraycopy(data, base, last, base, STRIDE);
+            fresh[i] = false;
+        }
+        frame.tick = frames.getPublishedCount();
+        frames.publish();
+    }
+
+    //render thread only, called once at the start of each frame
+    public void acquire() {
+        frames.acquire();
+        DoubleSupplier source = alphaSource;
+        acquiredAlpha = source == null ? 1 : Math.max(0, Math.min(1, (float) source.getAsDouble()));
+    }
+
+    //render thread only, the data of the frame last acquired
+    float[] getReadData() {
+        return frames.getReadBuffer().data;
+    }
+
+    //render thread only, the data of the tick before the frame last acquired
+    float[] getPreviousData() {
+        return frames.getReadBuffer().previous;
+    }
+
+    //the fraction of a tick between the previous and acquired tick to render
+    public float getAcquiredAlpha() {
+        return acquiredAlpha;
+    }
+
+    //sampled once per frame, such as UpdateManager::getInterpolationAlpha,
+    //null reads the acquired tick without blending
+    public void setAlphaSource(DoubleSupplier alphaSource) {
+        this.alphaSource = alphaSource;
+    }
+
+    //the publish count of the frame last acquired
+    public long getAcquiredTick() {
+        return frames.getReadBuffer().tick;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public static TransformSnapshots createTransformSnapshots() {
+        return new TransformSnapshots(DEFAULT_CAPACITY);
+    }
+
+    private static final class Frame {
+
+        private final float[] data;
+        private final float[] previous;
+        private long tick;
+
+        private Frame(int capacity) {
+            data = new float[capacity * STRIDE];
+            previous = new float[capacity * STRIDE];
+        }
+    }
+
+    //writes four floats of visual state, such as a color, on the update thread
+    public interface VisualState {
+
+        public void getState(float[] dest, int offset);
+    }
+}
@@ -0,0 +1,229 @@
+package geometry;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A TransformStore keeps many transforms as structures of arrays
+ *
+ * Positions, orientations, scales and matrices are each one contiguous float
+ * array, so refreshing matrices walks memory in order. Transforms are
+ * accessed through StoredTransform handles. Slots stay dense, a removed
+ * transform is replaced by the last one, so the matrices of all live
+ * transforms may be uploaded for instanced rendering in one copy.
+ *
+ * A store is not thread safe and should be owned by one thread, such as the
+ * update thread writing into a buffer that is then handed to the renderer.
+ */
+public class TransformStore {
+
+    private float[] positions;
+    private float[] orientations;
+    private float[] scales;
+    private float[] matrices;
+    private boolean[] dirty;
+    private StoredTransform[] handles;
+    private int size;
+
+    //range of slots whose matrices changed since the last write
+    private int dirtyMin;
+    private int dirtyMax;
+    private int lastWritten;
+
+    public static final int MATRIX_FLOATS = 16;
+    public static final int MATRIX_BYTES = MATRIX_FLOATS * Float.BYTES;
+
+    public TransformStore(int capacity) {
+        positions = new float[capacity * 3];
+        orientations = new float[capacity * 4];
+        scales = new float[capacity * 3];
+        matrices = new float[capacity * MATRIX_FLOATS];
+        dirty = new boolean[capacity];
+        handles = new StoredTransform[capacity];
+        dirtyMin = Integer.MAX_VALUE;
+        dirtyMax = -1;
+    }
+
+    public StoredTransform create() {
+        if (size == handles.length) {
+            grow(Math.max(16, size * 2));
+        }
+        int i = size++;
+        positions[3 * i] = positions[3 * i + 1] = positions[3 * i + 2] = 0;
+        orientations[4 * i] = orientations[4 * i + 1] = orientations[4 * i + 2] = 0;
+        orientations[4 * i + 3] = 1;
+        scales[3 * i] = scales[3 * i + 1] = scales[3 * i + 2] = 1;
+        StoredTransform t = new StoredTransform(this, i);
+        handles[i] = t;
+        markDirty(i);
+        return t;
+    }
+
+    public StoredTransform create(HasTransform t) {
+        StoredTransform stored = create();
+        stored.set(t);
+        return stored;
+    }
+
+    //remove a transform, moving the last transform into its slot
+    public void remove(StoredTransform t) {
+        int i = t.index;
+        if (i < 0 || handles[i] != t) {
+            return;
+        }
+        int last = --size;
+        if (i != last) {
+            System.arraycopy(positions, 3 * last, positions, 3 * i, 3);
+            System.arraycopy(orientations, 4 * last, orientations, 4 * i, 4);
+            System.arraycopy(scales, 3 * last, scales, 3 * i, 3);
+            System.arraycopy(matrices, MATRIX_FLOATS * last, matrices, MATRIX_FLOATS * i, MATRIX_FLOATS);
+            dirty[i] = dirty[last];
+            handles[i] = handles[last];
+            handles[i].index = i;
+            //the slot now holds another matrix, so it must be uploaded again
+            markDirty(i);
+        }
+        handles[last] = null;
+        dirty[last] = false;
+        t.index = -1;
+        if (dirtyMax >= size) {
+            dirtyMax = size - 1;
+        }
+    }
+
+    private void grow(int capacity) {
+        positions = Arrays.copyOf(positions, capacity * 3);
+        orientations = Arrays.copyOf(orientations, capacity * 4);
+        scales = Arrays.copyOf(scales, capacity * 3);
+        matrices = Arrays.copyOf(matrices, capacity * MATRIX_FLOATS);
+        dirty = Arrays.copyOf(dirty, capacity);
+        handles = Arrays.copyOf(handles, capacity);
+    }
+
+    void markDirty(int i) {
+        dirty[i] = true;
+        if (i < dirtyMin) {
+            dirtyMin = i;
+        }
+        if (i > dirtyMax) {
+            dirtyMax = i;
+        }
+    }
+
+    //recompute the matrices of changed transforms as scale, rotate, translate
+    public void refresh() {
+        for (int i = dirtyMin; i <= dirtyMax; i++) {
+            if (dirty[i]) {
+                computeMatrix(i);
+                dirty[i] = false;
+            }
+        }
+    }
+
+    private void computeMatrix(int i) {
+        int p = 3 * i, q = 4 * i, m = MATRIX_FLOATS * i;
+        float x = orientations[q], y = orientations[q + 1], z = orientations[q + 2], w = orientations[q + 3];
+        float sx = scales[p], sy = scales[p + 1], sz = scales[p + 2];
+        float xx = x * x, yy = y * y, zz = z * z;
+        float xy = x * y, xz = x * z, yz = y * z;
+        float xw = x * w, yw = y * w, zw = z * w;
+        //column major, as Matrix4f
+        matrices[m] = (1 - 2 * (yy + zz)) * sx;
+        matrices[m + 1] = 2 * (xy + zw) * sx;
+        matrices[m + 2] = 2 * (xz - yw) * sx;
+        matrices[m + 3] = 0;
+        matrices[m + 4] = 2 * (xy - zw) * sy;
+        matrices[m + 5] = (1 - 2 * (xx + zz)) * sy;
+        matrices[m + 6] = 2 * (yz + xw) * sy;
+        matrices[m + 7] = 0;
+        matrices[m + 8] = 2 * (xz + yw) * sz;
+        matrices[m + 9] = 2 * (yz - xw) * sz;
+        matrices[m + 10] = (1 - 2 * (xx + yy)) * sz;
+        matrices[m + 11] = 0;
+        matrices[m + 12] = positions[p];
+        matrices[m + 13] = positions[p + 1];
+        matrices[m + 14] = positions[p + 2];
+        matrices[m + 15] = 1;
+    }
+
+    //refresh and write the matrices of every transform to dest in slot order
+    //in one copy, returns the number of bytes written
+    public int writeMatrices(ByteBuffer dest) {
+        refresh();
+        FloatBuffer fb = dest.asFloatBuffer();
+        fb.put(matrices, 0, size * MATRIX_FLOATS);
+        clearDirtyRange();
+        return size * MATRIX_BYTES;
+    }
+
+    //refresh and write only the range of slots that changed since the last
+    //write, at their offsets in dest, returns the first slot written
+    //and -1 if nothing changed, see getWrittenCount for the length
+    public int writeDirtyMatrices(ByteBuffer dest) {
+        refresh();
+        if (dirtyMax < dirtyMin) {
+            lastWritten = 0;
+            return -1;
+        }
+        int first = dirtyMin;
+        lastWritten = dirtyMax - dirtyMin + 1;
+        FloatBuffer fb = dest.asFloatBuffer();
+        fb.position(first * MATRIX_FLOATS);
+        fb.put(matrices, first * MATRIX_FLOATS, lastWritten * MATRIX_FLOATS);
+        clearDirtyRange();
+        return first;
+    }
+
+    //the number of slots written by the last writeDirtyMatrices
+    public int getWrittenCount() {
+        return lastWritten;
+    }
+
+    private void clearDirtyRange() {
+        dirtyMin = Integer.MAX_VALUE;
+        dirtyMax = -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public StoredTransform get(int slot) {
+        return handles[slot];
+    }
+
+    float[] getPositions() {
+        return positions;
+    }
+
+    float[] getOrientations() {
+        return orientations;
+    }
+
+    float[] getScales() {
+        return scales;
+    }
+
+    float[] getMatrices() {
+        return matrices;
+    }
+
+    boolean isDirty(int i) {
+        return dirty[i];
+    }
+
+    void refresh(int i) {
+        if (dirty[i]) {
+            computeMatrix(i);
+            dirty[i] = false;
+        }
+    }
+
+    public static TransformStore createTransformStore() {
+        return new TransformStore(1024);
+    }
+}
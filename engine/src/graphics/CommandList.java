@@ -0,0 +1,374 @@
+package graphics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import util.RadixSort;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A compact list of draw commands recorded for one layer and view
+ * Commands are encoded as an opcode followed by a fixed number of int
+ * arguments in an off-heap buffer, object arguments are stored as indices into
+ * a reference table
+ * Recording touches no opengl state so it may happen on any thread, the
+ * RenderManager replays the list on the thread with opengl context
+ * Each draw begins with a SortKey, sorting the list reorders whole draws by
+ * their keys while commands before the first draw are always replayed first
+ * and commands after endDraws are always replayed last
+ * Draws also carry the rank of their z-index, ranks only grow while recording
+ * and sorting never moves a draw past one of another rank
+ * Lists are reset and reused every frame
+ */
+public class CommandList {
+
+    public static final int REFRESH_VIEW = 0;
+    public static final int RENDER_INLINE = 1;
+    public static final int USE_SHADER = 2;
+    public static final int USE_VAO = 3;
+    public static final int USE_AND_UPDATE_VAO = 4;
+    public static final int BIND_TEXTURE = 5;
+    public static final int ENABLE = 6;
+    public static final int DISABLE = 7;
+    public static final int DEPTH_MASK = 8;
+    public static final int BLEND_FUNC = 9;
+    public static final int DRAW_ARRAYS = 10;
+    public static final int DRAW_ELEMENTS = 11;
+    public static final int DRAW_ARRAYS_INSTANCED = 12;
+    public static final int CALLBACK = 13;
+    public static final int DRAW_ARRAYS_INSTANCED_BASE_INSTANCE = 14;
+
+    //the number of int arguments following each opcode
+    private static final int[] ARGS = {2, 3, 1, 1, 1, 2, 1, 1, 1, 2, 3, 4, 4, 2, 5};
+    private static final String[] NAMES = {"REFRESH_VIEW", "RENDER_INLINE", "USE_SHADER", "USE_VAO",
+        "USE_AND_UPDATE_VAO", "BIND_TEXTURE", "ENABLE", "DISABLE", "DEPTH_MASK", "BLEND_FUNC",
+        "DRAW_ARRAYS", "DRAW_ELEMENTS", "DRAW_ARRAYS_INSTANCED", "CALLBACK",
+        "DRAW_ARRAYS_INSTANCED_BASE_INSTANCE"};
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final String name;
+    private ByteBuffer data;
+    private Object[] refs;
+    private int numRefs;
+    private int numCommands;
+    private final Reader reader;
+
+    //draws by key, order holds the index of each draw as recorded
+    private long[] keys;
+    private int[] order;
+    private int[] drawStarts;
+    private int[] ranks;
+    private int numDraws;
+    //start of the commands following all draws, -1 while drawing
+    private int drawsEnd;
+    private int rank;
+    private final RadixSort radixSort;
+
+    public CommandList(String name, int capacity) {
+        this.name = name;
+        this.data = ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder());
+        this.refs = new Object[16];
+        this.reader = new Reader();
+        this.keys = new long[64];
+        this.order = new int[64];
+        this.drawStarts = new int[64];
+        this.ranks = new int[64];
+        this.radixSort = new RadixSort();
+        this.drawsEnd = -1;
+    }
+
+    public static CommandList createCommandList(String name) {
+        return new CommandList(name, DEFAULT_CAPACITY);
+    }
+
+    //clears the list for recording, references from the last frame are dropped
+    public void reset() {
+        data.clear();
+        Arrays.fill(refs, 0, numRefs, null);
+        numRefs = 0;
+        numCommands = 0;
+        numDraws = 0;
+        drawsEnd = -1;
+        rank = 0;
+    }
+
+    //the rank of the z-index being recorded, given to the following draws
+    public void setRank(int rank) {
+        if (rank < this.rank) {
+            throw new IllegalStateException("Rank " + rank + " recorded after rank " + this.rank + " in " + name);
+        }
+        this.rank = rank;
+    }
+
+    //starts a draw, the commands up to the next draw are kept together
+    public void beginDraw(long key) {
+        if (drawsEnd >= 0) {
+            throw new IllegalStateException("Draw begun after endDraws in " + name);
+        }
+        if (numDraws == keys.length) {
+            keys = Arrays.copyOf(keys, numDraws * 2);
+            order = Arrays.copyOf(order, numDraws * 2);
+            drawStarts = Arrays.copyOf(drawStarts, numDraws * 2);
+            ranks = Arrays.copyOf(ranks, numDraws * 2);
+        }
+        keys[numDraws] = key;
+        ranks[numDraws] = rank;
+        order[numDraws] = numDraws;
+        drawStarts[numDraws] = data.position();
+        numDraws++;
+    }
+
+    //ends the last draw, later commands are replayed after every draw
+    public void endDraws() {
+        if (drawsEnd < 0) {
+            drawsEnd = data.position();
+        }
+    }
+
+    //orders the draws of each rank by key, equal keys keep their recorded order
+    public void sort() {
+        int from = 0;
+        for (int i = 1; i <= numDraws; i++) {
+            if (i == numDraws || ranks[i] != ranks[from]) {
+                radixSort.sort(keys, order, from, i);
+                from = i;
+            }
+        }
+    }
+
+    public void refreshView(View view, RenderLayer layer) {
+        begin(REFRESH_VIEW);
+        putRef(view);
+        putRef(layer);
+    }
+
+    //fallback for renderables that draw directly, render is called on replay
+    public void renderInline(Renderable r, View view, RenderLayer layer) {
+        begin(RENDER_INLINE);
+        putRef(r);
+        putRef(view);
+        putRef(layer);
+    }
+
+    public void useShader(ShaderProgram sp) {
+        begin(USE_SHADER);
+        putRef(sp);
+    }
+
+    public void useVAO(VAO vao) {
+        begin(USE_VAO);
+        putRef(vao);
+    }
+
+    public void useAndUpdateVAO(VAO vao) {
+        begin(USE_AND_UPDATE_VAO);
+        putRef(vao);
+    }
+
+    public void bindTexture(int textureID, int textureUnit) {
+        begin(BIND_TEXTURE);
+        data.putInt(textureID);
+        data.putInt(textureUnit);
+    }
+
+    public void enable(int capability) {
+        begin(ENABLE);
+        data.putInt(capability);
+    }
+
+    public void disable(int capability) {
+        begin(DISABLE);
+        data.putInt(capability);
+    }
+
+    public void depthMask(boolean flag) {
+        begin(DEPTH_MASK);
+        data.putInt(flag ? 1 : 0);
+    }
+
+    public void blendFunc(int sfactor, int dfactor) {
+        begin(BLEND_FUNC);
+        data.putInt(sfactor);
+        data.putInt(dfactor);
+    }
+
+    public void drawArrays(int mode, int first, int count) {
+        begin(DRAW_ARRAYS);
+        data.putInt(mode);
+        data.putInt(first);
+        data.putInt(count);
+    }
+
+    public void drawElements(int mode, int count, int type, int offset) {
+        begin(DRAW_ELEMENTS);
+        data.putInt(mode);
+        data.putInt(count);
+        data.putInt(type);
+        data.putInt(offset);
+    }
+
+    public void drawArraysInstanced(int mode, int first, int count, int instances) {
+        begin(DRAW_ARRAYS_INSTANCED);
+        data.putInt(mode);
+        data.putInt(first);
+        data.putInt(count);
+        data.putInt(instances);
+    }
+
+    public void drawArraysInstancedBaseInstance(int mode, int first, int count, int instances, int baseInstance) {
+        begin(DRAW_ARRAYS_INSTANCED_BASE_INSTANCE);
+        data.putInt(mode);
+        data.putInt(first);
+        data.putInt(count);
+        data.putInt(instances);
+        data.putInt(baseInstance);
+    }
+
+    //runs the callback with the argument on replay, for state that must be
+    //set per view but is only consumed by a later command
+    public void callback(Callback callback, Object argument) {
+        begin(CALLBACK);
+        putRef(callback);
+        putRef(argument);
+    }
+
+    private void begin(int opcode) {
+        int needed = (1 + ARGS[opcode]) * Integer.BYTES;
+        if (data.remaining() < needed) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(data.capacity() * 2).order(ByteOrder.nativeOrder());
+            data.flip();
+            grown.put(data);
+            data = grown;
+        }
+        data.putInt(opcode);
+        numCommands++;
+    }
+
+    private void putRef(Object o) {
+        if (numRefs == refs.length) {
+            refs = Arrays.copyOf(refs, refs.length * 2);
+        }
+        refs[numRefs] = o;
+        data.putInt(numRefs++);
+    }
+
+    //the reader over the recorded commands, reused between calls
+    public Reader read() {
+        reader.rewind();
+        return reader;
+    }
+
+    public int getCommandCount() {
+        return numCommands;
+    }
+
+    public int getDrawCount() {
+        return numDraws;
+    }
+
+    //the key of the ith draw in replay order
+    public long getDrawKey(int i) {
+        return keys[i];
+    }
+
+    //the rank of the ith draw, the same in recorded and replay order
+    public int getDrawRank(int i) {
+        return ranks[i];
+    }
+
+    private int getDrawsEnd() {
+        return drawsEnd >= 0 ? drawsEnd : data.position();
+    }
+
+    public int getByteSize() {
+        return data.position();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static String getOpcodeName(int opcode) {
+        return NAMES[opcode];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(name).append('[');
+        Reader r = new Reader();
+        r.rewind();
+        boolean first = true;
+        while (r.next()) {
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            sb.append(NAMES[r.opcode]);
+            for (int i = 0; i < ARGS[r.opcode]; i++) {
+                sb.append(i == 0 ? ' ' : ',').append(r.getInt(i));
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    public class Reader {
+
+        private int position;
+        private int end;
+        private int draw;
+        private int opcode;
+        private int args;
+
+        private void rewind() {
+            position = 0;
+            end = numDraws > 0 ? drawStarts[0] : getDrawsEnd();
+            draw = -1;
+            opcode = -1;
+        }
+
+        //advances to the next command, false once the list is exhausted
+        public boolean next() {
+            if (opcode >= 0) {
+                position += (1 + ARGS[opcode]) * Integer.BYTES;
+                opcode = -1;
+            }
+            while (position >= end) {
+                if (draw + 1 < numDraws) {
+                    int d = order[++draw];
+                    position = drawStarts[d];
+                    end = d + 1 < numDraws ? drawStarts[d + 1] : getDrawsEnd();
+                } else if (draw + 1 == numDraws) {
+                    //the commands after the draws
+                    draw++;
+                    position = getDrawsEnd();
+                    end = data.position();
+                } else {
+                    return false;
+                }
+            }
+            opcode = data.getInt(position);
+            args = position + Integer.BYTES;
+            return true;
+        }
+
+        public int getOpcode() {
+            return opcode;
+        }
+
+        public int getInt(int arg) {
+            return data.getInt(args + arg * Integer.BYTES);
+        }
+
+        public Object getRef(int arg) {
+            return refs[getInt(arg)];
+        }
+    }
+
+    public interface Callback {
+
+        public void call(Object argument);
+    }
+}
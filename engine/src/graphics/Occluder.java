@@ -0,0 +1,63 @@
+package graphics;
+
+import geometry.HasTransform;
+import org.joml.Matrix4f;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A simple mesh rasterized into an OcclusionBuffer to hide what is behind it
+ * Occluders should be few, large and lie inside the visible geometry they
+ * stand for, so they never hide something that would be seen
+ */
+public class Occluder {
+
+    //x, y, z for each vertex and three vertex indices for each triangle
+    private final float[] positions;
+    private final int[] indices;
+    //null for a mesh already in world space
+    private final HasTransform transform;
+
+    private static final float[] BOX_POSITIONS = {
+        -1, -1, -1, 1, -1, -1, 1, 1, -1, -1, 1, -1,
+        -1, -1, 1, 1, -1, 1, 1, 1, 1, -1, 1, 1};
+    private static final int[] BOX_INDICES = {
+        0, 2, 1, 0, 3, 2,
+        4, 5, 6, 4, 6, 7,
+        0, 1, 5, 0, 5, 4,
+        3, 7, 6, 3, 6, 2,
+        0, 4, 7, 0, 7, 3,
+        1, 2, 6, 1, 6, 5};
+
+    public Occluder(float[] positions, int[] indices, HasTransform transform) {
+        this.positions = positions;
+        this.indices = indices;
+        this.transform = transform;
+    }
+
+    //a box spanning -1 to 1 before the transform, as BoxGraphic draws
+    public static Occluder createBox(HasTransform transform) {
+        return new Occluder(BOX_POSITIONS, BOX_INDICES, transform);
+    }
+
+    public Matrix4f getModelMatrix(Matrix4f dest) {
+        return transform == null ? dest.identity() : transform.getTransformationMatrix(dest);
+    }
+
+    public float[] getPositions() {
+        return positions;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public int getVertexCount() {
+        return positions.length / 3;
+    }
+
+    public int getTriangleCount() {
+        return indices.length / 3;
+    }
+}
@@ -0,0 +1,383 @@
+package graphics;
+
+import geometry.Bounds;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import job.JobSystem;
+import org.joml.Matrix4f;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A low resolution depth buffer filled on the cpu from a few Occluders
+ * Occluder triangles are clipped against the near plane, projected once and
+ * then rasterized in horizontal bands, one job per band when a JobSystem is
+ * given
+ * A hierarchy of the farthest depth in each 2x2 block is then built, so a box
+ * is tested against at most four texels of the level its screen rectangle
+ * fits in, and is occluded only if it lies behind all of them
+ * Depth is normalized device depth mapped to [0, 1], 1 being empty
+ * Rasterizing runs on one thread per frame, testing may run on any number of
+ * threads in between
+ */
+public class OcclusionBuffer {
+
+    private final int width;
+    private final int height;
+    //levels of the depth hierarchy, level 0 is the rasterized buffer
+    private final float[][] levels;
+    private final int[] levelWidths;
+    private final int[] levelHeights;
+
+    private final List<Occluder> occluders;
+    private final Matrix4f matrix;
+    private final Matrix4f modelMatrix;
+    private final Matrix4f mvp;
+
+    //clip space vertices of the occluder being projected
+    private float[] clip;
+    //screen space triangles, x, y, depth for each vertex
+    private float[] triangles;
+    private int numTriangles;
+    //scratch for clipping a triangle into a polygon of up to four vertices
+    private final float[] polygon;
+    private final int[] polygonIn;
+    private final float[] polygonDistances;
+
+    private final AtomicInteger tested;
+    private final AtomicInteger occluded;
+
+    public static final int DEFAULT_WIDTH = 256;
+    public static final int DEFAULT_HEIGHT = 128;
+    public static final int ROWS_PER_JOB = 16;
+
+    private static final float NEAR_EPSILON = 1e-5f;
+
+    public OcclusionBuffer(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        int numLevels = 1;
+        for (int w = width, h = height; w > 1 || h > 1; w = (w + 1) / 2, h = (h + 1) / 2) {
+            numLevels++;
+        }
+        levels = new float[numLevels][];
+        levelWidths = new int[numLevels];
+        levelHeights = new int[numLevels];
+        for (int l = 0, w = width, h = height; l < numLevels; l++, w = (w + 1) / 2, h = (h + 1) / 2) {
+            levels[l] = new float[w * h];
+            levelWidths[l] = w;
+            levelHeights[l] = h;
+            Arrays.fill(levels[l], 1);
+        }
+
+        occluders = new CopyOnWriteArrayList<>();
+        matrix = new Matrix4f();
+        modelMatrix = new Matrix4f();
+        mvp = new Matrix4f();
+        clip = new float[64];
+        triangles = new float[9 * 64];
+        polygon = new float[16];
+        polygonIn = new int[3];
+        polygonDistances = new float[3];
+        tested = new AtomicInteger();
+        occluded = new AtomicInteger();
+    }
+
+    public static OcclusionBuffer createOcclusionBuffer() {
+        return new OcclusionBuffer(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    public void addOccluder(Occluder o) {
+        occluders.add(o);
+    }
+
+    public void removeOccluder(Occluder o) {
+        occluders.remove(o);
+    }
+
+    //fills the buffer for the projection view matrix, js may be null
+    public void rasterize(Matrix4f projectionView, JobSystem js) {
+        matrix.set(projectionView);
+        tested.set(0);
+        occluded.set(0);
+
+        numTriangles = 0;
+        for (Occluder o : occluders) {
+            project(o);
+        }
+
+        float[] depth = levels[0];
+        Arrays.fill(depth, 1);
+        int bands = (height + ROWS_PER_JOB - 1) / ROWS_PER_JOB;
+        if (js != null && bands > 1 && numTriangles > 0) {
+            js.waitFor(js.parallelFor(0, bands, 1, (from, to)
+                    -> rasterizeRows(from * ROWS_PER_JOB, Math.min(to * ROWS_PER_JOB, height))));
+        } else {
+            rasterizeRows(0, height);
+        }
+
+        buildHierarchy();
+    }
+
+    private void project(Occluder o) {
+        o.getModelMatrix(modelMatrix);
+        matrix.mul(modelMatrix, mvp);
+        Matrix4f m = mvp;
+
+        float[] p = o.getPositions();
+        int numVerts = o.getVertexCount();
+        if (clip.length < 4 * numVerts) {
+            clip = new float[4 * numVerts];
+        }
+        for (int v = 0; v < numVerts; v++) {
+            float x = p[3 * v], y = p[3 * v + 1], z = p[3 * v + 2];
+            clip[4 * v] = m.m00 * x + m.m10 * y + m.m20 * z + m.m30;
+            clip[4 * v + 1] = m.m01 * x + m.m11 * y + m.m21 * z + m.m31;
+            clip[4 * v + 2] = m.m02 * x + m.m12 * y + m.m22 * z + m.m32;
+            clip[4 * v + 3] = m.m03 * x + m.m13 * y + m.m23 * z + m.m33;
+        }
+
+        int[] indices = o.getIndices();
+        for (int t = 0; t + 2 < indices.length; t += 3) {
+            clipTriangle(4 * indices[t], 4 * indices[t + 1], 4 * indices[t + 2]);
+        }
+    }
+
+    //clips against the near plane, z + w = 0, leaving up to two triangles
+    private void clipTriangle(int a, int b, int c) {
+        float da = clip[a + 2] + clip[a + 3];
+        float db = clip[b + 2] + clip[b + 3];
+        float dc = clip[c + 2] + clip[c + 3];
+        boolean ia = da > NEAR_EPSILON, ib = db > NEAR_EPSILON, ic = dc > NEAR_EPSILON;
+        if (ia && ib && ic) {
+            emit(clip, a, clip, b, clip, c);
+            return;
+        }
+        if (!ia && !ib && !ic) {
+            return;
+        }
+        //walk the edges keeping inside vertices and crossings, at most four
+        float[] poly = polygon;
+        int n = 0;
+        int[] vs = polygonIn;
+        float[] ds = polygonDistances;
+        vs[0] = a;
+        vs[1] = b;
+        vs[2] = c;
+        ds[0] = da;
+        ds[1] = db;
+        ds[2] = dc;
+        for (int i = 0; i < 3; i++) {
+            int v0 = vs[i], v1 = vs[(i + 1) % 3];
+            float d0 = ds[i] - NEAR_EPSILON, d1 = ds[(i + 1) % 3] - NEAR_EPSILON;
+            if (d0 >= 0) {
+                System.arraycopy(clip, v0, poly, 4 * n++, 4);
+            }
+            if ((d0 >= 0) != (d1 >= 0)) {
+                float s = d0 / (d0 - d1);
+                for (int k = 0; k < 4; k++) {
+                    poly[4 * n + k] = clip[v0 + k] + s * (clip[v1 + k] - clip[v0 + k]);
+                }
+                n++;
+            }
+        }
+        for (int i = 2; i < n; i++) {
+            emit(poly, 0, poly, 4 * (i - 1), poly, 4 * i);
+        }
+    }
+
+    private void emit(float[] pa, int a, float[] pb, int b, float[] pc, int c) {
+        if (9 * (numTriangles + 1) > triangles.length) {
+            triangles = Arrays.copyOf(triangles, triangles.length * 2);
+        }
+        int t = 9 * numTriangles++;
+        toScreen(pa, a, t);
+        toScreen(pb, b, t + 3);
+        toScreen(pc, c, t + 6);
+    }
+
+    private void toScreen(float[] p, int i, int t) {
+        float w = p[i + 3];
+        triangles[t] = (p[i] / w * 0.5f + 0.5f) * width;
+        triangles[t + 1] = (p[i + 1] / w * 0.5f + 0.5f) * height;
+        triangles[t + 2] = p[i + 2] / w * 0.5f + 0.5f;
+    }
+
+    //rasterizes every triangle into the rows [y0, y1) keeping the nearest depth
+    private void rasterizeRows(int y0, int y1) {
+        float[] depth = levels[0];
+        float[] tri = triangles;
+        for (int t = 0; t < 9 * numTriangles; t += 9) {
+            float ax = tri[t], ay = tri[t + 1], az = tri[t + 2];
+            float bx = tri[t + 3], by = tri[t + 4], bz = tri[t + 5];
+            float cx = tri[t + 6], cy = tri[t + 7], cz = tri[t + 8];
+
+            float area = (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+            if (area == 0 || Float.isNaN(area)) {
+                continue;
+            }
+            //pixel centers in the bounding rectangle, clamped to the rows
+            int minX = Math.max(0, (int) Math.ceil(Math.min(ax, Math.min(bx, cx)) - 0.5f));
+            int maxX = Math.min(width - 1, (int) Math.floor(Math.max(ax, Math.max(bx, cx)) - 0.5f));
+            int minY = Math.max(y0, (int) Math.ceil(Math.min(ay, Math.min(by, cy)) - 0.5f));
+            int maxY = Math.min(y1 - 1, (int) Math.floor(Math.max(ay, Math.max(by, cy)) - 0.5f));
+            if (minX > maxX || minY > maxY) {
+                continue;
+            }
+
+            //barycentric weights are linear along a row, so the covered span
+            //of each row is solved directly instead of testing every pixel
+            float inv = 1 / area;
+            float dw0 = (by - cy) * inv;
+            float dw1 = (cy - ay) * inv;
+            float dw2 = -dw0 - dw1;
+            float dz = dw0 * az + dw1 * bz + dw2 * cz;
+            float px = minX + 0.5f;
+            int span = maxX - minX;
+            for (int y = minY; y <= maxY; y++) {
+                float py = y + 0.5f;
+                float w0 = ((bx - px) * (cy - py) - (by - py) * (cx - px)) * inv;
+                float w1 = ((cx - px) * (ay - py) - (cy - py) * (ax - px)) * inv;
+                float w2 = 1 - w0 - w1;
+                int k0 = 0, k1 = span;
+                k0 = Math.max(k0, spanStart(w0, dw0));
+                k0 = Math.max(k0, spanStart(w1, dw1));
+                k0 = Math.max(k0, spanStart(w2, dw2));
+                k1 = Math.min(k1, spanEnd(w0, dw0, span));
+                k1 = Math.min(k1, spanEnd(w1, dw1, span));
+                k1 = Math.min(k1, spanEnd(w2, dw2, span));
+                int row = y * width + minX;
+                float z = w0 * az + w1 * bz + w2 * cz + k0 * dz;
+                for (int k = k0; k <= k1; k++, z += dz) {
+                    if (z < depth[row + k]) {
+                        depth[row + k] = Math.max(z, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    //the first step k with w + k * dw >= 0
+    private static int spanStart(float w, float dw) {
+        if (dw > 0) {
+            return w >= 0 ? 0 : (int) Math.ceil(-w / dw);
+        }
+        return w >= 0 ? 0 : Integer.MAX_VALUE;
+    }
+
+    //the last step k with w + k * dw >= 0, capped at span
+    private static int spanEnd(float w, float dw, int span) {
+        if (dw < 0) {
+            return w < 0 ? -1 : (int) Math.min(span, Math.floor(w / -dw));
+        }
+        return dw > 0 || w >= 0 ? span : -1;
+    }
+
+    private void buildHierarchy() {
+        for (int l = 1; l < levels.length; l++) {
+            float[] src = levels[l - 1];
+            float[] dst = levels[l];
+            int sw = levelWidths[l - 1], sh = levelHeights[l - 1];
+            int w = levelWidths[l], h = levelHeights[l];
+            for (int y = 0; y < h; y++) {
+                int sy0 = 2 * y, sy1 = Math.min(2 * y + 1, sh - 1);
+                for (int x = 0; x < w; x++) {
+                    int sx0 = 2 * x, sx1 = Math.min(2 * x + 1, sw - 1);
+                    dst[y * w + x] = Math.max(
+                            Math.max(src[sy0 * sw + sx0], src[sy0 * sw + sx1]),
+                            Math.max(src[sy1 * sw + sx0], src[sy1 * sw + sx1]));
+                }
+            }
+        }
+    }
+
+    //true if the box lies entirely behind the occluders, boxes crossing the
+    //near plane or outside the screen are never occluded
+    public boolean isOccluded(Bounds b) {
+        if (b.isEmpty()) {
+            return false;
+        }
+        tested.incrementAndGet();
+        Matrix4f m = matrix;
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < 8; i++) {
+            float x = (i & 1) == 0 ? b.getMinX() : b.getMaxX();
+            float y = (i & 2) == 0 ? b.getMinY() : b.getMaxY();
+            float z = (i & 4) == 0 ? b.getMinZ() : b.getMaxZ();
+            float cw = m.m03 * x + m.m13 * y + m.m23 * z + m.m33;
+            float cz = m.m02 * x + m.m12 * y + m.m22 * z + m.m32;
+            if (cz + cw <= NEAR_EPSILON) {
+                return false;
+            }
+            float sx = ((m.m00 * x + m.m10 * y + m.m20 * z + m.m30) / cw * 0.5f + 0.5f) * width;
+            float sy = ((m.m01 * x + m.m11 * y + m.m21 * z + m.m31) / cw * 0.5f + 0.5f) * height;
+            minX = Math.min(minX, sx);
+            maxX = Math.max(maxX, sx);
+            minY = Math.min(minY, sy);
+            maxY = Math.max(maxY, sy);
+            minZ = Math.min(minZ, cz / cw * 0.5f + 0.5f);
+        }
+        if (maxX < 0 || maxY < 0 || minX >= width || minY >= height) {
+            return false;
+        }
+
+        int x0 = Math.max(0, (int) minX), x1 = Math.min(width - 1, (int) maxX);
+        int y0 = Math.max(0, (int) minY), y1 = Math.min(height - 1, (int) maxY);
+        int l = 0;
+        while ((x1 - x0 > 1 || y1 - y0 > 1) && l + 1 < levels.length) {
+            x0 >>= 1;
+            x1 >>= 1;
+            y0 >>= 1;
+            y1 >>= 1;
+            l++;
+        }
+        float[] level = levels[l];
+        int w = levelWidths[l];
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                if (level[y * w + x] >= minZ) {
+                    return false;
+                }
+            }
+        }
+        occluded.incrementAndGet();
+        return true;
+    }
+
+    //the rasterized depth at a texel of the full resolution buffer
+    public float getDepth(int x, int y) {
+        return levels[0][y * width + x];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getTriangleCount() {
+        return numTriangles;
+    }
+
+    //boxes tested and found occluded since the last rasterize
+    public int getTestedCount() {
+        return tested.get();
+    }
+
+    public int getOccludedCount() {
+        return occluded.get();
+    }
+
+    @Override
+    public String toString() {
+        return "OcclusionBuffer[" + width + "x" + height + ", occluders " + occluders.size()
+                + ", triangles " + numTriangles + ", occluded " + occluded.get() + "/" + tested.get() + "]";
+    }
+}
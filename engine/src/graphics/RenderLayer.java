@@ -1,20 +1,37 @@
 package graphics;
 
+import geometry.Bounds;
+import geometry.Frustum;
 import java.util.Iterator;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import org.lwjgl.opengl.GL11;
+import util.LifecycleCollector;
 import util.ZIndexSet;
 import util.ZIndexSetStandard;
 
 /**
  *
  * @author Andrew_2
+ * 
+ * Renderables pending release are released when next rendered and removed
+ * together at the end of the render
+ * When recording, prepare and finish run once per frame on the render thread
+ * and record may run on a worker for each view in between
+ * Layers with culling skip bounded renderables outside the frustum of a view
+ * or hidden in its OcclusionBuffer
  */
 public abstract class RenderLayer {
 
     private final ZIndexSet<Renderable> renderables;
     private final Queue<Renderable> renderablesToInit;
+    private final LifecycleCollector<Renderable> lifecycle;
+
+    private boolean culling;
+    //set by the RenderManager each frame before the layer is drawn
+    private float interpolationAlpha = 1;
+    //scratch for the bounds of the renderable being culled
+    private final Bounds bounds;
 
     public static final int POST_RENDER_INDEX = 10000;
     public static final int UI_INDEX = 5000;
@@ -25,27 +42,146 @@ public abstract class RenderLayer {
     public RenderLayer(ZIndexSet<Renderable> renderables) {
         this.renderables = renderables;
         this.renderablesToInit = new ConcurrentLinkedQueue<>();
+        this.lifecycle = new LifecycleCollector<>();
+        this.bounds = new Bounds();
     }
 
     public void render(View view) {
 
-        Renderable toInit;
-        while((toInit = renderablesToInit.poll()) != null) {
-            toInit.renderInit();
-        }
+        prepare(false);
         
-        renderables.sort();
+        Frustum frustum = culling ? view.getFrustum() : null;
+        OcclusionBuffer occlusion = culling ? view.getOcclusionBuffer() : null;
+        int visible = 0;
+        int culled = 0;
         Iterator<Renderable> renderableIterator = renderables.iterator();
         while (renderableIterator.hasNext()) {
 
             Renderable r = renderableIterator.next();
-            //destroyed renderables are removed
+            //destroyed renderables are released and removed
             if (r.isRenderPendingRelease()) {
-                removeRenderable(r);
+                release(r);
             } else if (r.isRenderEnabled()) {
-                r.render(view, this);
+                if (isCulled(r, frustum, occlusion)) {
+                    culled++;
+                } else {
+                    visible++;
+                    r.render(view, this);
+                }
             }
         }
+        view.addCullCounts(visible, culled);
+        
+        finish();
+    }
+
+    //must be called in a thread with opengl context
+    public void prepare() {
+        prepare(true);
+    }
+
+    private void prepare(boolean releasePending) {
+        renderables.commit();
+        
+        Renderable toInit;
+        while((toInit = renderablesToInit.poll()) != null) {
+            toInit.renderInit();
+        }
+        prepareRenderables();
+
+        if (releasePending) {
+            Iterator<Renderable> renderableIterator = renderables.iterator();
+            while (renderableIterator.hasNext()) {
+                Renderable r = renderableIterator.next();
+                if (r.isRenderPendingRelease()) {
+                    release(r);
+                }
+            }
+        }
+    }
+
+    //called on the render thread before the renderables are drawn
+    protected void prepareRenderables() {
+    }
+
+    private void release(Renderable r) {
+        r.renderRelease();
+        renderablesToInit.remove(r);
+        lifecycle.collect(r);
+    }
+
+    //records the enabled renderables for the view and sorts their draws,
+    //may be called off the render thread between prepare and finish
+    public void record(View view, CommandList list) {
+        list.refreshView(view, this);
+        beginRecord(view, list);
+        Frustum frustum = culling ? view.getFrustum() : null;
+        OcclusionBuffer occlusion = culling ? view.getOcclusionBuffer() : null;
+        int visible = 0;
+        int culled = 0;
+        int rank = -1;
+        int zIndex = 0;
+        Iterator<Renderable> renderableIterator = renderables.iterator();
+        while (renderableIterator.hasNext()) {
+            Renderable r = renderableIterator.next();
+            if (!r.isRenderPendingRelease() && r.isRenderEnabled()) {
+                if (isCulled(r, frustum, occlusion)) {
+                    culled++;
+                    continue;
+                }
+                visible++;
+                //draws are only reordered among equal z-indices
+                int z = renderables.getZIndex(r);
+                if (rank < 0 || z != zIndex) {
+                    rank++;
+                    zIndex = z;
+                }
+                list.setRank(rank);
+                r.record(view, this, list);
+            }
+        }
+        list.endDraws();
+        endRecord(view, list);
+        list.sort();
+        view.addCullCounts(visible, culled);
+    }
+
+    //layers that set opengl state around their renderables in render must
+    //record the same state changes here, they are kept before and after all
+    //draws whatever their sort order
+    protected void beginRecord(View view, CommandList list) {
+    }
+
+    protected void endRecord(View view, CommandList list) {
+    }
+
+    private boolean isCulled(Renderable r, Frustum frustum, OcclusionBuffer occlusion) {
+        if (frustum == null || !r.getBounds(bounds)) {
+            return false;
+        }
+        return !frustum.intersects(bounds) || (occlusion != null && occlusion.isOccluded(bounds));
+    }
+
+    //the fraction of a tick the acquired transforms are blended by, renderables
+    //that keep their own per tick state may blend it the same way
+    public float getInterpolationAlpha() {
+        return interpolationAlpha;
+    }
+
+    public void setInterpolationAlpha(float interpolationAlpha) {
+        this.interpolationAlpha = interpolationAlpha;
+    }
+
+    public void setCulling(boolean culling) {
+        this.culling = culling;
+    }
+
+    public boolean isCulling() {
+        return culling;
+    }
+
+    public void finish() {
+        lifecycle.compact(renderables);
     }
 
     public void addRenderable(Renderable r, int zIndex) {
@@ -56,6 +192,10 @@ public abstract class RenderLayer {
 
     }
 
+    public LifecycleCollector<Renderable> getLifecycle() {
+        return lifecycle;
+    }
+
     public void removeRenderable(Renderable r) {
         renderables.remove(r);
         renderablesToInit.remove(r);
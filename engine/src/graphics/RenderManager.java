@@ -1,17 +1,22 @@
 package graphics;
 
+import event.Event;
+import event.EventQueue;
+import game.EventId;
 import game.Game;
+import game.Lifecycle;
+import geometry.TransformSnapshots;
 import io.Window;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
+import job.JobSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.lwjgl.opengl.GL11;
@@ -22,6 +27,7 @@ import static org.lwjgl.opengl.GL20.glUseProgram;
 import org.lwjgl.opengl.GL30;
 import static org.lwjgl.opengl.GL30.glBindVertexArray;
 import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL42;
 import resource.Resource;
 import resource.TextureData;
 import util.ZIndexSet;
@@ -35,16 +41,20 @@ import util.ZIndexSetStandard;
  * the main thread with opengl context it contains a utility for creating gpu
  * buffers for use by opengl and maintains and renders a list of all Renderables
  * in addition it handles lighting and the viewpoint/camera
- *
+ * With a job system and recording enabled, each layer records its views into
+ * command lists on a worker and the lists are replayed here in layer order
+ * Recording is off by default, games opt in with setRecording(true), and
+ * without it every layer renders directly as before
  *
  */
 public class RenderManager implements Runnable {
 
     //the window this instance manages
     private Window window;
-    private boolean toRelase;
-    private boolean initialized;
-    private boolean released;
+    private volatile boolean toRelase;
+    private final Lifecycle lifecycle;
+    //initialized when the first frame is begun, ready once it is presented
+    private final Lifecycle firstFrame;
 
     //A list of all view associated with this instance
     private Set<View> views;
@@ -57,15 +67,37 @@ public class RenderManager implements Runnable {
     //the last shader program used
     private ShaderProgram shaderProgram;
 
-    //a queue of textures to upload their buffers
-    private Queue<TextureData> texturesToUpload;
-    //the corresponding names
-    private Queue<String> texturesToUploadName;
+    //the texture bound to each unit and the active unit
+    private final int[] boundTextures;
+    private int activeTextureUnit;
+
+    //state changes made in the last frame
+    private int shaderSwitches;
+    private int vaoSwitches;
+    private int textureSwitches;
+
+    //events sent to the render thread, including textures to upload
+    private final EventQueue eventQueue;
     //a map from texture name to texture handles used by opengl
     private Map<String, Integer> textureHandles;
 
+    //jobs with main thread affinity are run at the start of each frame
+    private volatile JobSystem jobSystem;
+
+    //transforms published by the update thread, acquired once per frame
+    private final TransformSnapshots transformSnapshots;
+
+    //command lists for each layer and view pair in render order, reused
+    private volatile boolean recording;
+    private final List<CommandList> commandLists;
+    private final List<RenderLayer> frameLayers;
+    private final List<View> frameViews;
+    private int[] layerStarts;
+
     public static final int restartIndex = -1;
 
+    public static final int TEXTURE_UPLOAD = EventId.intern("textureUpload");
+
     public static final int RENDER_TIME = 1000 / 60;
 
     private static final Logger LOG = LoggerFactory.getLogger(RenderManager.class);
@@ -76,9 +108,18 @@ public class RenderManager implements Runnable {
         views = new CopyOnWriteArraySet<>();
         layers = ZIndexSetStandard.<RenderLayer>createCopyOnWriteSet();
 
-        texturesToUpload = new ConcurrentLinkedQueue<>();
-        texturesToUploadName = new ConcurrentLinkedQueue<>();
+        eventQueue = new EventQueue("render", EventQueue.DEFAULT_CAPACITY);
+        eventQueue.addHandler(TEXTURE_UPLOAD, this::uploadTexture);
         textureHandles = new HashMap<>();
+        lifecycle = new Lifecycle("RenderManager");
+        firstFrame = new Lifecycle("FirstFrame");
+        transformSnapshots = TransformSnapshots.createTransformSnapshots();
+        commandLists = new ArrayList<>();
+        frameLayers = new ArrayList<>();
+        frameViews = new ArrayList<>();
+        layerStarts = new int[16];
+        boundTextures = new int[32];
+        activeTextureUnit = -1;
 
         this.window = window;
         LOG.info("RenderManager constructor exited");
@@ -111,7 +152,7 @@ public class RenderManager implements Runnable {
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
 
-        initialized = true;
+        lifecycle.setInitialized();
 
         LOG.info("RenderManager init exited");
     }
@@ -135,10 +176,15 @@ public class RenderManager implements Runnable {
         window.bindGLContext();
 
         initialize();
+        lifecycle.setReady();
 
+        firstFrame.setInitialized();
         while (!toRelase) {
             render();
             window.swapBuffers();
+            if (!firstFrame.isReady()) {
+                firstFrame.setReady();
+            }
             try {
                 Thread.sleep(RENDER_TIME);
             } catch (InterruptedException ex) {
@@ -146,21 +192,50 @@ public class RenderManager implements Runnable {
             }
         }
 
-        released = true;
+        lifecycle.setReleased();
 
     }
 
     public boolean isInitialized() {
-        return initialized;
+        return lifecycle.isInitialized();
+    }
+
+    public Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    public Lifecycle getFirstFrameLifecycle() {
+        return firstFrame;
     }
 
     public void render() {
         glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT); // clear the framebuffer
+        shaderSwitches = 0;
+        vaoSwitches = 0;
+        textureSwitches = 0;
 
         
-        prepareTextures();
+        eventQueue.drain();
+        transformSnapshots.acquire();
 
-        layers.sort();
+        JobSystem js = jobSystem;
+        if (js != null) {
+            js.runMainThreadJobs();
+        }
+
+        for (View view : views) {
+            view.beginFrame(js);
+        }
+
+        layers.commit();
+        float alpha = transformSnapshots.getAcquiredAlpha();
+        for (RenderLayer layer : layers) {
+            layer.setInterpolationAlpha(alpha);
+        }
+        if (js != null && recording) {
+            renderRecorded(js);
+            return;
+        }
         Iterator<RenderLayer> layerIterator = layers.iterator();
         while (layerIterator.hasNext()) {
             RenderLayer layer = layerIterator.next();
@@ -177,22 +252,143 @@ public class RenderManager implements Runnable {
 
     }
 
+    private void renderRecorded(JobSystem js) {
+        //pair every layer with its views, one command list per pair
+        frameLayers.clear();
+        frameViews.clear();
+        int numLayers = 0;
+        Iterator<RenderLayer> layerIterator = layers.iterator();
+        while (layerIterator.hasNext()) {
+            RenderLayer layer = layerIterator.next();
+            layer.prepare();
+            if (numLayers + 1 >= layerStarts.length) {
+                layerStarts = Arrays.copyOf(layerStarts, layerStarts.length * 2);
+            }
+            layerStarts[numLayers++] = frameViews.size();
+            Iterator<View> viewIterator = views.iterator();
+            while (viewIterator.hasNext()) {
+                View view = viewIterator.next();
+                if (view.supportsLayer(layer)) {
+                    frameLayers.add(layer);
+                    frameViews.add(view);
+                }
+            }
+        }
+        layerStarts[numLayers] = frameViews.size();
+        while (commandLists.size() < frameViews.size()) {
+            commandLists.add(CommandList.createCommandList("commands" + commandLists.size()));
+        }
+
+        //a layer's renderables are recorded by one worker, views in order
+        js.waitFor(js.parallelFor(0, numLayers, 1, (from, to) -> {
+            for (int l = from; l < to; l++) {
+                for (int i = layerStarts[l]; i < layerStarts[l + 1]; i++) {
+                    CommandList list = commandLists.get(i);
+                    list.reset();
+                    frameLayers.get(i).record(frameViews.get(i), list);
+                }
+            }
+        }));
+
+        for (int i = 0; i < frameViews.size(); i++) {
+            execute(commandLists.get(i));
+        }
+        layerIterator = layers.iterator();
+        while (layerIterator.hasNext()) {
+            layerIterator.next().finish();
+        }
+    }
+
+    //replays recorded commands, must be called in a thread with opengl context
+    public void execute(CommandList list) {
+        CommandList.Reader r = list.read();
+        while (r.next()) {
+            switch (r.getOpcode()) {
+                case CommandList.REFRESH_VIEW:
+                    ((View) r.getRef(0)).refresh((RenderLayer) r.getRef(1));
+                    break;
+                case CommandList.RENDER_INLINE:
+                    ((Renderable) r.getRef(0)).render((View) r.getRef(1), (RenderLayer) r.getRef(2));
+                    break;
+                case CommandList.USE_SHADER:
+                    useShaderProgram((ShaderProgram) r.getRef(0));
+                    break;
+                case CommandList.USE_VAO:
+                    useVAO((VAO) r.getRef(0));
+                    break;
+                case CommandList.USE_AND_UPDATE_VAO:
+                    useAndUpdateVAO((VAO) r.getRef(0));
+                    break;
+                case CommandList.BIND_TEXTURE:
+                    bindTexture(r.getInt(0), r.getInt(1));
+                    break;
+                case CommandList.ENABLE:
+                    glEnable(r.getInt(0));
+                    break;
+                case CommandList.DISABLE:
+                    glDisable(r.getInt(0));
+                    break;
+                case CommandList.DEPTH_MASK:
+                    glDepthMask(r.getInt(0) != 0);
+                    break;
+                case CommandList.BLEND_FUNC:
+                    glBlendFunc(r.getInt(0), r.getInt(1));
+                    break;
+                case CommandList.DRAW_ARRAYS:
+                    glDrawArrays(r.getInt(0), r.getInt(1), r.getInt(2));
+                    break;
+                case CommandList.DRAW_ELEMENTS:
+                    glDrawElements(r.getInt(0), r.getInt(1), r.getInt(2), r.getInt(3));
+                    break;
+                case CommandList.DRAW_ARRAYS_INSTANCED:
+                    GL31.glDrawArraysInstanced(r.getInt(0), r.getInt(1), r.getInt(2), r.getInt(3));
+                    break;
+                case CommandList.CALLBACK:
+                    ((CommandList.Callback) r.getRef(0)).call(r.getRef(1));
+                    break;
+                case CommandList.DRAW_ARRAYS_INSTANCED_BASE_INSTANCE:
+                    GL42.glDrawArraysInstancedBaseInstance(r.getInt(0), r.getInt(1), r.getInt(2), r.getInt(3), r.getInt(4));
+                    break;
+                default:
+                    LOG.error("Unknown command {} in {}", r.getOpcode(), list.getName());
+            }
+        }
+    }
+
+    //record layers into command lists on the job system instead of rendering
+    //them directly, off by default and only applies when a job system is set
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public int getShaderSwitches() {
+        return shaderSwitches;
+    }
+
+    public int getVAOSwitches() {
+        return vaoSwitches;
+    }
+
+    public int getTextureSwitches() {
+        return textureSwitches;
+    }
+
     public void release() {
         LOG.info("RenderManager release entered");
         toRelase = true;
-        while (!released) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException ex) {
-                LOG.error("{}", ex);
-            }
-        }
+        lifecycle.awaitReleased();
         LOG.info("RenderManager release exited");
     }
 
+    //blocks while the event queue is full, until the render thread drains it
+    //at the start of its next frame, or drains it in place when called from
+    //the render thread, so no upload is ever dropped
     public String queueTexture(String name, TextureData tr) {
-        texturesToUpload.add(tr);
-        texturesToUploadName.add(name);
+        eventQueue.publish(TEXTURE_UPLOAD, name, 0, tr);
         return name;
     }
 
@@ -200,23 +396,21 @@ public class RenderManager implements Runnable {
         return queueTexture(tr.getPath(), tr.getData());
     }
 
-    private void prepareTextures() {
-        TextureData texture;
-        while ((texture = texturesToUpload.poll()) != null) {
-            String name = texturesToUploadName.poll();
-            int id = GL11.glGenTextures();
-            textureHandles.put(name, id);
-
-            RenderManager.this.bindTexture(id);
-            GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
-            glTexImage2D(GL_TEXTURE_2D, 0, texture.getType().getDataType(), texture.getImageWidth(), texture.getImageHeight(),
-                    0, texture.getType().getGLType(), GL_UNSIGNED_BYTE, texture.getBuffer());
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_REPEAT);
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_REPEAT);
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
-            GL30.glGenerateMipmap(GL_TEXTURE_2D);
-        }
+    private void uploadTexture(Event e) {
+        TextureData texture = (TextureData) e.getObject();
+        String name = e.getName();
+        int id = GL11.glGenTextures();
+        textureHandles.put(name, id);
+
+        RenderManager.this.bindTexture(id);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+        glTexImage2D(GL_TEXTURE_2D, 0, texture.getType().getDataType(), texture.getImageWidth(), texture.getImageHeight(),
+                0, texture.getType().getGLType(), GL_UNSIGNED_BYTE, texture.getBuffer());
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        GL30.glGenerateMipmap(GL_TEXTURE_2D);
     }
 
     //must be called in a thread with opengl context
@@ -224,6 +418,7 @@ public class RenderManager implements Runnable {
         if (shaderProgram != sp) {
             shaderProgram = sp;
             glUseProgram(sp.getProgram());
+            shaderSwitches++;
         }
         sp.update();
     }
@@ -233,6 +428,7 @@ public class RenderManager implements Runnable {
         if (this.vao != vao) {
             this.vao = vao;
             glBindVertexArray(vao.getHandle());
+            vaoSwitches++;
         }
     }
 
@@ -246,9 +442,21 @@ public class RenderManager implements Runnable {
         bindTexture(textureID, 0);
     }
 
+    //must be called in a thread with opengl context
     public void bindTexture(int textureID, int textureUnit) {
-        GL13.glActiveTexture(GL13.GL_TEXTURE0 + textureUnit);
-        glBindTexture(GL_TEXTURE_2D, textureID);
+        if (boundTextures[textureUnit] != textureID) {
+            activeTexture(textureUnit);
+            glBindTexture(GL_TEXTURE_2D, textureID);
+            boundTextures[textureUnit] = textureID;
+            textureSwitches++;
+        }
+    }
+
+    private void activeTexture(int textureUnit) {
+        if (activeTextureUnit != textureUnit) {
+            activeTextureUnit = textureUnit;
+            GL13.glActiveTexture(GL13.GL_TEXTURE0 + textureUnit);
+        }
     }
 
     public void bind(String name, int textureUnit) {
@@ -256,13 +464,32 @@ public class RenderManager implements Runnable {
     }
 
     public void unbindTexture() {
+        int unit = Math.max(activeTextureUnit, 0);
+        activeTexture(unit);
         glBindTexture(GL_TEXTURE_2D, 0);
+        boundTextures[unit] = 0;
     }
 
     public int getTextureHandle(String name) {
         return textureHandles.getOrDefault(name, 0);
     }
 
+    public void setJobSystem(JobSystem jobSystem) {
+        this.jobSystem = jobSystem;
+    }
+
+    public JobSystem getJobSystem() {
+        return jobSystem;
+    }
+
+    public EventQueue getEventQueue() {
+        return eventQueue;
+    }
+
+    public TransformSnapshots getTransformSnapshots() {
+        return transformSnapshots;
+    }
+
     public Window getWindow() {
         return window;
     }
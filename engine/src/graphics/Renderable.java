@@ -1,5 +1,7 @@
 package graphics;
 
+import geometry.Bounds;
+
 /**
  *
  * @author Andrew_2
@@ -16,8 +18,21 @@ public interface Renderable {
     public default void renderInit(){}
     //called every frame
     public void render(View view, RenderLayer layer);
+    //called every frame instead of render when commands are recorded off the
+    //render thread, by default render is deferred to replay
+    //each draw must begin with a sort key so it is reordered as a whole
+    public default void record(View view, RenderLayer layer, CommandList list) {
+        list.beginDraw(0);
+        list.renderInline(this, view, layer);
+    }
     //called after being flagged for destruction
     public default void renderRelease(){}
+    //sets dest to the world space bounds, false if unbounded and never culled
+    public default boolean getBounds(Bounds dest){return false;}
+    //changes whenever the bounds do, such as the version of a Transform
+    //bounds that only change otherwise are reported with a move, see
+    //RenderLayer3D.moveIndexedRenderable
+    public default int getBoundsVersion(){return 0;}
     
 
     public default boolean isRenderEnabled(){return true;}
@@ -0,0 +1,85 @@
+package graphics;
+
+import geometry.Frustum;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * Packs the state of a draw into a 64 bit key so that sorting the keys of a
+ * command list orders its draws
+ * From the top: the translucent flag, then for opaque draws shader, material,
+ * vao (12 bits each) and depth front to back (27 bits), for translucent draws
+ * depth back to front first, then shader, material and vao
+ * Translucent draws therefore always follow opaque ones, z-indices are kept
+ * apart by the command list which only sorts draws of the same rank
+ */
+public class SortKey {
+
+    public static final int STATE_BITS = 12;
+    public static final int DEPTH_BITS = 27;
+
+    public static final int STATE_MASK = (1 << STATE_BITS) - 1;
+    public static final int DEPTH_MASK = (1 << DEPTH_BITS) - 1;
+
+    private static final long TRANSLUCENT = 1L << 63;
+
+    private SortKey() {
+    }
+
+    public static long opaque(int shader, int material, int vao, int depth) {
+        return ((long) (shader & STATE_MASK) << (DEPTH_BITS + 2 * STATE_BITS))
+                | ((long) (material & STATE_MASK) << (DEPTH_BITS + STATE_BITS))
+                | ((long) (vao & STATE_MASK) << DEPTH_BITS)
+                | (depth & DEPTH_MASK);
+    }
+
+    public static long translucent(int shader, int material, int vao, int depth) {
+        return TRANSLUCENT
+                | ((long) (DEPTH_MASK - (depth & DEPTH_MASK)) << (3 * STATE_BITS))
+                | ((long) (shader & STATE_MASK) << (2 * STATE_BITS))
+                | ((long) (material & STATE_MASK) << STATE_BITS)
+                | (vao & STATE_MASK);
+    }
+
+    //maps a distance between near and far onto the depth bits
+    public static int quantizeDepth(float depth, float near, float far) {
+        float t = (depth - near) / (far - near);
+        if (!(t > 0)) {
+            return 0;
+        }
+        return t >= 1 ? DEPTH_MASK : (int) (t * DEPTH_MASK);
+    }
+
+    //the quantized depth of a world space point within the frustum of the view
+    public static int viewDepth(View view, float x, float y, float z) {
+        Frustum f = view.getFrustum();
+        return f == null ? 0 : quantizeDepth(f.getDepth(x, y, z), 0, 1);
+    }
+
+    public static boolean isTranslucent(long key) {
+        return (key & TRANSLUCENT) != 0;
+    }
+
+    public static int getShader(long key) {
+        int shift = isTranslucent(key) ? 2 * STATE_BITS : DEPTH_BITS + 2 * STATE_BITS;
+        return (int) (key >>> shift) & STATE_MASK;
+    }
+
+    public static int getMaterial(long key) {
+        int shift = isTranslucent(key) ? STATE_BITS : DEPTH_BITS + STATE_BITS;
+        return (int) (key >>> shift) & STATE_MASK;
+    }
+
+    public static int getVAO(long key) {
+        int shift = isTranslucent(key) ? 0 : DEPTH_BITS;
+        return (int) (key >>> shift) & STATE_MASK;
+    }
+
+    public static int getDepth(long key) {
+        if (isTranslucent(key)) {
+            return DEPTH_MASK - ((int) (key >>> (3 * STATE_BITS)) & DEPTH_MASK);
+        }
+        return (int) key & DEPTH_MASK;
+    }
+}
@@ -1,14 +1,87 @@
 package graphics;
 
+import geometry.Frustum;
+import java.util.concurrent.atomic.AtomicInteger;
+import job.JobSystem;
+import org.joml.Matrix4f;
 
 /**
  *
  * @author Andrew_2
+ * 
+ * Views with a projection cull renderables against their frustum, which is
+ * refreshed once per frame on the render thread
+ * A view may also hold an OcclusionBuffer, rasterized for the same matrix
  */
 public abstract class View {
+
+    //the frustum for this frame, null when the view does not cull
+    private Frustum frustum;
+    private volatile OcclusionBuffer occlusionBuffer;
+    private boolean occlusionReady;
+
+    //counts for the frame being rendered and the last complete frame
+    private final AtomicInteger visible = new AtomicInteger();
+    private final AtomicInteger culled = new AtomicInteger();
+    private volatile int lastVisible, lastCulled;
      
     public abstract void refresh(RenderLayer layer);
     
     public abstract boolean supportsLayer(RenderLayer layer);
+
+    //the matrix to cull against, views without one draw everything
+    protected Matrix4f getProjectionViewMatrix() {
+        return null;
+    }
+
+    //must be called on the render thread before the layers are rendered,
+    //the job system rasterizes occluders and may be null
+    public void beginFrame(JobSystem jobSystem) {
+        Matrix4f projectionView = getProjectionViewMatrix();
+        OcclusionBuffer occlusion = occlusionBuffer;
+        occlusionReady = false;
+        if (projectionView == null) {
+            frustum = null;
+        } else {
+            if (frustum == null) {
+                frustum = new Frustum();
+            }
+            frustum.set(projectionView);
+            if (occlusion != null) {
+                occlusion.rasterize(projectionView, jobSystem);
+                occlusionReady = true;
+            }
+        }
+        lastVisible = visible.getAndSet(0);
+        lastCulled = culled.getAndSet(0);
+    }
+
+    public Frustum getFrustum() {
+        return frustum;
+    }
+
+    public void setOcclusionBuffer(OcclusionBuffer occlusionBuffer) {
+        this.occlusionBuffer = occlusionBuffer;
+    }
+
+    //the buffer rasterized for this frame, null when there is none
+    public OcclusionBuffer getOcclusionBuffer() {
+        return occlusionReady ? occlusionBuffer : null;
+    }
+
+    public void addCullCounts(int visibleCount, int culledCount) {
+        visible.addAndGet(visibleCount);
+        culled.addAndGet(culledCount);
+    }
+
+    //renderables drawn in the last frame
+    public int getVisibleCount() {
+        return lastVisible;
+    }
+
+    //renderables skipped as outside the frustum or occluded in the last frame
+    public int getCulledCount() {
+        return lastCulled;
+    }
     
 }
@@ -3,6 +3,7 @@ package graphics.particle;
 import game.Component;
 import game.StandardGame;
 import graphics.AttributeData;
+import graphics.CommandList;
 import graphics.util.Camera;
 import graphics.GLType;
 import graphics.util.HasCamera;
@@ -10,6 +11,7 @@ import graphics.RenderLayer;
 import graphics.RenderManager;
 import graphics.Renderable;
 import graphics.ShaderProgram;
+import graphics.SortKey;
 import graphics.UniformData;
 import graphics.VAOAttributes;
 import graphics.View;
@@ -144,6 +146,31 @@ public class HardCodedParticleEmitter implements Renderable {
         //GL11.glDepthMask(true);
     }
 
+    //the particles are advanced and ordered on the recording thread, the
+    //camera matrices are set on replay, the emitter is one translucent draw
+    @Override
+    public void record(View view, RenderLayer layer, CommandList list) {
+        if (!(view instanceof HasCamera)) {
+            LOG.error("Invalid view. {} does not implement HasCamera", view);
+            return;
+        }
+        Camera c = ((HasCamera) view).getCamera();
+
+        updateParticles(c);
+
+        int depth = SortKey.viewDepth(view, origin[0], origin[1], origin[2]);
+        list.beginDraw(SortKey.translucent(shaderProgram.getProgram(), 0, vao.getHandle(), depth));
+        list.useAndUpdateVAO(vao);
+        list.callback(setCamera, c);
+        list.useShader(shaderProgram);
+        list.drawArraysInstanced(GL11.GL_TRIANGLE_STRIP, 0, 4, currentNumber);
+    }
+
+    private final CommandList.Callback setCamera = c -> {
+        ud.setUniform(pHandle, ((Camera) c).getProjectionMatrix());
+        ud.setUniform(vHandle, ((Camera) c).getViewMatrix());
+    };
+
     public void updateParticles(Camera c) {
         for (int i = 0; i < currentNumber; i++) {
             if (--life[i] <= 0) {
@@ -21,6 +21,15 @@ public abstract class Particle implements Bufferable {
         velocity = new float[3];
     }
     
+    //clear all state before returning to a pool
+    void reset() {
+        life = 0;
+        for (int i = 0; i < 3; i++) {
+            position[i] = 0;
+            velocity[i] = 0;
+        }
+    }
+    
     int getLife() {
         return life;
     }
@@ -1,13 +1,16 @@
 package graphics.particle;
 
 import game.Component;
+import geometry.SnapshotTransform;
 import geometry.Transform;
 import graphics.AttributeData;
+import graphics.CommandList;
 import graphics.RenderLayer;
 import graphics.RenderManager;
 import graphics.Renderable;
 import graphics.util.RenderableAdapter;
 import graphics.ShaderProgram;
+import graphics.SortKey;
 import graphics.UniformData;
 import graphics.util.UniformTransform;
 import graphics.VAOAttributes;
@@ -16,6 +19,7 @@ import graphics.util.GraphicsUtility;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.List;
+import org.joml.Vector3f;
 import util.BufferableHelper;
 
 /**
@@ -39,8 +43,18 @@ public abstract class ParticleEmitter<T extends Particle> extends RenderableAdap
     UniformData ud;
     UniformTransform ut;
     Transform t;
+    //the transform as read by the uniforms, null until render init
+    SnapshotTransform snapshot;
+    //the engine updating this, null until added to one
+    ParticleEngine engine;
     int pHandle;
     int vHandle;
+
+    private final Vector3f recordPosition = new Vector3f();
+    private final CommandList.Callback setCamera = v -> {
+        ut.setCamera(GraphicsUtility.getHackyCamera((View) v));
+        shaderProgram.setUniformData(ud);
+    };
     
     public ParticleEmitter(String name, 
             ShaderProgram sp, int capacity, Transform t) {
@@ -78,6 +92,11 @@ public abstract class ParticleEmitter<T extends Particle> extends RenderableAdap
     
     public abstract void initParticles();
     
+    //return particles to their pool once the emitter is released, called on
+    //the update thread once the engine no longer updates this
+    protected void releaseParticles() {
+    }
+    
     public void update(int delta) {
         
         updateParticles(delta);
@@ -110,6 +129,40 @@ public abstract class ParticleEmitter<T extends Particle> extends RenderableAdap
     
     }
     
+    //particles are blended so emitters are translucent draws sorted back to
+    //front by their origin, subclasses record their draw after this
+    @Override
+    public void record(View view, RenderLayer layer, CommandList list) {
+        t.getPosition(recordPosition);
+        int depth = SortKey.viewDepth(view, recordPosition.x, recordPosition.y, recordPosition.z);
+        list.beginDraw(SortKey.translucent(shaderProgram.getProgram(), getMaterial(), vao.getHandle(), depth));
+        //emitters share the vao of their engine, the first to replay uploads it
+        list.useAndUpdateVAO(vao);
+        list.callback(setCamera, view);
+        list.useShader(shaderProgram);
+    }
+
+    //groups draws sharing textures, zero when untextured
+    protected int getMaterial() {
+        return 0;
+    }
+    
+    @Override
+    public void renderRelease() {
+        //the engine may still be updating the particles on the update thread
+        if (engine != null) {
+            engine.removeParticleEmitter(this);
+        } else {
+            releaseParticles();
+        }
+        if (snapshot != null) {
+            ut.setTransform(t);
+            snapshot.release();
+            snapshot = null;
+        }
+        super.renderRelease();
+    }
+    
     @Override
     public void renderInit() {
 
@@ -117,5 +170,10 @@ public abstract class ParticleEmitter<T extends Particle> extends RenderableAdap
         
         vao.setShaderAttributeLocations(shaderProgram);
 
+        snapshot = shaderProgram.getRenderManager().getTransformSnapshots().register(t);
+        if (snapshot != null) {
+            ut.setTransform(snapshot);
+        }
+
     }
 }
@@ -1,11 +1,16 @@
 package graphics.particle;
 
+import graphics.CommandList;
 import graphics.RenderLayer;
 import graphics.VAOAttributes;
 import graphics.View;
 import graphics.util.RenderableUpdateableAdapter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import job.Job;
+import job.JobSystem;
 import update.UpdateLayer;
 
 /**
@@ -14,12 +19,17 @@ import update.UpdateLayer;
  *
  * A ParticleEngine consists of a grouping of ParticleEmitters. All
  * ParticleEmitters in a single ParticleEngine must use the same VAO.
+ * Emitters write disjoint regions of the VAO, so when a JobSystem is
+ * available they are updated as parallel jobs.
+ * Removed emitters are dropped and their particles pooled again on the
+ * update thread, after the update they may still be part of.
  *
  */
 public class ParticleEngine extends RenderableUpdateableAdapter {
 
     String name;
     List<ParticleEmitter> instances;
+    private final Queue<ParticleEmitter> toRemove;
     VAOAttributes vao;
 
     int offset;
@@ -30,6 +40,7 @@ public class ParticleEngine extends RenderableUpdateableAdapter {
         this.vao = vao;
 
         instances = new ArrayList<>();
+        toRemove = new ConcurrentLinkedQueue<>();
 
     }
 
@@ -46,16 +57,28 @@ public class ParticleEngine extends RenderableUpdateableAdapter {
 
     }
 
+    //recorded emitters update the shared vao themselves, so the engine has
+    //nothing to draw
+    @Override
+    public void record(View view, RenderLayer layer, CommandList list) {
+    }
+
     public VAOAttributes getVAO() {
         return vao;
     }
 
     public void addParticleEmitter(ParticleEmitter pe) {
         pe.init(vao, offset);
+        pe.engine = this;
         instances.add(pe);
         offset += pe.getByteSize();
     }
 
+    //may be called from any thread, the emitter stops updating next frame
+    public void removeParticleEmitter(ParticleEmitter pe) {
+        toRemove.add(pe);
+    }
+
     public int getOffset() {
         return offset;
     }
@@ -63,8 +86,25 @@ public class ParticleEngine extends RenderableUpdateableAdapter {
     @Override
     public void update(int delta, UpdateLayer layer) {
 
-        for (ParticleEmitter pe : instances) {
-            pe.update(delta);
+        JobSystem jobSystem = layer.getJobSystem();
+        if (jobSystem == null || instances.size() < 2) {
+            for (ParticleEmitter pe : instances) {
+                pe.update(delta);
+            }
+        } else {
+            Job emitters = jobSystem.parallelFor(0, instances.size(), 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    instances.get(i).update(delta);
+                }
+            });
+            jobSystem.waitFor(emitters);
+        }
+        
+        ParticleEmitter pe;
+        while ((pe = toRemove.poll()) != null) {
+            if (instances.remove(pe)) {
+                pe.releaseParticles();
+            }
         }
     }
 
@@ -17,6 +17,15 @@ public class SimpleParticle extends Particle {
         color = new float[4];
     }
     
+    @Override
+    void reset() {
+        super.reset();
+        size = 0;
+        for (int i = 0; i < 4; i++) {
+            color[i] = 0;
+        }
+    }
+    
     @Override
     public void write(ByteBuffer b) {
         b.putFloat(size);
@@ -3,6 +3,7 @@ package graphics.particle;
 import game.Component;
 import game.StandardGame;
 import graphics.AttributeData;
+import graphics.CommandList;
 import graphics.GLType;
 import graphics.RenderLayer;
 import graphics.RenderManager;
@@ -17,6 +18,7 @@ import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL42;
 import update.UpdateManager;
+import util.Pool;
 
 /**
  *
@@ -29,6 +31,9 @@ public class SimpleParticleEmitter extends ParticleEmitter {
     
     ParticleDistribution pd;
 
+    private static final Pool<SimpleParticle> POOL
+            = Pool.createPool("SimpleParticle", SimpleParticle::new, SimpleParticle::reset);
+
     public SimpleParticleEmitter(String name,
             ShaderProgram sp, int capacity, ParticleDistribution pd) {
         super(name, sp, capacity, pd.getTransform());
@@ -41,8 +46,16 @@ public class SimpleParticleEmitter extends ParticleEmitter {
 
         particles = new ArrayList<>();
         for (int i = 0; i < capacity; i++) {
-            particles.add(new SimpleParticle());
+            particles.add(POOL.obtain());
+        }
+    }
+
+    @Override
+    protected void releaseParticles() {
+        for (Object p : particles) {
+            POOL.free((SimpleParticle) p);
         }
+        particles.clear();
     }
 
     @Override
@@ -61,6 +74,16 @@ public class SimpleParticleEmitter extends ParticleEmitter {
         GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
         GL11.glDepthMask(true);
     }
+
+    @Override
+    public void record(View view, RenderLayer layer, CommandList list) {
+        super.record(view, layer, list);
+        list.depthMask(false);
+        list.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE);
+        list.drawArraysInstancedBaseInstance(GL11.GL_TRIANGLE_STRIP, 0, VERTS_PER_PART, capacity, offset);
+        list.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        list.depthMask(true);
+    }
     
     @Override
     public int getVertexByteSize() {
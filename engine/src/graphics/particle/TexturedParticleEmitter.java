@@ -3,6 +3,7 @@ package graphics.particle;
 import game.Component;
 import game.StandardGame;
 import graphics.AttributeData;
+import graphics.CommandList;
 import graphics.GLType;
 import graphics.RenderLayer;
 import graphics.RenderManager;
@@ -17,6 +18,7 @@ import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL42;
 import update.UpdateManager;
+import util.Pool;
 
 /**
  *
@@ -26,6 +28,9 @@ public class TexturedParticleEmitter extends ParticleEmitter {
 
     ParticleDistribution pd;
     String texName;
+
+    private static final Pool<TexturedParticle> POOL
+            = Pool.createPool("TexturedParticle", TexturedParticle::new, TexturedParticle::reset);
     
     private static final int BYTESIZE = (1 + 3 + 2) * Float.BYTES;
     private static final int VERTS_PER_PART = 4;
@@ -48,10 +53,18 @@ public class TexturedParticleEmitter extends ParticleEmitter {
 
         particles = new ArrayList<>();
         for (int i = 0; i < capacity; i++) {
-            particles.add(new TexturedParticle());
+            particles.add(POOL.obtain());
         }
     }
 
+    @Override
+    protected void releaseParticles() {
+        for (Object p : particles) {
+            POOL.free((TexturedParticle) p);
+        }
+        particles.clear();
+    }
+
     @Override
     public void updateParticles(int delta) {
         pd.updateParticle(delta, particles);
@@ -81,6 +94,21 @@ public class TexturedParticleEmitter extends ParticleEmitter {
         GL11.glDepthMask(true);
     }
 
+    @Override
+    public void record(View view, RenderLayer layer, CommandList list) {
+        super.record(view, layer, list);
+        list.depthMask(false);
+        list.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE);
+        list.drawArraysInstancedBaseInstance(GL11.GL_TRIANGLE_STRIP, 0, 4, capacity, offset);
+        list.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        list.depthMask(true);
+    }
+
+    @Override
+    protected int getMaterial() {
+        return texName.hashCode();
+    }
+
     @Override
     public int getVertexByteSize() {
         return BYTESIZE;
@@ -134,6 +162,13 @@ public class TexturedParticleEmitter extends ParticleEmitter {
 
         float texOffsetX, texOffsetY;
 
+        @Override
+        void reset() {
+            super.reset();
+            texOffsetX = 0;
+            texOffsetY = 0;
+        }
+
         @Override
         public void write(ByteBuffer b) {
             b.putFloat(size);
@@ -2,6 +2,7 @@ package graphics.util;
 
 import graphics.RenderLayer;
 import graphics.ViewPort;
+import org.joml.Matrix4f;
 
 /**
  *
@@ -25,5 +26,10 @@ public class CameraViewPort extends ViewPort implements HasCamera {
     public Camera getCamera() {
         return c;
     }
+
+    @Override
+    protected Matrix4f getProjectionViewMatrix() {
+        return c.getProjectionViewMatrix();
+    }
     
 }
@@ -1,11 +1,12 @@
 package graphics.util;
 
+import graphics.CommandList;
 import graphics.RenderLayer;
 import graphics.Renderable;
 import graphics.View;
 import org.lwjgl.opengl.GL11;
 import util.ZIndexSet;
-import util.ZIndexSetStandard;
+import util.ZIndexSetBatched;
 
 /**
  *
@@ -23,10 +24,20 @@ public class RenderLayer2D extends RenderLayer {
         super.render(view);
         GL11.glEnable(GL11.GL_DEPTH_TEST);
     }
+
+    @Override
+    protected void beginRecord(View view, CommandList list) {
+        list.disable(GL11.GL_DEPTH_TEST);
+    }
+
+    @Override
+    protected void endRecord(View view, CommandList list) {
+        list.enable(GL11.GL_DEPTH_TEST);
+    }
     
     
     public static RenderLayer2D createRenderLayer2D() {
-        return new RenderLayer2D(ZIndexSetStandard.<Renderable>createCopyOnWriteSet());
+        return new RenderLayer2D(ZIndexSetBatched.<Renderable>createBatchedSet());
 
     }
     
@@ -1,27 +1,194 @@
 package graphics.util;
 
+import geometry.Bounds;
+import geometry.Frustum;
+import geometry.LooseOctree;
+import graphics.CommandList;
+import graphics.OcclusionBuffer;
 import graphics.UniformBuffer;
 import graphics.RenderLayer;
 import graphics.Renderable;
+import graphics.View;
 import graphics.visual.Lighting;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 import util.ZIndexSet;
-import util.ZIndexSetStandard;
+import util.ZIndexSetBatched;
 
 /**
  *
  * @author Andrew_2
+ * 
+ * Besides its ordinary renderables a 3D layer keeps indexed renderables in a
+ * loose octree, drawn together at INDEXED_Z_INDEX
+ * Only the renderables found in the frustum of a view are visited, so the
+ * cost of a frame follows what is visible rather than the size of the scene
+ * Indexed renderables must be bounded. Each frame those whose bounds
+ * version changed, as when their Transform moves, are moved in the index.
+ * Renderables whose bounds change without a new version, such as a
+ * Sprite3DCollection, are left in place unless their owner calls
+ * moveIndexedRenderable, so stale bounds would cull them wrongly
  */
 public class RenderLayer3D extends RenderLayer {
 
+    private final LooseOctree<Renderable> index;
+    //touched only on the render thread
+    private final Map<Renderable, Indexed> entries;
+    private final Queue<Renderable> toIndex;
+    private final Queue<Renderable> toMove;
+    private final Queue<Renderable> toRemove;
+    private final Bounds bounds;
+
+    public static final int INDEXED_Z_INDEX = DEFAULT_INDEX;
+    public static final float DEFAULT_INDEX_HALF_SIZE = 1024;
+
     public RenderLayer3D(ZIndexSet<Renderable> renderables) {
         super(renderables);
+        setCulling(true);
+        index = LooseOctree.createLooseOctree(DEFAULT_INDEX_HALF_SIZE);
+        entries = new HashMap<>();
+        toIndex = new ConcurrentLinkedQueue<>();
+        toMove = new ConcurrentLinkedQueue<>();
+        toRemove = new ConcurrentLinkedQueue<>();
+        bounds = new Bounds();
+        addRenderable(new IndexedRenderables(), INDEXED_Z_INDEX);
     }
     
     public static RenderLayer3D createRenderLayer3D() {
-        return new RenderLayer3D(ZIndexSetStandard.<Renderable>createCopyOnWriteSet());
+        return new RenderLayer3D(ZIndexSetBatched.<Renderable>createBatchedSet());
+
+    }
+
+    public void addIndexedRenderable(Renderable r) {
+        toIndex.add(r);
+    }
+
+    public void moveIndexedRenderable(Renderable r) {
+        toMove.add(r);
+    }
+
+    public void removeIndexedRenderable(Renderable r) {
+        toRemove.add(r);
+    }
+
+    @Override
+    protected void prepareRenderables() {
+        Renderable r;
+        while ((r = toIndex.poll()) != null) {
+            int version = r.getBoundsVersion();
+            if (!entries.containsKey(r) && r.getBounds(bounds.setEmpty()) && !bounds.isEmpty()) {
+                r.renderInit();
+                entries.put(r, new Indexed(index.insert(r, bounds), version));
+            }
+        }
+        while ((r = toMove.poll()) != null) {
+            Indexed i = entries.get(r);
+            if (i != null) {
+                move(i);
+            }
+        }
+        while ((r = toRemove.poll()) != null) {
+            Indexed i = entries.remove(r);
+            if (i != null) {
+                index.remove(i.entry);
+                r.renderRelease();
+            }
+        }
+        for (Indexed i : entries.values()) {
+            if (i.entry.getItem().getBoundsVersion() != i.boundsVersion) {
+                move(i);
+            }
+        }
+    }
+
+    private void move(Indexed i) {
+        Renderable r = i.entry.getItem();
+        i.boundsVersion = r.getBoundsVersion();
+        if (r.getBounds(bounds.setEmpty()) && !bounds.isEmpty()) {
+            index.move(i.entry, bounds);
+        }
+    }
+
+    //not thread safe, query between frames or from the recording thread
+    public LooseOctree<Renderable> getIndex() {
+        return index;
+    }
+
+    private static class Indexed {
+
+        private final LooseOctree.Entry<Renderable> entry;
+        //the bounds version the entry was last placed with
+        private int boundsVersion;
+
+        private Indexed(LooseOctree.Entry<Renderable> entry, int boundsVersion) {
+            this.entry = entry;
+            this.boundsVersion = boundsVersion;
+        }
+    }
+
+    /*
+     * Stands in for all indexed renderables in the layer, querying the index
+     * with the frustum of each view
+     * Visited renderables pending release are queued for removal
+     */
+    private class IndexedRenderables implements Renderable {
+
+        private View view;
+        private CommandList list;
+        private OcclusionBuffer occlusion;
+        private int visible;
+        private final Bounds visitBounds = new Bounds();
+        private final Consumer<Renderable> recordVisitor = r -> {
+            if (r.isRenderPendingRelease()) {
+                removeIndexedRenderable(r);
+            } else if (r.isRenderEnabled() && !isOccluded(r)) {
+                visible++;
+                r.record(view, RenderLayer3D.this, list);
+            }
+        };
+        private final Consumer<Renderable> renderVisitor = r -> {
+            if (r.isRenderPendingRelease()) {
+                removeIndexedRenderable(r);
+            } else if (r.isRenderEnabled() && !isOccluded(r)) {
+                visible++;
+                r.render(view, RenderLayer3D.this);
+            }
+        };
+
+        @Override
+        public void render(View view, RenderLayer layer) {
+            visit(view, renderVisitor);
+        }
+
+        @Override
+        public void record(View view, RenderLayer layer, CommandList list) {
+            this.list = list;
+            visit(view, recordVisitor);
+            this.list = null;
+        }
+
+        private void visit(View view, Consumer<Renderable> visitor) {
+            this.view = view;
+            visible = 0;
+            Frustum frustum = isCulling() ? view.getFrustum() : null;
+            occlusion = frustum != null ? view.getOcclusionBuffer() : null;
+            if (frustum == null) {
+                index.forEach(visitor);
+            } else {
+                index.query(frustum, visitor);
+            }
+            view.addCullCounts(visible, index.size() - visible);
+            this.view = null;
+            occlusion = null;
+        }
 
+        private boolean isOccluded(Renderable r) {
+            return occlusion != null && r.getBounds(visitBounds) && occlusion.isOccluded(visitBounds);
+        }
     }
     
 }
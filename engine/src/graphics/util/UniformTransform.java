@@ -125,4 +125,14 @@ public class UniformTransform implements UniformStruct {
         this.cam = c;
     }
 
+    //renderers pass the SnapshotTransform of their source here so the
+    //uniforms read the transform of the last complete tick
+    public void setTransform(HasTransform t) {
+        this.t = t;
+    }
+
+    public HasTransform getTransform() {
+        return t;
+    }
+
 }
@@ -1,13 +1,19 @@
 package graphics.visual;
 
+import game.Prefab;
 import game.StandardGame;
+import game.TransformComponent;
 import geometry.HasTransform;
+import geometry.SnapshotTransform;
+import geometry.TransformSnapshots;
 import geometry.Transform;
 import graphics.AttributeData;
+import graphics.CommandList;
 import graphics.GLType;
 import graphics.RenderLayer;
 import graphics.RenderManager;
 import graphics.ShaderProgram;
+import graphics.SortKey;
 import graphics.UniformData;
 import graphics.VAOAttributes;
 import graphics.View;
@@ -36,6 +42,9 @@ public class BoxGraphic extends RenderableAdapter {
     private boolean xray;
     private boolean wireframe;
     private final HasTransform[] boxTransforms;
+    //boxes are read through snapshots, so the vertices never mix two ticks
+    private final SnapshotTransform[] boxSnapshots;
+    private final TransformSnapshots snapshots;
     private int used;
     private final boolean[] enabled;
     private final ByteBuffer buffer;
@@ -47,6 +56,12 @@ public class BoxGraphic extends RenderableAdapter {
     UniformData ud;
     UniformTransform ut;
 
+    //scratch for filling the vertex buffer, used by the recording thread
+    private final Vector4f tmpVert = new Vector4f();
+    private final Matrix4f tmpTransform = new Matrix4f();
+    //sets the camera of the view on replay, before the shader uploads it
+    private final CommandList.Callback setCamera = v -> ut.setCamera(GraphicsUtility.getHackyCamera((View) v));
+
     private static final float[] cubeVerts = GraphicsUtility.getCubeVerts();
     private static final int[] cubeQuadsIndices = GraphicsUtility.getCubeQuadsIndices();
     private static final int[] cubeLinesIndices = GraphicsUtility.getCubeLinesIndices();
@@ -64,6 +79,8 @@ public class BoxGraphic extends RenderableAdapter {
         this.shaderProgram = sp;
 
         boxTransforms = new HasTransform[capacity];
+        boxSnapshots = new SnapshotTransform[capacity];
+        snapshots = sp.getRenderManager().getTransformSnapshots();
         enabled = new boolean[capacity];
         buffer = BufferUtils.createByteBuffer(capacity * MAX_VERTS_PER_CUBE * 3 * BYTES_PER_VERT);
 
@@ -110,21 +127,7 @@ public class BoxGraphic extends RenderableAdapter {
     @Override
     public void render(View view, RenderLayer layer) {
 
-        buffer.rewind();
-        int length = wireframe ? cubeLinesIndices.length : cubeQuadsIndices.length;
-        for (int i = 0; i < used; i++) {
-            Vector4f tmp = new Vector4f();
-            Matrix4f transform = boxTransforms[i].getTransformationMatrix(new Matrix4f());
-            for (int j = 0; j < length; j++) {
-                int index = wireframe ? cubeLinesIndices[j] : cubeQuadsIndices[j];
-                tmp.set(cubeVerts[3 * index], cubeVerts[3 * index + 1], cubeVerts[3 * index + 2], 1);
-                transform.transform(tmp);
-                util.Utilities.putVector3fFrom4f(buffer, tmp);
-
-            }
-        }
-        buffer.rewind();
-        attr.setChanged();
+        fillBuffer();
 
         vao.useAndUpdateVAO();
 
@@ -145,6 +148,44 @@ public class BoxGraphic extends RenderableAdapter {
         }
 
     }
+
+    //the vertices are transformed on the recording thread, only the upload
+    //and draw are left for replay
+    @Override
+    public void record(View view, RenderLayer layer, CommandList list) {
+
+        fillBuffer();
+
+        list.beginDraw(SortKey.opaque(shaderProgram.getProgram(), 0, vao.getHandle(), 0));
+        list.useAndUpdateVAO(vao);
+        list.callback(setCamera, view);
+        list.useShader(shaderProgram);
+
+        if (xray) {
+            list.disable(GL11.GL_DEPTH_TEST);
+        }
+        list.drawArrays(wireframe ? GL11.GL_LINES : GL11.GL_QUADS, 0, 24 * used);
+        if (xray) {
+            list.enable(GL11.GL_DEPTH_TEST);
+        }
+    }
+
+    private void fillBuffer() {
+        buffer.rewind();
+        int length = wireframe ? cubeLinesIndices.length : cubeQuadsIndices.length;
+        for (int i = 0; i < used; i++) {
+            Matrix4f transform = boxTransforms[i].getTransformationMatrix(tmpTransform);
+            for (int j = 0; j < length; j++) {
+                int index = wireframe ? cubeLinesIndices[j] : cubeQuadsIndices[j];
+                tmpVert.set(cubeVerts[3 * index], cubeVerts[3 * index + 1], cubeVerts[3 * index + 2], 1);
+                transform.transform(tmpVert);
+                util.Utilities.putVector3fFrom4f(buffer, tmpVert);
+
+            }
+        }
+        buffer.rewind();
+        attr.setChanged();
+    }
     
     public void setXray(boolean xray) {
         this.xray = xray;
@@ -169,7 +210,36 @@ public class BoxGraphic extends RenderableAdapter {
     }
 
     public void setBox(int handle, HasTransform t) {
-        boxTransforms[handle] = t;
+        if (boxSnapshots[handle] != null) {
+            boxSnapshots[handle].release();
+            boxSnapshots[handle] = null;
+        }
+        if (t != null && !(t instanceof SnapshotTransform)) {
+            boxSnapshots[handle] = snapshots.register(t);
+        }
+        boxTransforms[handle] = boxSnapshots[handle] != null ? boxSnapshots[handle] : t;
+    }
+
+    @Override
+    public void renderRelease() {
+        for (int i = 0; i < used; i++) {
+            if (boxSnapshots[i] != null) {
+                boxSnapshots[i].release();
+                boxSnapshots[i] = null;
+            }
+        }
+        super.renderRelease();
+    }
+
+    //a binding drawing a box at the transform of each prefab instance
+    public Prefab.PrefabBinding createPrefabBinding() {
+        return instance -> {
+            HasTransform t = instance instanceof HasTransform
+                    ? (HasTransform) instance : instance.getChild(TransformComponent.class);
+            if (t != null && used < capacity) {
+                addBox(t);
+            }
+        };
     }
 
 }
@@ -2,6 +2,8 @@ package graphics.visual;
 
 import game.Component;
 import game.StandardGame;
+import geometry.Bounds;
+import geometry.SnapshotTransform;
 import geometry.Transform;
 import graphics.AttributeData;
 import graphics.GLType;
@@ -49,6 +51,14 @@ public class HeightMap extends RenderableAdapter {
     UniformBuffer lighting;
     UniformTransform ut;
     Transform t;
+    //the transform as read by the uniforms, null until render init
+    SnapshotTransform snapshot;
+
+    //bounds of the grid before and after the transform, refreshed when it moves
+    private final Bounds localBounds;
+    private final Bounds worldBounds;
+    private final Matrix4f boundsMatrix;
+    private int boundsVersion = -1;
 
     private static final int dynamicFloats = 4;
     private static final int heightOffset = 0;
@@ -118,6 +128,18 @@ public class HeightMap extends RenderableAdapter {
         ut = new UniformTransform(t, initTrans);
         ud.addStruct(ut);
 
+        float minHeight = Float.POSITIVE_INFINITY;
+        float maxHeight = Float.NEGATIVE_INFINITY;
+        for (float[] row : heights) {
+            for (float h : row) {
+                minHeight = Math.min(minHeight, h);
+                maxHeight = Math.max(maxHeight, h);
+            }
+        }
+        localBounds = new Bounds().set(0, minHeight, 0, resx - 1, maxHeight, resz - 1);
+        localBounds.setTransformed(localBounds, initTrans);
+        worldBounds = new Bounds();
+        boundsMatrix = new Matrix4f();
     }
 
     @Override
@@ -126,9 +148,24 @@ public class HeightMap extends RenderableAdapter {
 
         vao.generateVAO();
         vao.setShaderAttributeLocations(shaderProgram);
+
+        snapshot = shaderProgram.getRenderManager().getTransformSnapshots().register(t);
+        if (snapshot != null) {
+            ut.setTransform(snapshot);
+        }
         
         setRenderInitialized();
     }
+
+    @Override
+    public void renderRelease() {
+        if (snapshot != null) {
+            ut.setTransform(t);
+            snapshot.release();
+            snapshot = null;
+        }
+        super.renderRelease();
+    }
     
     @Override
     public void render(View view, RenderLayer layer) {
@@ -143,6 +180,22 @@ public class HeightMap extends RenderableAdapter {
         GL11.glDisable(GL31.GL_PRIMITIVE_RESTART);
     }
 
+    @Override
+    public boolean getBounds(Bounds dest) {
+        int version = t.getVersion();
+        if (version != boundsVersion) {
+            worldBounds.setTransformed(localBounds, t.getTransformationMatrix(boundsMatrix));
+            boundsVersion = version;
+        }
+        dest.set(worldBounds);
+        return true;
+    }
+
+    @Override
+    public int getBoundsVersion() {
+        return t.getVersion();
+    }
+
     
     public static float[][] createWaveHeights(int resx, int resz) {
         
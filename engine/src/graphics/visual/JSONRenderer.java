@@ -2,9 +2,13 @@ package graphics.visual;
 
 import game.Component;
 import game.StandardGame;
+import geometry.Bounds;
+import geometry.SnapshotTransform;
 import geometry.Transform;
 import graphics.RenderLayer;
+import graphics.CommandList;
 import graphics.RenderManager;
+import graphics.SortKey;
 import graphics.util.RenderableAdapter;
 import graphics.ShaderProgram;
 import graphics.UniformBuffer;
@@ -14,12 +18,14 @@ import graphics.VAO;
 import graphics.View;
 import graphics.util.Camera;
 import graphics.util.GraphicsUtility;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import org.json.JSONArray;
+import org.joml.Matrix4f;
 import org.json.JSONObject;
 import org.lwjgl.opengl.GL11;
 import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
@@ -47,6 +53,9 @@ import resource.TextureData;
  * uniforms may be set by referencing the UniformData of each mesh
  * 
  * meshes rendered using indexed data
+ * 
+ * the bounds of the model are read from the vertex positions once and
+ * transformed again only when the transform of the renderer changes
  *
  */
 public class JSONRenderer extends RenderableAdapter {
@@ -56,12 +65,24 @@ public class JSONRenderer extends RenderableAdapter {
     private List<Mesh> meshes;
     private List<ShaderProgram> shaders;
     private UniformBuffer lighting;
+    private final Transform transform;
+    private final RenderManager renderManager;
+    //the transform as read by the uniforms, null until render init
+    private SnapshotTransform snapshot;
+
+    //bounds of the model in its own space, empty if positions were not found
+    private final Bounds localBounds;
+    private final Bounds worldBounds;
+    private final Matrix4f boundsMatrix;
+    private int boundsVersion = -1;
+    private final Matrix4f recordMatrix;
 
     public JSONRenderer(JSONData model,
             RenderManager renderManager, ResourceManager resourceManager,
             UniformBuffer lighting) {
         this.lighting =lighting;
         this.model = model;
+        this.renderManager = renderManager;
         materials = new HashMap<>();
         meshes = new ArrayList<>();
         shaders = new ArrayList<>();
@@ -86,18 +107,62 @@ public class JSONRenderer extends RenderableAdapter {
         JSONArray jsonMeshes = model.getJSON().getJSONArray("meshes");
         
         Transform t = new Transform();
+        transform = t;
+        localBounds = new Bounds();
+        worldBounds = new Bounds();
+        boundsMatrix = new Matrix4f();
+        recordMatrix = new Matrix4f();
+        Bounds meshBounds = new Bounds();
         for (int i = 0; i < jsonMeshes.length(); i++) {
             JSONObject obj = jsonMeshes.getJSONObject(i);
             ShaderProgram sp = shaders.get(obj.getInt("shader"));
             Mesh m = new Mesh(sp, obj, model);
-            UniformTransform ut = new UniformTransform(t, JSONData.parseMat(obj.getString("transform")));
+            Matrix4f meshTransform = JSONData.parseMat(obj.getString("transform"));
+            UniformTransform ut = new UniformTransform(t, meshTransform);
             m.ut = ut;
             m.getUniforms().addStruct(ut);
             meshes.add(m);
+
+            if (readMeshBounds(meshBounds.setEmpty(), obj, model)) {
+                localBounds.include(meshBounds.setTransformed(meshBounds, meshTransform));
+            }
         }
         
     }
 
+    //the bounds of the vertex positions of a mesh, the position attribute is
+    //the first named position or else the first of three or more floats
+    private static boolean readMeshBounds(Bounds dest, JSONObject mesh, JSONData model) {
+        JSONArray attributes = mesh.getJSONArray("attributes");
+        JSONObject position = null;
+        for (int i = 0; i < attributes.length() && position == null; i++) {
+            JSONObject attr = attributes.getJSONObject(i);
+            if (attr.getString("name").toLowerCase().contains("position")) {
+                position = attr;
+            }
+        }
+        for (int i = 0; i < attributes.length() && position == null; i++) {
+            JSONObject attr = attributes.getJSONObject(i);
+            if (attr.getInt("number") >= 3 && attr.getString("type").equals("f")) {
+                position = attr;
+            }
+        }
+        if (position == null) {
+            return false;
+        }
+        ByteBuffer vertices = model.getBuffer(mesh.getInt("vertices"));
+        vertices = vertices.duplicate().order(vertices.order());
+        int vertexSize = mesh.getInt("vertex_size");
+        if (vertexSize <= 0) {
+            return false;
+        }
+        int offset = vertices.position() + position.getInt("offset");
+        for (int v = offset; v + 3 * Float.BYTES <= vertices.limit(); v += vertexSize) {
+            dest.include(vertices.getFloat(v), vertices.getFloat(v + Float.BYTES), vertices.getFloat(v + 2 * Float.BYTES));
+        }
+        return !dest.isEmpty();
+    }
+
     @Override
     public void renderInit() {
         
@@ -138,6 +203,13 @@ public class JSONRenderer extends RenderableAdapter {
             }
             
         }
+
+        snapshot = renderManager.getTransformSnapshots().register(transform);
+        if (snapshot != null) {
+            for (Mesh m : meshes) {
+                m.ut.setTransform(snapshot);
+            }
+        }
         
         setRenderInitialized();
 
@@ -160,6 +232,64 @@ public class JSONRenderer extends RenderableAdapter {
         
     }
 
+    //each mesh is its own draw keyed by its shader, material and vao, the
+    //uniforms are set by the mesh on replay just before its shader is used
+    @Override
+    public void record(View view, RenderLayer layer, CommandList list) {
+        Matrix4f m = transform.getTransformationMatrix(recordMatrix);
+        int depth = SortKey.viewDepth(view, m.m30, m.m31, m.m32);
+
+        for (Mesh mesh : meshes) {
+            int material = mesh.mat == null ? 0 : mesh.mat.getId();
+            int shader = mesh.sp.getProgram();
+            int vao = mesh.vao.getHandle();
+            if (mesh.mat != null && mesh.mat.isTranslucent()) {
+                list.beginDraw(SortKey.translucent(shader, material, vao, depth));
+            } else {
+                list.beginDraw(SortKey.opaque(shader, material, vao, depth));
+            }
+            list.useAndUpdateVAO(mesh.vao);
+            list.callback(mesh, view);
+            list.useShader(mesh.sp);
+            list.drawElements(GL_TRIANGLES, mesh.numberFaces * 3, GL_UNSIGNED_INT, 0);
+        }
+    }
+
+    @Override
+    public void renderRelease() {
+        if (snapshot != null) {
+            for (Mesh m : meshes) {
+                m.ut.setTransform(transform);
+            }
+            snapshot.release();
+            snapshot = null;
+        }
+        super.renderRelease();
+    }
+
+    @Override
+    public boolean getBounds(Bounds dest) {
+        if (localBounds.isEmpty()) {
+            return false;
+        }
+        int version = transform.getVersion();
+        if (version != boundsVersion) {
+            worldBounds.setTransformed(localBounds, transform.getTransformationMatrix(boundsMatrix));
+            boundsVersion = version;
+        }
+        dest.set(worldBounds);
+        return true;
+    }
+
+    @Override
+    public int getBoundsVersion() {
+        return transform.getVersion();
+    }
+
+    public Transform getTransform() {
+        return transform;
+    }
+
     public List<ShaderProgram> getShaderPrograms() {
         return shaders;
     }
@@ -187,7 +317,7 @@ public class JSONRenderer extends RenderableAdapter {
      * Each mesh is rendered individually for now though
      * Meshes also maintain access to their JSON to enable parsing of custom properties
      */
-    public class Mesh {
+    public class Mesh implements CommandList.Callback {
 
         ShaderProgram sp;
         UniformData uniforms;
@@ -217,6 +347,15 @@ public class JSONRenderer extends RenderableAdapter {
         public JSONObject getJSON() {
             return json;
         }
+
+        //sets the uniforms for the view on replay of a recorded draw
+        @Override
+        public void call(Object view) {
+            View v = (View) view;
+            ut.setCamera(GraphicsUtility.getHackyCamera(v));
+            uniforms.setUniformBuffer("lightBlock", lighting.getGLBuffer(v));
+            sp.setUniformData(uniforms);
+        }
     }
 
 }
@@ -3,6 +3,7 @@ package graphics.visual;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import resource.JSONData;
@@ -23,6 +24,10 @@ public class Material {
     private Map<String, Color> colors;
     //the name of the texture must be the name of the sampler it is bound to
     private Map<String, String> textures;
+    //distinct for every material, draws are sorted by it to share state
+    private final int id;
+
+    private static final AtomicInteger nextId = new AtomicInteger();
 
     public static final Material defaultMaterial = new Material("default", new float[]{.3f, .3f, .3f});
 
@@ -32,6 +37,7 @@ public class Material {
 
     public Material(String name) {
         this.name = name;
+        this.id = nextId.getAndIncrement();
         colors = new HashMap<>();
         textures = new HashMap<>();
     }
@@ -81,6 +87,16 @@ public class Material {
         return name;
     }
 
+    public int getId() {
+        return id;
+    }
+
+    //whether the diffuse color is partially transparent
+    public boolean isTranslucent() {
+        Color diffuse = colors.get("diffuse");
+        return diffuse != null && diffuse.getNumComponents() > 3 && diffuse.getData()[3] < 1;
+    }
+
     @Override
     public String toString() {
         return name;
@@ -1,13 +1,16 @@
 package graphics.visual;
 
 import game.StandardGame;
+import geometry.Bounds;
 import geometry.HasTransform;
 import geometry.Transform;
 import graphics.AttributeData;
+import graphics.CommandList;
 import graphics.GLType;
 import graphics.RenderLayer;
 import graphics.RenderManager;
 import graphics.ShaderProgram;
+import graphics.SortKey;
 import graphics.UniformBuffer;
 import graphics.UniformData;
 import graphics.VAOAttributes;
@@ -50,6 +53,7 @@ public class Sprite3DCollection extends RenderableAdapter {
         private boolean useTex;
         private boolean enabled;
         private boolean changed;
+        private boolean boundsChanged;
         
         private static final Vector3f[] rectVerts = {
             new Vector3f(-1,1,0), new Vector3f(1,1,0), 
@@ -90,6 +94,7 @@ public class Sprite3DCollection extends RenderableAdapter {
         
         public void enable(boolean ena) {
             this.enabled = ena;
+            boundsChanged = true;
         }
         
         public void useTexture(String texName) {
@@ -118,6 +123,7 @@ public class Sprite3DCollection extends RenderableAdapter {
                 orientation.transform(normals[i]);
             }
             changed = true;
+            boundsChanged = true;
             enabled = true;
         }
         
@@ -134,6 +140,21 @@ public class Sprite3DCollection extends RenderableAdapter {
     private UniformTransform ut;
     private UniformBuffer lighting;
     private ByteBuffer buffer;
+
+    //union of the enabled sprites, rebuilt when a sprite moves or toggles
+    private final Bounds bounds;
+    private int boundsUsed = -1;
+
+    private final CommandList.Callback setView = v -> {
+        ud.setUniformBuffer("lightBlock", lighting.getGLBuffer((View) v));
+        ut.setCamera(GraphicsUtility.getHackyCamera((View) v));
+    };
+    private final CommandList.Callback setSprite = s -> {
+        Sprite3D sprite = (Sprite3D) s;
+        if (sprite.useTex && sprite.texName != null) {
+            ud.setTexture("tex", sprite.texName);
+        }
+    };
     
     public static final int MAX_NUMBER = 100;
     public static final int VERTS_PER_SPRITE = 4;
@@ -167,6 +188,7 @@ public class Sprite3DCollection extends RenderableAdapter {
         sp.setUniformData(ud);
         ut = new UniformTransform(new Transform());
         ud.addStruct(ut);
+        bounds = new Bounds();
     }
     
     public static Sprite3DCollection createSprite3DCollection(int capacity, StandardGame game, UniformBuffer lighting) {
@@ -198,7 +220,31 @@ public class Sprite3DCollection extends RenderableAdapter {
     }
     
     @Override
-    public void render(View v, RenderLayer layer) {
+    public boolean getBounds(Bounds dest) {
+        boolean stale = boundsUsed != numUsed;
+        for (int i = 0; i < numUsed; i++) {
+            if (sprites[i].boundsChanged) {
+                sprites[i].boundsChanged = false;
+                stale = true;
+            }
+        }
+        if (stale) {
+            bounds.setEmpty();
+            for (int i = 0; i < numUsed; i++) {
+                Sprite3D s = sprites[i];
+                if (s.enabled) {
+                    for (Vector3f vert : s.vertices) {
+                        bounds.include(vert.x, vert.y, vert.z);
+                    }
+                }
+            }
+            boundsUsed = numUsed;
+        }
+        dest.set(bounds);
+        return true;
+    }
+
+    private void writeSprites() {
         boolean attrChanged = false;
         for (int i = 0; i < numUsed; i++) {
             if (sprites[i].changed) {
@@ -213,6 +259,42 @@ public class Sprite3DCollection extends RenderableAdapter {
             buffer.rewind();
             attr.setChanged();
         }
+    }
+
+    //sprites are blended so each is its own translucent draw sorted back to
+    //front by its center, the texture name stands in for the material
+    //since sprites sharing a texture share all their state
+    @Override
+    public void record(View v, RenderLayer layer, CommandList list) {
+        writeSprites();
+
+        int shader = sp.getProgram();
+        int handle = vao.getHandle();
+        for (int i = 0; i < numUsed; i++) {
+            Sprite3D s = sprites[i];
+            if (s.enabled) {
+                float x = 0, y = 0, z = 0;
+                for (Vector3f vert : s.vertices) {
+                    x += vert.x;
+                    y += vert.y;
+                    z += vert.z;
+                }
+                int depth = SortKey.viewDepth(v, x / VERTS_PER_SPRITE, y / VERTS_PER_SPRITE, z / VERTS_PER_SPRITE);
+                int material = s.useTex && s.texName != null ? s.texName.hashCode() : 0;
+
+                list.beginDraw(SortKey.translucent(shader, material, handle, depth));
+                list.useAndUpdateVAO(vao);
+                list.callback(setView, v);
+                list.callback(setSprite, s);
+                list.useShader(sp);
+                list.drawArrays(GL_QUADS, i * VERTS_PER_SPRITE, VERTS_PER_SPRITE);
+            }
+        }
+    }
+
+    @Override
+    public void render(View v, RenderLayer layer) {
+        writeSprites();
         
         vao.useAndUpdateVAO();
         
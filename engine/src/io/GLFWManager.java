@@ -1,6 +1,7 @@
 package io;
 
 import game.Game;
+import game.Lifecycle;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,9 +28,8 @@ public class GLFWManager implements Runnable {
     private GLFWErrorCallback errorCallback;
 
     private long numRefreshes;
-    private boolean toRelease;
-    private boolean isReleased;
-    private boolean isInitialized;
+    private volatile boolean toRelease;
+    private final Lifecycle lifecycle;
     
     private static final Logger LOG = LoggerFactory.getLogger(GLFWManager.class);
 
@@ -40,18 +40,23 @@ public class GLFWManager implements Runnable {
         windowsToInitialize = new ConcurrentLinkedQueue<>();
 
         numRefreshes = 0;
+        lifecycle = new Lifecycle("GLFWManager");
         LOG.info("GLFWManager constructor exited");
 
     }
 
     public boolean isInitialized() {
-        return isInitialized;
+        return lifecycle.isInitialized();
+    }
+
+    public Lifecycle getLifecycle() {
+        return lifecycle;
     }
 
     private void initialize() {
         LOG.info("GLFWManager init entered");
         initializeError();
-        isInitialized = true;
+        lifecycle.setInitialized();
         LOG.info("GLFWManager init exited");
     }
     
@@ -60,6 +65,7 @@ public class GLFWManager implements Runnable {
         LOG.info(Game.threadMarker, "GLFW");
         LOG.info("GLFWManager run");
         initialize();
+        lifecycle.setReady();
 
         while (!toRelease) {
 
@@ -112,13 +118,7 @@ public class GLFWManager implements Runnable {
         
         LOG.info("GLFWManager release entered");
         toRelease = true;
-        while(!isReleased) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException ex) {
-                LOG.error("{}", ex);
-            }
-        }
+        lifecycle.awaitReleased();
         LOG.info("GLFWManager release exited");
     }
 
@@ -128,7 +128,7 @@ public class GLFWManager implements Runnable {
         errorCallback.release();
         glfwTerminate();
 
-        isReleased = true;
+        lifecycle.setReleased();
     }
 
     protected void addWindow(Window window) {
@@ -137,7 +137,7 @@ public class GLFWManager implements Runnable {
     }
 
     public boolean isRelased() {
-        return isReleased;
+        return lifecycle.isReleased();
     }
 
 }
@@ -1,6 +1,7 @@
 package io;
 
 import game.Game;
+import game.Lifecycle;
 import java.nio.DoubleBuffer;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -44,10 +45,9 @@ public class Window {
     private DoubleBuffer mouseXBuffer, mouseYBuffer;
     private float mouseX, mouseY;
     private float dMouseX, dMouseY;
-    private boolean isReleased;
-    private boolean toRelease;
+    private volatile boolean toRelease;
     private long numRefreshes;
-    private boolean isInitialized;
+    private final Lifecycle lifecycle;
     private boolean contextCreated;
 
     private List<Action> exitCallbackActions;
@@ -62,36 +62,25 @@ public class Window {
         this.height = height;
         this.glfwManager = glfwManager;
         exitCallbackActions = new CopyOnWriteArrayList<>();
+        lifecycle = new Lifecycle("Window " + title);
         LOG.info("Window constructed: {}", title);
     }
 
     public void initialize() {
         glfwManager.addWindow(this);
-        while(!isInitialized()) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException ex) {
-                LOG.error("{}",ex);
-            }
-        }
+        lifecycle.awaitReady();
     }
     
     public void release() {
         toRelease = true;
-        while(!isReleased) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException ex) {
-                LOG.error("{}",ex);
-            }
-        }
+        lifecycle.awaitReleased();
     }
     
     protected void glfwInitialize() {
         initializeWindow();
         initializeMouse();
         initializeKeyBoard();
-        isInitialized = true;
+        lifecycle.setReady();
     }
 
     private void initializeWindow() {
@@ -218,7 +207,7 @@ public class Window {
     protected void glfwRelease() {
         Callbacks.glfwReleaseCallbacks(handle);
         GLFW.glfwDestroyWindow(handle);
-        isReleased = true;
+        lifecycle.setReleased();
     }
 
     public void swapBuffers() {
@@ -249,7 +238,11 @@ public class Window {
     }
 
     public boolean isInitialized() {
-        return isInitialized;
+        return lifecycle.isReady();
+    }
+
+    public Lifecycle getLifecycle() {
+        return lifecycle;
     }
 
     public float getMouseX() {
@@ -0,0 +1,88 @@
+package job;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A Job is a unit of work run by a JobSystem
+ *
+ * Each job counts itself and its unfinished children. A job is finished once
+ * its own task has run and every child has finished, at which point it
+ * notifies its parent. Children must be created before their parent finishes,
+ * either before the parent is run or from within the parent's task.
+ * A job whose task throws still finishes, but keeps the first failure of
+ * itself or any descendant so that waiters can rethrow it.
+ */
+public class Job {
+
+    private final Runnable task;
+    private final Job parent;
+    private final AtomicInteger unfinished;
+    private final AtomicReference<Throwable> failure;
+
+    protected Job(Runnable task, Job parent) {
+        this.task = task;
+        this.parent = parent;
+        this.unfinished = new AtomicInteger(1);
+        this.failure = new AtomicReference<>();
+        if (parent != null) {
+            parent.unfinished.incrementAndGet();
+        }
+    }
+
+    protected void execute() {
+        try {
+            if (task != null) {
+                task.run();
+            }
+        } catch (RuntimeException | Error ex) {
+            //recorded before finishing so a waiter that sees it finished sees this
+            fail(ex);
+            throw ex;
+        } finally {
+            finish();
+        }
+    }
+
+    private void fail(Throwable ex) {
+        for (Job j = this; j != null; j = j.parent) {
+            j.failure.compareAndSet(null, ex);
+        }
+    }
+
+    private void finish() {
+        if (unfinished.decrementAndGet() == 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+            if (parent != null) {
+                parent.finish();
+            }
+        }
+    }
+
+    //blocks until the job finishes or the timeout passes
+    void await(long millis) throws InterruptedException {
+        synchronized (this) {
+            if (!isFinished()) {
+                wait(millis);
+            }
+        }
+    }
+
+    public boolean isFinished() {
+        return unfinished.get() == 0;
+    }
+
+    //the first exception thrown by this job or a descendant, null if none
+    public Throwable getFailure() {
+        return failure.get();
+    }
+
+    public Job getParent() {
+        return parent;
+    }
+}
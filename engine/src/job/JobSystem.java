@@ -0,0 +1,209 @@
+package job;
+
+import game.Game;
+import game.Lifecycle;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * JobSystem runs Jobs on a fixed pool of worker threads
+ *
+ * Any manager may submit work rather than starting a thread of its own.
+ * Threads waiting on a job help by running queued jobs until it finishes.
+ * Work that must run on the thread with the opengl context is queued with
+ * submitMain and run when the RenderManager calls runMainThreadJobs.
+ * As an Executor it runs each task as an independent job.
+ */
+public class JobSystem implements Executor {
+
+    private final int numWorkers;
+    private final Thread[] workers;
+    private final BlockingQueue<Job> jobs;
+    private final Queue<Runnable> mainThreadJobs;
+    private volatile boolean toRelease;
+    private final Lifecycle lifecycle;
+
+    private static final long POLL_MILLIS = 100;
+    //how long a waiting thread blocks before checking for queued jobs again
+    private static final long WAIT_MILLIS = 1;
+    private static final Logger LOG = LoggerFactory.getLogger(JobSystem.class);
+
+    public JobSystem(int numWorkers) {
+        LOG.info("JobSystem constructor entered");
+        this.numWorkers = numWorkers;
+        workers = new Thread[numWorkers];
+        jobs = new LinkedBlockingQueue<>();
+        mainThreadJobs = new ConcurrentLinkedQueue<>();
+        lifecycle = new Lifecycle("JobSystem");
+        LOG.info("JobSystem constructor exited");
+    }
+
+    public void initialize() {
+        LOG.info("JobSystem init entered");
+        for (int i = 0; i < numWorkers; i++) {
+            workers[i] = new Thread(this::work, "Job-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        lifecycle.setReady();
+        LOG.info("JobSystem init exited");
+    }
+
+    private void work() {
+        LOG.info(Game.threadMarker, "Job");
+        while (!toRelease) {
+            try {
+                Job job = jobs.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (job != null) {
+                    runJob(job);
+                }
+            } catch (InterruptedException ex) {
+                //interrupted on release
+            }
+        }
+    }
+
+    private void runJob(Job job) {
+        try {
+            job.execute();
+        } catch (Exception e) {
+            LOG.error("{}", e);
+        }
+    }
+
+    public void release() {
+        LOG.info("JobSystem release entered");
+        toRelease = true;
+        for (Thread worker : workers) {
+            if (worker != null) {
+                worker.interrupt();
+                try {
+                    worker.join();
+                } catch (InterruptedException ex) {
+                    LOG.error("{}", ex);
+                }
+            }
+        }
+        lifecycle.setReleased();
+        LOG.info("JobSystem release exited");
+    }
+
+    //create a job without running it, so children can be attached first
+    public Job createJob(Runnable task) {
+        return createJob(task, null);
+    }
+
+    public Job createJob(Runnable task, Job parent) {
+        return new Job(task, parent);
+    }
+
+    public void run(Job job) {
+        jobs.add(job);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        submit(task);
+    }
+
+    public Job submit(Runnable task) {
+        return submit(task, null);
+    }
+
+    public Job submit(Runnable task, Job parent) {
+        Job job = createJob(task, parent);
+        run(job);
+        return job;
+    }
+
+    //split [from, to) into ranges of at most grain and run them as children
+    //of the returned job
+    public Job parallelFor(int from, int to, int grain, RangeTask task) {
+        if (grain <= 0) {
+            throw new IllegalArgumentException("Grain must be positive");
+        }
+        Job root = createJob(null);
+        for (int start = from; start < to; start += grain) {
+            int s = start;
+            int e = Math.min(start + grain, to);
+            submit(() -> task.run(s, e), root);
+        }
+        run(root);
+        return root;
+    }
+
+    //block until the job finishes, running queued jobs in the meantime
+    //once the queue is empty the thread sleeps until the job finishes,
+    //waking briefly to help with jobs queued after it started waiting
+    //throws a CompletionException if the job or a descendant failed
+    public void waitFor(Job job) {
+        boolean interrupted = false;
+        while (!job.isFinished()) {
+            Job next = jobs.poll();
+            if (next != null) {
+                runJob(next);
+            } else {
+                try {
+                    job.await(WAIT_MILLIS);
+                } catch (InterruptedException ex) {
+                    //the job must still finish, the interrupt is kept for later
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        Throwable failure = job.getFailure();
+        if (failure != null) {
+            throw new CompletionException(failure);
+        }
+    }
+
+    public void submitMain(Runnable task) {
+        mainThreadJobs.add(task);
+    }
+
+    //must be called from the thread with opengl context
+    public void runMainThreadJobs() {
+        Runnable task;
+        while ((task = mainThreadJobs.poll()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOG.error("{}", e);
+            }
+        }
+    }
+
+    public Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    public int getNumWorkers() {
+        return numWorkers;
+    }
+
+    public int getQueuedJobs() {
+        return jobs.size();
+    }
+
+    public static JobSystem createJobSystem() {
+        return new JobSystem(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public interface RangeTask {
+
+        public void run(int from, int to);
+    }
+}
@@ -0,0 +1,87 @@
+package job;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A TaskGraph is a set of tasks with dependencies between them
+ *
+ * The graph is built once and executed every frame. A task is submitted to
+ * the JobSystem when all of its dependencies have finished, and the job
+ * returned by execute finishes when every task in the graph has.
+ */
+public class TaskGraph {
+
+    private final List<Task> tasks;
+
+    public TaskGraph() {
+        tasks = new ArrayList<>();
+    }
+
+    //dependencies must already belong to this graph
+    public Task add(Runnable runnable, Task... dependencies) {
+        Task task = new Task(runnable);
+        for (Task dependency : dependencies) {
+            dependency.dependents.add(task);
+            task.numDependencies++;
+        }
+        tasks.add(task);
+        return task;
+    }
+
+    public Job execute(JobSystem jobSystem) {
+        Job root = jobSystem.createJob(null);
+        for (Task task : tasks) {
+            task.pending.set(task.numDependencies);
+        }
+        for (Task task : tasks) {
+            if (task.numDependencies == 0) {
+                submit(task, jobSystem, root);
+            }
+        }
+        jobSystem.run(root);
+        return root;
+    }
+
+    public void executeAndWait(JobSystem jobSystem) {
+        jobSystem.waitFor(execute(jobSystem));
+    }
+
+    //dependents are submitted before the finishing task's job completes
+    //so the root cannot finish early
+    private void submit(Task task, JobSystem jobSystem, Job root) {
+        jobSystem.submit(() -> {
+            try {
+                task.runnable.run();
+            } finally {
+                for (Task dependent : task.dependents) {
+                    if (dependent.pending.decrementAndGet() == 0) {
+                        submit(dependent, jobSystem, root);
+                    }
+                }
+            }
+        }, root);
+    }
+
+    public int size() {
+        return tasks.size();
+    }
+
+    public static final class Task {
+
+        private final Runnable runnable;
+        private final List<Task> dependents;
+        private final AtomicInteger pending;
+        private int numDependencies;
+
+        private Task(Runnable runnable) {
+            this.runnable = runnable;
+            this.dependents = new ArrayList<>();
+            this.pending = new AtomicInteger();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package resource;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  *
  * @author Andy
@@ -10,9 +12,10 @@ package resource;
  */
 public class Resource<T extends Data> {
     
-    private boolean loaded = false;
+    private volatile boolean loaded = false;
     private T data;
     private String path;
+    private final CompletableFuture<Resource<T>> loadedFuture = new CompletableFuture<>();
     
     //Resource must be constructed with the path of the data
     //as well as a data to be loaded or written
@@ -28,6 +31,12 @@ public class Resource<T extends Data> {
     protected void loadData(ResourceManager resourceManager) {
         data.load(path, resourceManager);
         loaded = true;
+        loadedFuture.complete(this);
+    }
+    
+    //fails the waiters of a resource that will not be loaded
+    void cancelLoad(Throwable cause) {
+        loadedFuture.completeExceptionally(cause);
     }
     
     
@@ -35,6 +44,12 @@ public class Resource<T extends Data> {
         return loaded;
     }
     
+    //completes once the data is first loaded, or exceptionally if queued
+    //loading fails or is abandoned on release
+    public CompletableFuture<Resource<T>> getLoaded() {
+        return loadedFuture;
+    }
+    
     public T getData() {
         return data;
     }
@@ -1,6 +1,7 @@
 package resource;
 
 import game.Game;
+import game.Lifecycle;
 import game.GameStateManager;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -12,10 +13,11 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,16 +33,22 @@ import org.slf4j.LoggerFactory;
  */
 public class ResourceManager implements Runnable {
 
-    private Queue<Resource> queuedResources;
+    private BlockingQueue<Resource<?>> queuedResources;
+    //resources are loaded from many threads, such as prefetches during init
     private Map<String, Resource> resources;
-    private boolean toRelease, isReleased;
+    private volatile boolean toRelease;
+    private final Lifecycle lifecycle;
+    
+    //queued on release to wake the resource thread
+    private static final Resource<?> RELEASE = new Resource<>(null, null);
     
     private static final Logger LOG = LoggerFactory.getLogger(ResourceManager.class);
     
     public ResourceManager() {
         LOG.info("ResourceManager constructor entered");
-        queuedResources = new ConcurrentLinkedQueue<>();
-        resources = new HashMap<>();
+        queuedResources = new LinkedBlockingQueue<>();
+        resources = new ConcurrentHashMap<>();
+        lifecycle = new Lifecycle("ResourceManager");
         LOG.info("ResourceManager constructor exited");
         
     }
@@ -48,11 +56,13 @@ public class ResourceManager implements Runnable {
     public void release() {
         LOG.info("ResourceManager release entered");
         toRelease = true;
-        while(!isReleased) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException ex) {
-                LOG.error("{}", ex);
+        queuedResources.add(RELEASE);
+        lifecycle.awaitReleased();
+        //resources still queued will never load, so their waiters are failed
+        Resource<?> r;
+        while ((r = queuedResources.poll()) != null) {
+            if (r != RELEASE) {
+                r.cancelLoad(new CancellationException("ResourceManager released before loading " + r.getPath()));
             }
         }
         /*queuedResources.clear();
@@ -90,18 +100,27 @@ public class ResourceManager implements Runnable {
     public void run() {
         LOG.info(Game.threadMarker, "Resource");
         LOG.info("ResourceManager run");
+        lifecycle.setReady();
         while (!toRelease) {
-            Resource r;
-            while ((r = queuedResources.poll()) != null) {
-                loadResource(r, true);
-            }
             try {
-                Thread.sleep(100);
+                Resource<?> r = queuedResources.take();
+                if (r != RELEASE) {
+                    try {
+                        loadResource(r, true);
+                    } catch (RuntimeException ex) {
+                        LOG.error("{}", ex);
+                        r.cancelLoad(ex);
+                    }
+                }
             } catch (InterruptedException ex) {
                 LOG.error("{}", ex);
             }
         }
-        isReleased = true;
+        lifecycle.setReleased();
+    }
+    
+    public Lifecycle getLifecycle() {
+        return lifecycle;
     }
 
     //queue a resource for loading, similar to loadResource
@@ -115,6 +134,10 @@ public class ResourceManager implements Runnable {
         }
         r = new Resource(path, data);
         resources.put(path, r);
+        if (toRelease) {
+            r.cancelLoad(new CancellationException("ResourceManager released before loading " + path));
+            return r;
+        }
         queuedResources.add(r);
         return r;
     }
@@ -38,6 +38,9 @@ public class ScriptManager {
     private static final Logger LOG = LoggerFactory.getLogger(ScriptManager.class);
     
     public static final String NO_SCRIPT_NAME = "noScriptName";
+    
+    //evaluated in order once the engine is created
+    private static final String[] STARTUP_SCRIPT_PATHS = {"engine_scripts/Script.js"};
 
     public ScriptManager(UpdateManager updateManager, ResourceManager resourceManager) {
         LOG.info("ScriptManager constructor entered");
@@ -49,8 +52,18 @@ public class ScriptManager {
 
     public void initialize() {
         LOG.info("ScriptManager init entered");
-        
+        createEngine();
+        loadStartupScripts();
+        LOG.info("ScriptManager init exited");
+    }
+    
+    //creates the engine and imports packages, touches nothing else of the
+    //game so it may run on any thread while other subsystems start
+    public void createEngine() {
         defaultUpdateLayer = UpdateLayer.createUpdateLayer();
+        //scripts may touch any part of the game so never run them in parallel
+        defaultUpdateLayer.setOrdered(true);
+        defaultUpdateLayer.setName("scripts");
         updateManager.addUpdateLayer(defaultUpdateLayer, DEFAULT_UPDATE_LAYER_INDEX);
         
         // create a script engine manager
@@ -63,12 +76,13 @@ public class ScriptManager {
         eval("core = JavaImporter(Packages.game, Packages.graphics, Packages.io, Packages.resource, Packages.script, Packages.update)");
         
         //load packages
-        String[] packageNames = {"game", "geometry", "graphics", "io", "physics", "resource", "script","sound", "update", "util"};
+        String[] packageNames = {"event", "game", "geometry", "graphics", "io", "job", "physics", "resource", "script","sound", "update", "util"};
         for (String packageName : packageNames) {
             eval(packageName + " = JavaImporter(Packages." + packageName + ")");
         }
         eval("joml = JavaImporter(Packages.org.joml)");
         
+        eval("entity = JavaImporter(Packages.game.entity)");
         eval("graphicsUtil = JavaImporter(Packages.graphics.util)");
         eval("visual = JavaImporter(Packages.graphics.visual)");
         eval("particle = JavaImporter(Packages.graphics.particle)");
@@ -79,17 +93,29 @@ public class ScriptManager {
         eval("slf4j = JavaImporter(org.slf4j);");
         eval("KeyCallbackExtender = Java.extend(Java.type(\"io.KeyCallback\"));");
         
-        setCurrentObject(null);
+        //timers run on the update thread by simulated time
+        engine.put("timers", updateManager.getTimers());
+        eval("function setTimeout(f, ms) { return timers.schedule(new update.Action(f), ms); }");
+        eval("function setInterval(f, ms) { return timers.scheduleRepeating(new update.Action(f), ms, ms); }");
+        eval("function clearTimeout(t) { if (t) t.cancel(); }");
+        eval("clearInterval = clearTimeout;");
         
-        // evaluate JavaScript code from startup scripts
-        String[] startupPaths = {"Script.js"};
-        startupScripts = new GameScript[startupPaths.length];
+        setCurrentObject(null);
+    }
+    
+    //reads the startup scripts into the resource cache without evaluating them
+    public void prefetchStartupScripts() {
+        for (String path : STARTUP_SCRIPT_PATHS) {
+            TextData.loadText(path, resourceManager);
+        }
+    }
+    
+    //evaluates the startup scripts, which may use any global of the game
+    public void loadStartupScripts() {
+        startupScripts = new GameScript[STARTUP_SCRIPT_PATHS.length];
         for (int i = 0; i < startupScripts.length; i++) {
-            startupScripts[i] = loadScript("engine_scripts/" + startupPaths[i]);
+            startupScripts[i] = loadScript(STARTUP_SCRIPT_PATHS[i]);
         }
-        
-        
-        LOG.info("ScriptManager init exited");
     }
     
     public void release() {
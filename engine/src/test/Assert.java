@@ -0,0 +1,50 @@
+package test;
+
+import java.util.Objects;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * Assertions shared by the headless tests, each test is a main that throws
+ * an AssertionError naming the first check to fail
+ */
+public final class Assert {
+
+    private Assert() {
+    }
+
+    public static void assertTrue(boolean condition, String what) {
+        if (!condition) {
+            throw new AssertionError(what);
+        }
+    }
+
+    public static void assertFalse(boolean condition, String what) {
+        assertTrue(!condition, what);
+    }
+
+    public static void assertEquals(long expected, long actual, String what) {
+        if (expected != actual) {
+            throw new AssertionError(what + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    public static void assertEquals(Object expected, Object actual, String what) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError(what + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    public static void assertThrows(Class<? extends Throwable> type, Runnable r, String what) {
+        try {
+            r.run();
+        } catch (Throwable t) {
+            if (type.isInstance(t)) {
+                return;
+            }
+            throw new AssertionError(what + ": expected " + type.getSimpleName() + " but was " + t, t);
+        }
+        throw new AssertionError(what + ": expected " + type.getSimpleName());
+    }
+}
@@ -0,0 +1,147 @@
+package test;
+
+import static test.Assert.*;
+
+import graphics.CommandList;
+import graphics.SortKey;
+import java.util.ArrayList;
+import java.util.List;
+import job.Job;
+import job.JobSystem;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * records command lists without opengl, on workers as the RenderManager
+ * does, and replays them through a reader that logs each command instead of
+ * calling opengl, checking that draws come back whole and in key order
+ */
+public class CommandListTest {
+
+    private static final int CAP_DEPTH_TEST = 0x0B71;
+
+    public static void main(String[] args) {
+        testReplayOrder();
+        testRecordOnWorkers();
+        testReset();
+        System.out.println("CommandListTest passed");
+    }
+
+    private static void testReplayOrder() {
+        //a small capacity so recording grows the buffer
+        CommandList list = new CommandList("order", 4);
+        list.enable(CAP_DEPTH_TEST);
+        List<String> calls = new ArrayList<>();
+        CommandList.Callback mark = arg -> calls.add((String) arg);
+
+        //recorded far to near and with translucent draws first
+        list.beginDraw(SortKey.translucent(1, 1, 1, 10));
+        list.callback(mark, "near translucent");
+        list.drawArrays(0, 0, 1);
+        list.beginDraw(SortKey.opaque(2, 1, 1, 900));
+        list.callback(mark, "far opaque shader 2");
+        list.drawArrays(0, 1, 1);
+        list.beginDraw(SortKey.translucent(1, 1, 1, 500));
+        list.callback(mark, "far translucent");
+        list.drawArrays(0, 2, 1);
+        list.beginDraw(SortKey.opaque(1, 1, 1, 900));
+        list.callback(mark, "far opaque shader 1");
+        list.drawArrays(0, 3, 1);
+        list.beginDraw(SortKey.opaque(1, 1, 1, 100));
+        list.callback(mark, "near opaque shader 1");
+        list.drawElements(0, 4, 0, 0);
+        list.endDraws();
+        list.disable(CAP_DEPTH_TEST);
+        list.sort();
+
+        List<String> replayed = replay(list);
+        assertEquals("ENABLE " + CAP_DEPTH_TEST, replayed.get(0), "commands before the draws replay first");
+        assertEquals("DISABLE " + CAP_DEPTH_TEST, replayed.get(replayed.size() - 1), "commands after endDraws replay last");
+        assertEquals(2 + 2 * 5, replayed.size(), "every command replayed once");
+        assertEquals(5, list.getDrawCount(), "every draw kept");
+
+        String[] expected = {"near opaque shader 1", "far opaque shader 1", "far opaque shader 2",
+            "far translucent", "near translucent"};
+        assertEquals(expected.length, calls.size(), "every callback run");
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], calls.get(i), "draw " + i + " in key order");
+            //each callback is still followed by the draw recorded with it
+            assertTrue(replayed.get(2 + 2 * i).startsWith("DRAW_"), "draw " + i + " kept whole");
+        }
+    }
+
+    private static void testRecordOnWorkers() {
+        JobSystem jobs = new JobSystem(3);
+        jobs.initialize();
+        try {
+            int layers = 16;
+            int draws = 200;
+            CommandList[] lists = new CommandList[layers];
+            for (int l = 0; l < layers; l++) {
+                lists[l] = CommandList.createCommandList("layer " + l);
+            }
+            Job record = jobs.parallelFor(0, layers, 1, (from, to) -> {
+                for (int l = from; l < to; l++) {
+                    CommandList list = lists[l];
+                    list.reset();
+                    for (int d = 0; d < draws; d++) {
+                        //depths recorded in reverse so sorting has work to do
+                        list.beginDraw(SortKey.opaque(l, 0, 0, draws - d));
+                        list.drawArrays(0, l, d);
+                    }
+                    list.endDraws();
+                    list.sort();
+                }
+            });
+            jobs.waitFor(record);
+
+            //replayed on this thread in layer order, as the render thread does
+            for (int l = 0; l < layers; l++) {
+                CommandList.Reader r = lists[l].read();
+                int expected = draws - 1;
+                while (r.next()) {
+                    assertEquals(CommandList.DRAW_ARRAYS, r.getOpcode(), "only draws recorded");
+                    assertEquals(l, r.getInt(1), "draws stay in the list of their layer");
+                    assertEquals(expected--, r.getInt(2), "draws front to back within layer " + l);
+                }
+                assertEquals(-1, expected, "every draw of layer " + l + " replayed");
+            }
+        } finally {
+            jobs.release();
+        }
+    }
+
+    private static void testReset() {
+        CommandList list = CommandList.createCommandList("reset");
+        list.beginDraw(SortKey.opaque(0, 0, 0, 0));
+        list.callback(arg -> {
+        }, new Object());
+        list.endDraws();
+        assertThrows(IllegalStateException.class, () -> list.beginDraw(0), "no draw after endDraws");
+
+        list.reset();
+        assertEquals(0, list.getCommandCount(), "reset drops the commands");
+        assertEquals(0, list.getDrawCount(), "reset drops the draws");
+        assertFalse(list.read().next(), "a reset list replays nothing");
+        list.beginDraw(0);
+        list.drawArrays(0, 0, 3);
+        assertEquals(1, list.getDrawCount(), "a reset list records again");
+    }
+
+    //what the RenderManager would execute, callbacks are run
+    private static List<String> replay(CommandList list) {
+        List<String> log = new ArrayList<>();
+        CommandList.Reader r = list.read();
+        while (r.next()) {
+            int op = r.getOpcode();
+            if (op == CommandList.CALLBACK) {
+                ((CommandList.Callback) r.getRef(0)).call(r.getRef(1));
+                log.add("CALLBACK");
+            } else {
+                log.add(CommandList.getOpcodeName(op) + " " + r.getInt(0));
+            }
+        }
+        return log;
+    }
+}
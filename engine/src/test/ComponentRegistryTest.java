@@ -0,0 +1,68 @@
+package test;
+
+import static test.Assert.*;
+
+import game.Component;
+import game.ComponentRegistry;
+import game.GameObject;
+import game.Prefab;
+import game.TransformComponent;
+import java.util.Arrays;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * checks that only components attached below a registered root are
+ * registered, and that they leave the registry with their subtree
+ */
+public class ComponentRegistryTest {
+
+    public static void main(String[] args) {
+        ComponentRegistry registry = ComponentRegistry.createComponentRegistry();
+        GameObject root = new GameObject();
+
+        //a detached tree, as a prefab template, is never registered
+        GameObject template = new GameObject();
+        template.addChild(new GameObject());
+        template.addChild(new TransformComponent());
+        assertEquals(0, registry.count(Component.class), "a detached tree is not registered");
+        assertTrue(template.getRegistry() == null, "a detached tree has no registry");
+
+        registry.addRoot(root);
+        assertEquals(1, registry.count(Component.class), "the root is registered");
+
+        //attaching a built tree registers all of it
+        root.addChild(template);
+        assertEquals(4, registry.count(Component.class), "an attached subtree is registered");
+        assertEquals(1, registry.count(TransformComponent.class), "queries by class");
+        assertEquals(4, registry.count(Object.class), "queries by supertype");
+
+        //a child added below an attached component is registered
+        GameObject leaf = new GameObject();
+        template.getChild(GameObject.class).addChild(leaf);
+        assertTrue(leaf.getRegistry() == registry, "a grandchild sees the registry");
+        assertEquals(5, registry.count(Component.class), "a grandchild is registered");
+
+        GameObject a = new GameObject();
+        GameObject b = new GameObject();
+        a.addChild(new GameObject());
+        root.addChildren(Arrays.asList(a, b));
+        assertEquals(8, registry.count(Component.class), "batched children are registered with their subtrees");
+
+        //releasing takes the whole subtree out
+        template.release();
+        assertEquals(4, registry.count(Component.class), "a released subtree is unregistered");
+        assertTrue(leaf.getRegistry() == null, "released descendants lose the registry");
+
+        registry.removeRoot(root);
+        assertEquals(0, registry.count(Component.class), "removing the root empties the registry");
+
+        Prefab prefab = Prefab.capture("test", a);
+        Component copy = prefab.instantiate();
+        assertEquals(0, registry.count(Component.class), "prefab copies outside the tree stay unregistered");
+        assertTrue(copy.getRegistry() == null, "prefab copies have no registry");
+
+        System.out.println("ComponentRegistryTest passed");
+    }
+}
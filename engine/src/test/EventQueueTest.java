@@ -0,0 +1,81 @@
+package test;
+
+import static test.Assert.*;
+
+import event.Event;
+import event.EventQueue;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * checks that an EventQueue hands events out once and in order, even when a
+ * handler throws
+ */
+public class EventQueueTest {
+
+    private static final int TYPE = 1;
+
+    public static void main(String[] args) {
+        testOrder();
+        testThrowingHandler();
+        testOverflow();
+        System.out.println("EventQueueTest passed");
+    }
+
+    private static void testOrder() {
+        EventQueue queue = new EventQueue("order", 8);
+        List<Long> seen = new ArrayList<>();
+        queue.addHandler(TYPE, e -> seen.add(e.getValue()));
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 8; i++) {
+                queue.publish(TYPE, null, round * 8 + i, null);
+            }
+            assertEquals(8, queue.drain(), "a full ring drained");
+        }
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals(i, (long) seen.get(i), "events handled in order");
+        }
+        assertEquals(24, seen.size(), "every event handled");
+    }
+
+    private static void testThrowingHandler() {
+        EventQueue queue = new EventQueue("throwing", 4);
+        List<Long> seen = new ArrayList<>();
+        queue.addHandler(TYPE, e -> {
+            if (e.getValue() == 1) {
+                throw new IllegalStateException("handler failed");
+            }
+        });
+        queue.addHandler(TYPE, e -> seen.add(e.getValue()));
+        queue.publish(TYPE, null, 0, null);
+        queue.publish(TYPE, null, 1, null);
+        queue.publish(TYPE, null, 2, null);
+
+        assertEquals(3, queue.drain(), "the failing event is consumed");
+        assertEquals(0, queue.getPending(), "nothing left pending");
+        assertEquals(3, seen.size(), "later handlers still run");
+        assertEquals(0, queue.drain(), "the failing event is not handed out again");
+
+        //the ring keeps working after wrapping past the failed slot
+        for (int i = 0; i < 4; i++) {
+            queue.publish(TYPE, null, 10 + i, null);
+        }
+        assertEquals(4, queue.drain(), "the ring refills after a failure");
+        assertEquals(7, seen.size(), "events after the failure handled");
+    }
+
+    private static void testOverflow() {
+        EventQueue queue = new EventQueue("overflow", 2);
+        assertTrue(queue.offer(TYPE, null, 0, null), "first offer fits");
+        assertTrue(queue.offer(TYPE, null, 1, null), "second offer fits");
+        assertFalse(queue.offer(TYPE, null, 2, null), "a full ring rejects an offer");
+        assertEquals(1, queue.getOverflowCount(), "the rejected offer counted");
+        Event e = queue.get(0);
+        assertEquals(0, e.getValue(), "the first slot holds the first event");
+        assertEquals(2, queue.drain(), "both events drained");
+        assertThrows(IllegalArgumentException.class, () -> new EventQueue("bad", 3), "capacity must be a power of two");
+    }
+}
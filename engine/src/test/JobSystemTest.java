@@ -0,0 +1,87 @@
+package test;
+
+import static test.Assert.*;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import job.Job;
+import job.JobSystem;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * checks that jobs run to completion and that waiters learn of failures
+ */
+public class JobSystemTest {
+
+    public static void main(String[] args) {
+        JobSystem jobs = new JobSystem(3);
+        jobs.initialize();
+        try {
+            testParallelFor(jobs);
+            testFailure(jobs);
+            testChildFailure(jobs);
+        } finally {
+            jobs.release();
+        }
+        System.out.println("JobSystemTest passed");
+    }
+
+    private static void testParallelFor(JobSystem jobs) {
+        AtomicLong sum = new AtomicLong();
+        Job job = jobs.parallelFor(0, 10000, 7, (from, to) -> {
+            long s = 0;
+            for (int i = from; i < to; i++) {
+                s += i;
+            }
+            sum.addAndGet(s);
+        });
+        jobs.waitFor(job);
+        assertTrue(job.isFinished(), "the job finished");
+        assertEquals(10000L * 9999 / 2, sum.get(), "every range ran once");
+        assertTrue(job.getFailure() == null, "no failure recorded");
+        assertThrows(IllegalArgumentException.class, () -> jobs.parallelFor(0, 1, 0, (from, to) -> {
+        }), "grain must be positive");
+    }
+
+    private static void testFailure(JobSystem jobs) {
+        AtomicInteger ran = new AtomicInteger();
+        Job job = jobs.parallelFor(0, 100, 1, (from, to) -> {
+            ran.incrementAndGet();
+            if (from == 42) {
+                throw new IllegalStateException("range 42 failed");
+            }
+        });
+        try {
+            jobs.waitFor(job);
+            throw new AssertionError("waitFor rethrows a failed child");
+        } catch (CompletionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException, "the cause is the task exception");
+            assertEquals("range 42 failed", ex.getCause().getMessage(), "the failure of the child is kept");
+        }
+        assertTrue(job.isFinished(), "a failed job still finishes");
+        assertEquals(100, ran.get(), "the other ranges still ran");
+
+        //the workers keep running jobs after a failure
+        Job after = jobs.submit(ran::incrementAndGet);
+        jobs.waitFor(after);
+        assertEquals(101, ran.get(), "jobs run after a failure");
+    }
+
+    private static void testChildFailure(JobSystem jobs) {
+        Job root = jobs.createJob(null);
+        Job child = jobs.createJob(() -> {
+            throw new UnsupportedOperationException("child failed");
+        }, root);
+        Job sibling = jobs.createJob(() -> {
+        }, root);
+        jobs.run(child);
+        jobs.run(sibling);
+        jobs.run(root);
+        assertThrows(CompletionException.class, () -> jobs.waitFor(root), "a failed child fails its parent");
+        assertTrue(root.getFailure() instanceof UnsupportedOperationException, "the parent keeps the child failure");
+        assertTrue(sibling.getFailure() == null, "siblings do not share the failure");
+    }
+}
@@ -0,0 +1,116 @@
+package test;
+
+import static test.Assert.*;
+
+import geometry.Bounds;
+import geometry.Frustum;
+import geometry.LooseOctree;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.joml.Matrix4f;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * checks a loose octree against brute force tests of every item, and that
+ * a query of a small part of a large scene visits only part of the tree
+ */
+public class LooseOctreeTest {
+
+    private static final float WORLD = 1000;
+
+    public static void main(String[] args) {
+        Random rand = new Random(8);
+        LooseOctree<Integer> tree = LooseOctree.createLooseOctree(WORLD);
+        int n = 5000;
+        Bounds[] bounds = new Bounds[n];
+        List<LooseOctree.Entry<Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            bounds[i] = randomBounds(rand);
+            entries.add(tree.insert(i, bounds[i]));
+        }
+        assertEquals(n, tree.size(), "every item inserted");
+        assertTrue(tree.getNodeCount() > 1, "items were pushed below the root");
+
+        Frustum frustum = new Frustum().set(new Matrix4f()
+                .perspective((float) Math.toRadians(60), 1, 1, 200)
+                .lookAt(0, 0, 0, 0, 0, -1, 0, 1, 0));
+        checkFrustum(tree, frustum, bounds);
+        int visited = tree.getNodesVisited();
+        assertTrue(visited < tree.getNodeCount() / 2,
+                "a small frustum visits part of the tree, " + visited + " of " + tree.getNodeCount());
+        assertTrue(tree.getEntriesTested() < n / 4,
+                "a small frustum tests part of the items, " + tree.getEntriesTested() + " of " + n);
+        checkSphere(tree, 100, -50, 20, 80, bounds);
+
+        //move half the items elsewhere, including outside the root cell
+        for (int i = 0; i < n; i += 2) {
+            bounds[i] = i % 10 == 0 ? new Bounds().set(3000, 0, 0, 3001, 1, 1) : randomBounds(rand);
+            tree.move(entries.get(i), bounds[i]);
+        }
+        assertEquals(n, tree.size(), "moving keeps the count");
+        Bounds read = new Bounds();
+        entries.get(10).getBounds(read);
+        assertEquals(3000f, read.getMinX(), "an entry reports its moved bounds");
+        assertEquals(0, entries.get(10).getDepth(), "an item outside the root cell stays in the root");
+        checkFrustum(tree, frustum, bounds);
+        checkSphere(tree, 3000, 0, 0, 5, bounds);
+
+        //remove every third item, removed items are never visited again
+        for (int i = 0; i < n; i += 3) {
+            tree.remove(entries.get(i));
+            bounds[i] = null;
+        }
+        tree.remove(entries.get(0));
+        assertEquals(n - (n + 2) / 3, tree.size(), "removing drops the count once per item");
+        checkFrustum(tree, frustum, bounds);
+        checkSphere(tree, 0, 0, 0, 300, bounds);
+
+        for (int i = 0; i < n; i++) {
+            tree.remove(entries.get(i));
+        }
+        assertEquals(0, tree.size(), "the tree is empty");
+        assertEquals(1, tree.getNodeCount(), "empty nodes are pruned back to the root");
+
+        System.out.println("LooseOctreeTest passed");
+    }
+
+    private static Bounds randomBounds(Random rand) {
+        float x = (rand.nextFloat() * 2 - 1) * WORLD;
+        float y = (rand.nextFloat() * 2 - 1) * WORLD;
+        float z = (rand.nextFloat() * 2 - 1) * WORLD;
+        float s = 0.5f + rand.nextFloat() * (rand.nextInt(20) == 0 ? 100 : 5);
+        return new Bounds().set(x - s, y - s, z - s, x + s, y + s, z + s);
+    }
+
+    private static void checkFrustum(LooseOctree<Integer> tree, Frustum frustum, Bounds[] bounds) {
+        Set<Integer> found = new HashSet<>();
+        tree.query(frustum, i -> assertTrue(found.add(i), "item " + i + " visited once"));
+        for (int i = 0; i < bounds.length; i++) {
+            boolean expected = bounds[i] != null && frustum.intersects(bounds[i]);
+            assertEquals(expected, found.contains(i), "frustum query agrees on item " + i);
+        }
+        assertTrue(!found.isEmpty(), "the frustum holds some items");
+    }
+
+    private static void checkSphere(LooseOctree<Integer> tree, float x, float y, float z, float r, Bounds[] bounds) {
+        Set<Integer> found = new HashSet<>();
+        tree.query(x, y, z, r, i -> assertTrue(found.add(i), "item " + i + " visited once"));
+        for (int i = 0; i < bounds.length; i++) {
+            Bounds b = bounds[i];
+            boolean expected = false;
+            if (b != null) {
+                float dx = Math.max(0, Math.max(b.getMinX() - x, x - b.getMaxX()));
+                float dy = Math.max(0, Math.max(b.getMinY() - y, y - b.getMaxY()));
+                float dz = Math.max(0, Math.max(b.getMinZ() - z, z - b.getMaxZ()));
+                expected = dx * dx + dy * dy + dz * dz <= r * r;
+            }
+            assertEquals(expected, found.contains(i), "sphere query agrees on item " + i);
+        }
+        assertTrue(!found.isEmpty(), "the sphere holds some items");
+    }
+}
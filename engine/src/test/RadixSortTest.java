@@ -0,0 +1,136 @@
+package test;
+
+import static test.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import util.RadixSort;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * checks the radix sort against a stable unsigned sort of the same keys
+ */
+public class RadixSortTest {
+
+    public static void main(String[] args) {
+        testEmpty();
+        testEveryBit();
+        testRandom();
+        testStable();
+        testRange();
+        System.out.println("RadixSortTest passed");
+    }
+
+    private static void testEmpty() {
+        RadixSort sort = new RadixSort();
+        long[] keys = {};
+        int[] values = {};
+        sort.sort(keys, values, 0);
+        assertEquals(0, keys.length, "an empty array is left empty");
+
+        long[] one = {42};
+        int[] oneValue = {7};
+        sort.sort(one, oneValue, 1);
+        assertEquals(42, one[0], "a single key is left alone");
+        assertEquals(7, oneValue[0], "a single value is left alone");
+
+        long[] unsorted = {3, 2, 1};
+        sort.sort(unsorted, new int[3], 1, 1);
+        assertTrue(Arrays.equals(unsorted, new long[]{3, 2, 1}), "an empty range changes nothing");
+    }
+
+    //a key with each single bit set, so every byte pass must order them
+    private static void testEveryBit() {
+        int n = Long.SIZE + 1;
+        long[] keys = new long[n];
+        int[] values = new int[n];
+        for (int b = 0; b < Long.SIZE; b++) {
+            keys[b] = 1L << b;
+        }
+        keys[Long.SIZE] = 0;
+        shuffle(keys, new Random(64));
+        long[] original = keys.clone();
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        new RadixSort().sort(keys, values, n);
+
+        assertEquals(0, keys[0], "zero sorts first");
+        for (int b = 0; b < Long.SIZE; b++) {
+            assertEquals(1L << b, keys[b + 1], "bit " + b + " in place");
+            assertEquals(1L << b, original[values[b + 1]], "value of bit " + b + " moved with its key");
+        }
+        assertEquals(Long.MIN_VALUE, keys[n - 1], "the top bit sorts as unsigned, last");
+    }
+
+    private static void shuffle(long[] keys, Random rand) {
+        for (int i = keys.length - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            long t = keys[i];
+            keys[i] = keys[j];
+            keys[j] = t;
+        }
+    }
+
+    private static void testRandom() {
+        Random rand = new Random(12);
+        RadixSort sort = new RadixSort();
+        //shrinking sizes reuse the scratch arrays of larger ones
+        for (int n : new int[]{5000, 2, 100, 3}) {
+            long[] keys = new long[n];
+            int[] values = new int[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = rand.nextLong();
+                values[i] = i;
+            }
+            long[] original = keys.clone();
+            long[] expected = sortedUnsigned(keys);
+
+            sort.sort(keys, values, n);
+            assertTrue(Arrays.equals(keys, expected), "random keys sorted as unsigned, n " + n);
+            for (int i = 0; i < n; i++) {
+                assertEquals(keys[i], original[values[i]], "values follow their keys, n " + n);
+            }
+        }
+    }
+
+    private static void testStable() {
+        Random rand = new Random(5);
+        int n = 4000;
+        long[] keys = new long[n];
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            //few distinct keys spread over all bytes, some with the top bit set
+            keys[i] = rand.nextInt(16) * 0x1111111111111111L;
+            values[i] = i;
+        }
+        long[] expected = sortedUnsigned(keys);
+        new RadixSort().sort(keys, values, n);
+        assertTrue(Arrays.equals(keys, expected), "repeated keys sorted");
+        for (int i = 1; i < n; i++) {
+            assertTrue(keys[i] != keys[i - 1] || values[i] > values[i - 1], "equal keys keep their order at " + i);
+        }
+    }
+
+    private static void testRange() {
+        long[] keys = {9, 8, 7, 3, 1, 2, 0};
+        int[] values = {0, 1, 2, 3, 4, 5, 6};
+        new RadixSort().sort(keys, values, 2, 6);
+        assertTrue(Arrays.equals(keys, new long[]{9, 8, 1, 2, 3, 7, 0}), "only the range is sorted");
+        assertTrue(Arrays.equals(values, new int[]{0, 1, 4, 5, 3, 2, 6}), "values follow their keys");
+    }
+
+    private static long[] sortedUnsigned(long[] keys) {
+        long[] sorted = keys.clone();
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] ^= Long.MIN_VALUE;
+        }
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] ^= Long.MIN_VALUE;
+        }
+        return sorted;
+    }
+}
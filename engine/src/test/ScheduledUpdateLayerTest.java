@@ -0,0 +1,99 @@
+package test;
+
+import static test.Assert.*;
+
+import update.ManualClock;
+import update.ScheduledUpdateLayer;
+import update.UpdateImportance;
+import update.UpdateLayer;
+import update.UpdateManager;
+import update.Updateable;
+import util.ZIndexSet;
+import util.ZIndexSetBatched;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * checks that a ScheduledUpdateLayer defers unimportant updates by real time
+ * even while a ManualClock keeps simulated time still within each tick
+ */
+public class ScheduledUpdateLayerTest {
+
+    public static void main(String[] args) {
+        testDeferredWithoutBudget();
+        testRealTimeBudget();
+        System.out.println("ScheduledUpdateLayerTest passed");
+    }
+
+    private static void testDeferredWithoutBudget() {
+        UpdateManager manager = new UpdateManager(new ManualClock(false));
+        ScheduledUpdateLayer layer = new ScheduledUpdateLayer(createSet(), UpdateImportance.DECLARED, 0, 100);
+        manager.addUpdateLayer(layer, 0);
+        Counter full = new Counter(1, 0);
+        Counter low = new Counter(0.5f, 0);
+        layer.addUpdateable(full, 0);
+        layer.addUpdateable(low, 0);
+
+        manager.step(1);
+        assertEquals(1, full.updates, "full rate updates every frame");
+        assertEquals(0, low.updates, "no budget defers the rest");
+        assertEquals(1, layer.getLastDeferred(), "the deferral is reported");
+
+        //maxDelay forces the update with all the time it waited
+        int ticks = 1;
+        while (low.updates == 0) {
+            manager.step(1);
+            ticks++;
+        }
+        assertEquals(ticks, full.updates, "full rate kept updating");
+        assertTrue(low.lastDelta >= 100, "the deferred update is passed the time waited");
+    }
+
+    private static void testRealTimeBudget() {
+        UpdateManager manager = new UpdateManager(new ManualClock(false));
+        ScheduledUpdateLayer layer = new ScheduledUpdateLayer(createSet(), UpdateImportance.DECLARED, 5, 100000);
+        manager.addUpdateLayer(layer, 0);
+        //each costs 2 milliseconds of real time and none of simulated time
+        int count = 20;
+        for (int i = 0; i < count; i++) {
+            layer.addUpdateable(new Counter(0.5f, 2), 0);
+        }
+        manager.step(1);
+        int updated = layer.getLastUpdated();
+        assertTrue(updated >= 1 && updated < count, "the budget ran out under a still clock, updated " + updated);
+        assertEquals(count - updated, layer.getLastDeferred(), "the rest deferred");
+    }
+
+    private static ZIndexSet<Updateable> createSet() {
+        return ZIndexSetBatched.<Updateable>createBatchedSet();
+    }
+
+    private static class Counter implements Updateable {
+
+        private final float importance;
+        private final long spinNanos;
+        private int updates;
+        private int lastDelta;
+
+        private Counter(float importance, long spinMillis) {
+            this.importance = importance;
+            this.spinNanos = spinMillis * 1000000;
+        }
+
+        @Override
+        public void update(int delta, UpdateLayer layer) {
+            updates++;
+            lastDelta = delta;
+            long end = System.nanoTime() + spinNanos;
+            while (System.nanoTime() < end) {
+                Thread.yield();
+            }
+        }
+
+        @Override
+        public float getUpdateImportance() {
+            return importance;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package test;
+
+import static test.Assert.*;
+
+import graphics.CommandList;
+import graphics.SortKey;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * checks the bit layout of sort keys and their ordering within the ranks of
+ * a command list, the radix sort itself is checked by RadixSortTest
+ */
+public class SortKeyTest {
+
+    public static void main(String[] args) {
+        testLayout();
+        testKeys();
+        testRanks();
+        System.out.println("SortKeyTest passed");
+    }
+
+    //fields sit at fixed bits and never overlap
+    private static void testLayout() {
+        int m = SortKey.STATE_MASK;
+        int d = SortKey.DEPTH_MASK;
+        assertEquals(63, 3 * SortKey.STATE_BITS + SortKey.DEPTH_BITS, "fields fill all bits below the flag");
+        assertEquals((long) m << 51, SortKey.opaque(m, 0, 0, 0), "opaque shader at bit 51");
+        assertEquals((long) m << 39, SortKey.opaque(0, m, 0, 0), "opaque material at bit 39");
+        assertEquals((long) m << 27, SortKey.opaque(0, 0, m, 0), "opaque vao at bit 27");
+        assertEquals(d, SortKey.opaque(0, 0, 0, d), "opaque depth in the low bits");
+        assertEquals(Long.MAX_VALUE, SortKey.opaque(m, m, m, d), "opaque fields fill 63 bits");
+        assertEquals(0, SortKey.opaque(-1 & ~m, -1 & ~m, -1 & ~m, -1 & ~d), "opaque fields are masked");
+
+        assertEquals(Long.MIN_VALUE, SortKey.translucent(0, 0, 0, d), "translucent flag at bit 63");
+        assertEquals(Long.MIN_VALUE | (long) d << 36, SortKey.translucent(0, 0, 0, 0), "translucent depth inverted at bit 36");
+        assertEquals(Long.MIN_VALUE | (long) m << 24, SortKey.translucent(m, 0, 0, d), "translucent shader at bit 24");
+        assertEquals(Long.MIN_VALUE | (long) m << 12, SortKey.translucent(0, m, 0, d), "translucent material at bit 12");
+        assertEquals(Long.MIN_VALUE | m, SortKey.translucent(0, 0, m, d), "translucent vao in the low bits");
+        assertEquals(-1L, SortKey.translucent(m, m, m, 0), "translucent fields fill every bit");
+    }
+
+    private static void testKeys() {
+        long near = SortKey.opaque(3, 4, 5, 10);
+        long far = SortKey.opaque(3, 4, 5, 1000);
+        long otherShader = SortKey.opaque(2, 4, 5, 1000);
+        assertTrue(Long.compareUnsigned(near, far) < 0, "opaque draws front to back");
+        assertTrue(Long.compareUnsigned(otherShader, near) < 0, "opaque draws grouped by shader first");
+
+        long backT = SortKey.translucent(1, 1, 1, 1000);
+        long frontT = SortKey.translucent(1, 1, 1, 10);
+        assertTrue(Long.compareUnsigned(backT, frontT) < 0, "translucent draws back to front");
+        assertTrue(Long.compareUnsigned(far, frontT) < 0, "translucent draws follow opaque ones");
+
+        assertTrue(SortKey.getShader(far) == 3 && SortKey.getMaterial(far) == 4
+                && SortKey.getVAO(far) == 5 && SortKey.getDepth(far) == 1000, "opaque fields read back");
+        assertTrue(SortKey.isTranslucent(frontT) && SortKey.getDepth(frontT) == 10, "translucent fields read back");
+
+        assertTrue(SortKey.quantizeDepth(-1, 0, 1) == 0, "depth clamped at near");
+        assertTrue(SortKey.quantizeDepth(2, 0, 1) == SortKey.DEPTH_MASK, "depth clamped at far");
+    }
+
+    private static void testRanks() {
+        CommandList list = CommandList.createCommandList("test");
+        //more ranks than would fit in any fixed width of the key
+        int ranks = 1000;
+        for (int rank = 0; rank < ranks; rank++) {
+            list.setRank(rank);
+            list.beginDraw(SortKey.translucent(0, 0, 0, 0));
+            list.drawArrays(0, rank, 1);
+            list.beginDraw(SortKey.opaque(0, 0, 0, 0));
+            list.drawArrays(0, rank, 2);
+        }
+        list.endDraws();
+        list.sort();
+
+        CommandList.Reader r = list.read();
+        int draws = 0;
+        while (r.next()) {
+            if (r.getOpcode() == CommandList.DRAW_ARRAYS) {
+                //the opaque draw of each rank moves ahead of its translucent draw
+                assertTrue(r.getInt(1) == draws / 2, "draws stay within their rank");
+                assertTrue(r.getInt(2) == (draws % 2 == 0 ? 2 : 1), "draws sorted within their rank");
+                draws++;
+            }
+        }
+        assertTrue(draws == 2 * ranks, "every draw replayed");
+
+        assertThrows(IllegalStateException.class, () -> list.setRank(0), "ranks recorded out of order are rejected");
+    }
+}
@@ -0,0 +1,113 @@
+package test;
+
+import static test.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import update.TimerWheel;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * checks that timers placed on every level of a TimerWheel cascade down and
+ * run exactly at their deadline, however the wheel is advanced
+ */
+public class TimerWheelTest {
+
+    //around the boundaries of the first four levels
+    private static final long[] DELAYS = {
+        0, 1, 2, 63, 64, 65, 127, 128, 4095, 4096, 4097, 4160,
+        262143, 262144, 262145, 300001
+    };
+
+    public static void main(String[] args) {
+        testCascade(1);
+        testCascade(17);
+        testCascade(1000000);
+        testOffsetStart();
+        testRepeating();
+        testCancel();
+        System.out.println("TimerWheelTest passed");
+    }
+
+    private static void testCascade(long step) {
+        TimerWheel wheel = new TimerWheel();
+        List<long[]> runs = new ArrayList<>();
+        for (long delay : DELAYS) {
+            TimerWheel.Timer t = wheel.schedule(args -> runs.add(new long[]{delay, wheel.getTime()}), delay);
+            //timers due now run in the next millisecond
+            assertEquals(Math.max(delay, 0), t.getDeadline(), "deadline");
+        }
+        assertEquals(DELAYS.length, wheel.getPending(), "all pending");
+        for (long now = 0; now < 310000; now += step) {
+            wheel.advanceTo(now);
+        }
+        wheel.advanceTo(310000);
+        assertEquals(DELAYS.length, runs.size(), "every timer ran once");
+        for (int i = 0; i < runs.size(); i++) {
+            long delay = runs.get(i)[0];
+            assertEquals(Math.max(delay, 1), runs.get(i)[1], "delay " + delay + " ran on time, step " + step);
+            if (i > 0) {
+                assertTrue(runs.get(i - 1)[1] <= runs.get(i)[1], "run in order of deadline");
+            }
+        }
+        assertEquals(0, wheel.getPending(), "nothing pending");
+    }
+
+    private static void testOffsetStart() {
+        //a start off the slot boundaries cascades at different times
+        TimerWheel wheel = new TimerWheel(4100);
+        List<Long> runs = new ArrayList<>();
+        for (long delay : DELAYS) {
+            wheel.schedule(args -> runs.add(wheel.getTime() - 4100), delay);
+        }
+        wheel.advanceTo(4100 + 310000);
+        assertEquals(DELAYS.length, runs.size(), "every timer ran once");
+        for (int i = 0; i < DELAYS.length; i++) {
+            assertEquals(Math.max(DELAYS[i], 1), (long) runs.get(i), "ran on time from an offset start");
+        }
+    }
+
+    private static void testRepeating() {
+        TimerWheel wheel = new TimerWheel();
+        List<Long> runs = new ArrayList<>();
+        wheel.scheduleRepeating(args -> runs.add(wheel.getTime()), 50, 4000);
+        wheel.advanceTo(50 + 4000 * 20);
+        assertEquals(21, runs.size(), "every period ran");
+        for (int i = 0; i < runs.size(); i++) {
+            assertEquals(50 + 4000L * i, (long) runs.get(i), "period " + i + " on time across levels");
+        }
+        assertEquals(1, wheel.getPending(), "still scheduled");
+        assertThrows(IllegalArgumentException.class, () -> wheel.scheduleRepeating(args -> {
+        }, 0, 0), "period must be positive");
+    }
+
+    private static void testCancel() {
+        TimerWheel wheel = new TimerWheel();
+        List<String> runs = new ArrayList<>();
+        TimerWheel.Timer far = wheel.schedule(args -> runs.add("far"), 5000);
+        TimerWheel.Timer[] later = new TimerWheel.Timer[1];
+        //an action cancelling a timer due in the same millisecond stops it
+        wheel.schedule(args -> {
+            runs.add("first");
+            later[0].cancel();
+        }, 10);
+        later[0] = wheel.schedule(args -> runs.add("later"), 10);
+        assertTrue(far.cancel(), "cancelled while pending");
+        assertFalse(far.cancel(), "cancelled only once");
+        wheel.advanceTo(6000);
+        assertEquals(1, runs.size(), "only the uncancelled timer ran");
+        assertEquals("first", runs.get(0), "the first timer ran");
+        assertTrue(later[0].isCancelled(), "cancelled by an action");
+
+        //a throwing action does not stop the others
+        wheel.schedule(args -> {
+            throw new IllegalStateException("test");
+        }, 1);
+        wheel.schedule(args -> runs.add("after"), 1);
+        wheel.advanceTo(6010);
+        assertEquals("after", runs.get(runs.size() - 1), "ran after a throwing action");
+        assertEquals(0, wheel.getPending(), "nothing pending");
+    }
+}
@@ -0,0 +1,108 @@
+package test;
+
+import static test.Assert.*;
+
+import geometry.SnapshotTransform;
+import geometry.Transform;
+import geometry.TransformSnapshots;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * checks that a SnapshotTransform blends the last two published ticks by the
+ * alpha sampled on acquire
+ */
+public class TransformSnapshotsTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    public static void main(String[] args) {
+        testNoAlphaSource();
+        testBlend();
+        testFreshSlot();
+        testOrientation();
+        System.out.println("TransformSnapshotsTest passed");
+    }
+
+    private static void testNoAlphaSource() {
+        TransformSnapshots snapshots = new TransformSnapshots(4);
+        Transform t = new Transform(new Vector3f(0, 0, 0));
+        SnapshotTransform s = snapshots.register(t);
+        snapshots.publish();
+        t.setPosition(new Vector3f(10, 0, 0));
+        snapshots.publish();
+        snapshots.acquire();
+        assertEquals(1f, snapshots.getAcquiredAlpha(), "no source reads the acquired tick");
+        assertNear(10, s.getPosition(new Vector3f()).x, "current position");
+    }
+
+    private static void testBlend() {
+        TransformSnapshots snapshots = new TransformSnapshots(4);
+        snapshots.setAlphaSource(() -> 0.25);
+        Transform t = new Transform(new Vector3f(0, 0, 0));
+        SnapshotTransform s = snapshots.register(t);
+        snapshots.publish();
+        t.setPosition(new Vector3f(8, -4, 0));
+        t.setScale(new Vector3f(3, 3, 3));
+        snapshots.publish();
+        snapshots.acquire();
+
+        Vector3f p = s.getPosition(new Vector3f());
+        assertNear(2, p.x, "position x blended");
+        assertNear(-1, p.y, "position y blended");
+        assertNear(1.5f, s.getScale(new Vector3f()).x, "scale blended");
+        Matrix4f m = s.getTransformationMatrix(new Matrix4f());
+        assertNear(2, m.m30, "matrix translation blended");
+        assertNear(1.5f, m.m00, "matrix scale blended");
+
+        snapshots.setAlphaSource(() -> 2);
+        snapshots.acquire();
+        assertEquals(1f, snapshots.getAcquiredAlpha(), "alpha clamped");
+        assertNear(8, s.getPosition(p).x, "alpha one reads the current tick");
+    }
+
+    private static void testFreshSlot() {
+        TransformSnapshots snapshots = new TransformSnapshots(4);
+        snapshots.setAlphaSource(() -> 0);
+        Transform first = new Transform(new Vector3f(5, 5, 5));
+        SnapshotTransform s = snapshots.register(first);
+        snapshots.publish();
+        snapshots.acquire();
+        assertNear(5, s.getPosition(new Vector3f()).x, "a new slot does not blend from zero");
+
+        //a reused slot does not blend from its last owner either
+        s.release();
+        Transform second = new Transform(new Vector3f(-7, 0, 0));
+        SnapshotTransform r = snapshots.register(second);
+        snapshots.publish();
+        snapshots.acquire();
+        assertNear(-7, r.getPosition(new Vector3f()).x, "a reused slot starts at its owner");
+    }
+
+    private static void testOrientation() {
+        TransformSnapshots snapshots = new TransformSnapshots(4);
+        snapshots.setAlphaSource(() -> 0.5);
+        Transform t = new Transform(new Vector3f(), new Quaternionf());
+        SnapshotTransform s = snapshots.register(t);
+        snapshots.publish();
+        //the same rotation with a flipped sign blends along the short arc
+        Quaternionf q = new Quaternionf().rotateY((float) Math.PI / 2);
+        t.setOrientation(new Quaternionf(-q.x, -q.y, -q.z, -q.w));
+        snapshots.publish();
+        snapshots.acquire();
+
+        Quaternionf blended = s.getOrientation(new Quaternionf());
+        Quaternionf expected = new Quaternionf().rotateY((float) Math.PI / 4);
+        float dot = Math.abs(blended.x * expected.x + blended.y * expected.y
+                + blended.z * expected.z + blended.w * expected.w);
+        assertNear(1, dot, "orientation halfway along the short arc");
+    }
+
+    private static void assertNear(float expected, float actual, String message) {
+        assertTrue(Math.abs(expected - actual) < EPSILON, message + ": expected " + expected + " but was " + actual);
+    }
+}
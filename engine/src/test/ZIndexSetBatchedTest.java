@@ -0,0 +1,158 @@
+package test;
+
+import static test.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import util.ZIndexSetBatched;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * checks the ordering of a ZIndexSetBatched across commits, and that removed
+ * elements are compacted out of the committed array
+ */
+public class ZIndexSetBatchedTest {
+
+    public static void main(String[] args) {
+        testOrder();
+        testBuffered();
+        testReAdd();
+        testMove();
+        testCompaction();
+        testLowerBound();
+        System.out.println("ZIndexSetBatchedTest passed");
+    }
+
+    private static void testOrder() {
+        ZIndexSetBatched<String> set = ZIndexSetBatched.createBatchedSet();
+        set.add("c", 5);
+        set.add("a", 1);
+        set.add("d", 5);
+        set.add("b", 1);
+        set.commit();
+        assertOrder(set, "sorted by z-index, equal ones in insertion order", "a", "b", "c", "d");
+
+        //a later add goes after the committed elements of its z-index
+        set.add("e", 1);
+        set.add("f", -1);
+        set.commit();
+        assertOrder(set, "adds merged into place", "f", "a", "b", "e", "c", "d");
+    }
+
+    private static void testBuffered() {
+        ZIndexSetBatched<String> set = ZIndexSetBatched.createBatchedSet();
+        set.add("a", 0);
+        assertTrue(set.contains("a"), "contains sees a buffered add");
+        assertEquals(0, set.size(), "size waits for commit");
+        assertFalse(set.iterator().hasNext(), "iteration waits for commit");
+        set.commit();
+        set.remove("a");
+        assertFalse(set.contains("a"), "contains sees a buffered remove");
+        assertEquals(1, set.size(), "the removal waits for commit");
+        set.commit();
+        assertEquals(0, set.size(), "removed on commit");
+    }
+
+    private static void testReAdd() {
+        ZIndexSetBatched<String> set = ZIndexSetBatched.createBatchedSet();
+        set.add("a", 5);
+        set.add("b", 5);
+        set.add("c", 5);
+        set.commit();
+
+        assertFalse(set.add("a", 5), "adding at the same z-index is no change");
+        set.commit();
+        assertOrder(set, "re-add keeps its place", "a", "b", "c");
+
+        //moved away and back before a commit is no net change
+        set.add("a", 7);
+        set.add("a", 5);
+        set.commit();
+        assertOrder(set, "z7 then z5 keeps its place", "a", "b", "c");
+        assertEquals(5, set.getZIndex("a"), "z-index back to 5");
+
+        //so is a remove and re-add before a commit
+        set.remove("b");
+        set.add("b", 5);
+        set.commit();
+        assertOrder(set, "remove and re-add keeps its place", "a", "b", "c");
+
+        //a removal committed first places the element last
+        set.remove("a");
+        set.commit();
+        set.add("a", 5);
+        set.commit();
+        assertOrder(set, "re-added after a committed removal goes last", "b", "c", "a");
+    }
+
+    private static void testMove() {
+        ZIndexSetBatched<String> set = ZIndexSetBatched.createBatchedSet();
+        set.add("a", 1);
+        set.add("b", 2);
+        set.add("c", 2);
+        set.commit();
+
+        set.add("c", 1);
+        set.commit();
+        assertOrder(set, "moved last among its new z-index", "a", "c", "b");
+        assertEquals(1, set.getZIndex("c"), "new z-index");
+
+        set.add("a", 9);
+        set.add("a", 2);
+        set.commit();
+        assertOrder(set, "only the last move counts", "c", "b", "a");
+    }
+
+    private static void testCompaction() {
+        ZIndexSetBatched<Integer> set = ZIndexSetBatched.createBatchedSet();
+        for (int i = 0; i < 100; i++) {
+            set.add(i, i % 4);
+        }
+        set.commit();
+        for (int i = 0; i < 100; i += 2) {
+            set.remove(i);
+        }
+        assertEquals(50, set.getPendingCount(), "removals buffered");
+        set.commit();
+        assertEquals(0, set.getPendingCount(), "nothing pending after commit");
+        assertEquals(50, set.size(), "removed elements compacted");
+        assertEquals(50, set.toArray().length, "no gaps left in the array");
+        int lastZ = Integer.MIN_VALUE;
+        int last = -1;
+        for (Integer i : set) {
+            assertTrue(i % 2 == 1, "only the kept elements remain");
+            int z = set.getZIndex(i);
+            assertTrue(z > lastZ || (z == lastZ && i > last), "still sorted and stable");
+            lastZ = z;
+            last = i;
+        }
+
+        set.clear();
+        set.commit();
+        assertTrue(set.isEmpty(), "cleared");
+    }
+
+    private static void testLowerBound() {
+        ZIndexSetBatched<String> set = ZIndexSetBatched.createBatchedSet();
+        set.add("a", -3);
+        set.add("b", 0);
+        set.add("c", 0);
+        set.add("d", 4);
+        set.commit();
+        assertEquals(0, set.lowerBound(-10), "before every element");
+        assertEquals(1, set.lowerBound(0), "first of z-index 0");
+        assertEquals(3, set.lowerBound(1), "first above 0");
+        assertEquals(4, set.lowerBound(5), "past every element");
+    }
+
+    private static void assertOrder(ZIndexSetBatched<String> set, String message, String... expected) {
+        List<String> actual = new ArrayList<>();
+        for (String s : set) {
+            actual.add(s);
+        }
+        assertEquals(Arrays.asList(expected), actual, message);
+    }
+}
@@ -0,0 +1,42 @@
+package update;
+
+/**
+ *
+ * @author Andrew_2
+ * 
+ * A Clock running at a multiple of another clock
+ * A scale of 10 runs ten seconds of game time per second of the source
+ */
+public class AcceleratedClock implements Clock {
+
+    private final Clock source;
+    private final double scale;
+    private final long origin;
+    
+    public AcceleratedClock(Clock source, double scale) {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("Clock scale must be positive");
+        }
+        this.source = source;
+        this.scale = scale;
+        this.origin = source.nanoTime();
+    }
+    
+    @Override
+    public long nanoTime() {
+        return origin + (long) ((source.nanoTime() - origin) * scale);
+    }
+
+    @Override
+    public void waitUntil(long deadline) {
+        source.waitUntil(origin + (long) Math.ceil((deadline - origin) / scale));
+    }
+    
+    public double getScale() {
+        return scale;
+    }
+    
+    public Clock getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,21 @@
+package update;
+
+/**
+ *
+ * @author Andrew_2
+ * 
+ * A source of time for the update loop
+ * Time is measured in nanoseconds from an arbitrary origin
+ * 
+ * waitUntil may return before the deadline, callers should check the time again
+ */
+public interface Clock {
+    
+    public long nanoTime();
+    
+    public void waitUntil(long deadline);
+    
+    public default long milliTime() {
+        return nanoTime() / 1000000;
+    }
+}
@@ -0,0 +1,40 @@
+package update;
+
+import geometry.HasTransform;
+import org.joml.Vector3f;
+
+/**
+ *
+ * @author Andrew_2
+ * 
+ * Importance falling off with distance from a viewer, such as a Camera
+ * Updateables within fullRateDistance are updated every frame, beyond it
+ * importance is fullRateDistance / distance
+ * Updateables without a transform keep their declared importance
+ */
+public class DistanceImportance implements UpdateImportance {
+
+    private final HasTransform viewer;
+    private final float fullRateDistance;
+    private final Vector3f viewerPosition;
+    private final Vector3f position;
+    
+    public DistanceImportance(HasTransform viewer, float fullRateDistance) {
+        this.viewer = viewer;
+        this.fullRateDistance = fullRateDistance;
+        viewerPosition = new Vector3f();
+        position = new Vector3f();
+    }
+    
+    //called from the update thread only, the vectors are reused
+    @Override
+    public float getImportance(Updateable u) {
+        if (!(u instanceof HasTransform)) {
+            return u.getUpdateImportance();
+        }
+        viewer.getPosition(viewerPosition);
+        float distance = ((HasTransform) u).getPosition(position).distance(viewerPosition);
+        return distance <= fullRateDistance ? 1 : fullRateDistance / distance;
+    }
+    
+}
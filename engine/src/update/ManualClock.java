@@ -0,0 +1,61 @@
+package update;
+
+/**
+ *
+ * @author Andrew_2
+ * 
+ * A Clock that only moves when told to
+ * 
+ * Time is moved forward by calling advance, for example from a test driving
+ * the update loop one tick at a time
+ * With autoAdvance enabled waiting jumps straight to the deadline, so the
+ * update loop runs as many ticks as the machine can manage
+ */
+public class ManualClock implements Clock {
+
+    private long time;
+    private final boolean autoAdvance;
+    
+    //bound on a single wait so callers can notice a release
+    private static final long MAX_WAIT_MILLIS = 100;
+    
+    public ManualClock(boolean autoAdvance) {
+        this.autoAdvance = autoAdvance;
+    }
+    
+    @Override
+    public synchronized long nanoTime() {
+        return time;
+    }
+
+    @Override
+    public synchronized void waitUntil(long deadline) {
+        if (time - deadline >= 0) {
+            return;
+        }
+        if (autoAdvance) {
+            time = deadline;
+            notifyAll();
+        } else {
+            try {
+                wait(MAX_WAIT_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    public synchronized void advance(long nanos) {
+        time += nanos;
+        notifyAll();
+    }
+    
+    public synchronized void set(long nanos) {
+        time = nanos;
+        notifyAll();
+    }
+    
+    public boolean isAutoAdvance() {
+        return autoAdvance;
+    }
+}
@@ -0,0 +1,109 @@
+package update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * ParallelLayerExecutor updates a list of UpdateLayers concurrently on a work
+ * stealing pool
+ *
+ * Layers are given in z-index order. A layer waits only on earlier layers it
+ * conflicts with: one writes a resource the other reads or writes, or either
+ * is ordered. Conflicting layers therefore always run in z-index order and
+ * ordered layers run alone. Every layer has finished when execute returns.
+ * A layer that throws skips the layers depending on it for the frame, the
+ * failure is logged naming both and rethrown as with serial updates.
+ */
+public class ParallelLayerExecutor {
+
+    private final ForkJoinPool pool;
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelLayerExecutor.class);
+
+    public ParallelLayerExecutor(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void execute(List<UpdateLayer> layers, int delta) {
+        int n = layers.size();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[n];
+        //set by each layer that runs, read after the join
+        boolean[] started = new boolean[n];
+        List<CompletableFuture<?>> dependencies = new ArrayList<>();
+
+        for (int i = 0; i < n; i++) {
+            UpdateLayer layer = layers.get(i);
+            dependencies.clear();
+            for (int j = 0; j < i; j++) {
+                if (conflicts(layers.get(j), layer)) {
+                    dependencies.add(futures[j]);
+                }
+            }
+
+            int index = i;
+            Runnable task = () -> {
+                started[index] = true;
+                layer.update(delta);
+            };
+            if (dependencies.isEmpty()) {
+                futures[i] = CompletableFuture.runAsync(task, pool);
+            } else {
+                futures[i] = CompletableFuture
+                        .allOf(dependencies.toArray(new CompletableFuture<?>[dependencies.size()]))
+                        .thenRunAsync(task, pool);
+            }
+        }
+
+        //join the frame, every layer must finish before the next tick
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            List<String> failed = new ArrayList<>();
+            List<String> skipped = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (!started[i]) {
+                    skipped.add(layers.get(i).getName());
+                } else if (futures[i].isCompletedExceptionally()) {
+                    failed.add(layers.get(i).getName());
+                }
+            }
+            LOG.error("Layers {} failed, skipped dependent layers {}", failed, skipped);
+            throw e;
+        }
+    }
+
+    public static boolean conflicts(UpdateLayer a, UpdateLayer b) {
+        if (a.isOrdered() || b.isOrdered()) {
+            return true;
+        }
+        return intersects(a.getWrites(), b.getWrites())
+                || intersects(a.getWrites(), b.getReads())
+                || intersects(a.getReads(), b.getWrites());
+    }
+
+    private static boolean intersects(Set<String> a, Set<String> b) {
+        for (String s : a) {
+            if (b.contains(s)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public static ParallelLayerExecutor createParallelLayerExecutor() {
+        return new ParallelLayerExecutor(new ForkJoinPool(Runtime.getRuntime().availableProcessors()));
+    }
+}
@@ -0,0 +1,34 @@
+package update;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *
+ * @author Andrew_2
+ * 
+ * A Clock backed by System.nanoTime
+ * Waiting parks until shortly before the deadline and spins the remainder
+ */
+public class RealTimeClock implements Clock {
+
+    //below this many nanoseconds the clock spins instead of parking
+    private static final long SPIN_THRESHOLD_NANOS = 1000000;
+    
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,162 @@
+package update;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import util.ZIndexSet;
+import util.ZIndexSetBatched;
+
+/**
+ *
+ * @author Andrew_2
+ * 
+ * An UpdateLayer that spreads the updates of unimportant Updateables across
+ * frames
+ * 
+ * Updateables with importance of 1 or more are updated every frame, as is any
+ * Updateable that has waited longer than maxDelay. The rest are updated in
+ * order of importance times time waited until the frame budget is spent.
+ * The budget covers only these deferrable updates, timed from the end of the
+ * full rate pass. It limits real work per frame, so it is measured with
+ * System.nanoTime rather than the simulated time of the UpdateManager clock.
+ * Each update is passed the full time since that Updateable last updated.
+ */
+public class ScheduledUpdateLayer extends UpdateLayer {
+
+    private final Map<Updateable, Entry> entries;
+    private final List<Entry> candidates;
+    private volatile UpdateImportance importance;
+    private volatile long budgetNanos;
+    private volatile int maxDelay;
+    private long frame;
+    
+    private volatile int lastUpdated, lastDeferred;
+    
+    public static final float FULL_RATE_IMPORTANCE = 1;
+    public static final int DEFAULT_BUDGET_MILLIS = 4;
+    public static final int DEFAULT_MAX_DELAY = 1000;
+    
+    public ScheduledUpdateLayer(ZIndexSet<Updateable> updateables, UpdateImportance importance,
+            int budgetMillis, int maxDelay) {
+        super(updateables);
+        this.entries = new HashMap<>();
+        this.candidates = new ArrayList<>();
+        this.importance = importance;
+        this.budgetNanos = budgetMillis * 1000000L;
+        this.maxDelay = maxDelay;
+    }
+    
+    @Override
+    protected void updateUpdateables(int delta, UpdateProfiler profiler) {
+        frame++;
+        candidates.clear();
+        int updated = 0;
+        int seen = 0;
+        
+        Iterator<Updateable> updateableIterator = updateableIterator();
+        while (updateableIterator.hasNext()) {
+            Updateable u = updateableIterator.next();
+            Entry e = entries.get(u);
+            if (e == null) {
+                e = new Entry(u);
+                entries.put(u, e);
+            }
+            e.lastSeen = frame;
+            
+            if (u.isUpdatePendingRelease()) {
+                updateUpdateable(u, e.accumulated + delta, profiler);
+                entries.remove(u);
+                continue;
+            }
+            seen++;
+            if (!u.isUpdateEnabled()) {
+                //disabled time is not owed to the Updateable
+                e.accumulated = 0;
+            } else {
+                e.accumulated += delta;
+                float i = importance.getImportance(u);
+                if (i >= FULL_RATE_IMPORTANCE || e.accumulated >= maxDelay) {
+                    run(e, profiler);
+                    updated++;
+                } else {
+                    e.priority = i * e.accumulated;
+                    candidates.add(e);
+                }
+            }
+        }
+        
+        long start = System.nanoTime();
+        candidates.sort((a, b) -> Float.compare(b.priority, a.priority));
+        int deferred = candidates.size();
+        for (Entry e : candidates) {
+            if (System.nanoTime() - start >= budgetNanos) {
+                break;
+            }
+            run(e, profiler);
+            updated++;
+            deferred--;
+        }
+        
+        //forget Updateables that were removed from the layer
+        if (entries.size() > seen) {
+            entries.values().removeIf(e -> e.lastSeen != frame);
+        }
+        
+        lastUpdated = updated;
+        lastDeferred = deferred;
+    }
+    
+    private void run(Entry e, UpdateProfiler profiler) {
+        updateUpdateable(e.updateable, e.accumulated, profiler);
+        e.accumulated = 0;
+    }
+    
+    public void setImportance(UpdateImportance importance) {
+        this.importance = importance;
+    }
+    
+    public UpdateImportance getImportance() {
+        return importance;
+    }
+    
+    public void setBudgetMillis(int budgetMillis) {
+        this.budgetNanos = budgetMillis * 1000000L;
+    }
+    
+    public void setMaxDelay(int maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+    
+    public int getMaxDelay() {
+        return maxDelay;
+    }
+    
+    //Updateables updated in the last frame
+    public int getLastUpdated() {
+        return lastUpdated;
+    }
+    
+    //Updateables left waiting for a later frame in the last frame
+    public int getLastDeferred() {
+        return lastDeferred;
+    }
+    
+    public static ScheduledUpdateLayer createScheduledUpdateLayer(UpdateImportance importance) {
+        return new ScheduledUpdateLayer(ZIndexSetBatched.<Updateable>createBatchedSet(),
+                importance, DEFAULT_BUDGET_MILLIS, DEFAULT_MAX_DELAY);
+    }
+    
+    private static final class Entry {
+        
+        private final Updateable updateable;
+        private int accumulated;
+        private float priority;
+        private long lastSeen;
+        
+        private Entry(Updateable updateable) {
+            this.updateable = updateable;
+        }
+    }
+}
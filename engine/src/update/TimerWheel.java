@@ -0,0 +1,246 @@
+package update;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author Andrew_2
+ * 
+ * A hierarchical timing wheel of delayed and periodic Actions
+ * 
+ * Time is in whole milliseconds. Each level has 64 slots, a slot of level l
+ * spanning 64^l milliseconds, and a timer is placed in the lowest level whose
+ * range covers its delay. As time advances the slots of higher levels are
+ * moved down a level when reached, so only timers that are due or about to
+ * be are ever touched. Scheduling and cancelling are constant time.
+ * 
+ * The UpdateManager advances its wheel each tick by simulated time, so
+ * Actions run on the update thread. Due timers are taken from the wheel
+ * under its lock and run after releasing it, so an Action may schedule or
+ * cancel timers from any thread without holding up the others.
+ */
+public class TimerWheel {
+    
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+    //the furthest a timer can be placed, later timers are placed here and
+    //moved down again until due
+    private static final long MAX_DELAY = (1L << (BITS * LEVELS)) - 1;
+    
+    private static final Object[] NO_ARGS = new Object[0];
+    
+    //sentinel heads of circular lists, per level and slot
+    private final Timer[][] wheels;
+    //timers due this millisecond, taken off the wheel before they run, only
+    //touched by the thread advancing the wheel
+    private final List<Timer> due;
+    private long current;
+    private int pending;
+    
+    private static final Logger LOG = LoggerFactory.getLogger(TimerWheel.class);
+    
+    public TimerWheel() {
+        this(0);
+    }
+    
+    public TimerWheel(long start) {
+        current = start;
+        wheels = new Timer[LEVELS][SLOTS];
+        for (int l = 0; l < LEVELS; l++) {
+            for (int s = 0; s < SLOTS; s++) {
+                wheels[l][s] = createHead();
+            }
+        }
+        due = new ArrayList<>();
+    }
+    
+    private static Timer createHead() {
+        Timer head = new Timer(null, 0, 0);
+        head.next = head;
+        head.prev = head;
+        return head;
+    }
+    
+    //run action once after delay milliseconds
+    public synchronized Timer schedule(Action action, long delay) {
+        Timer t = new Timer(action, current + Math.max(delay, 0), 0);
+        insert(t);
+        pending++;
+        return t;
+    }
+    
+    //run action every period milliseconds, first after delay milliseconds
+    public synchronized Timer scheduleRepeating(Action action, long delay, long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        Timer t = new Timer(action, current + Math.max(delay, 0), period);
+        insert(t);
+        pending++;
+        return t;
+    }
+    
+    public synchronized boolean cancel(Timer t) {
+        if (t.wheel != this || t.next == null) {
+            t.cancelled = true;
+            return false;
+        }
+        unlink(t);
+        t.cancelled = true;
+        pending--;
+        return true;
+    }
+    
+    //advance to now, running every Action due in order of deadline
+    //must not be called concurrently with itself
+    public void advanceTo(long now) {
+        while (collectDue(now)) {
+            for (Timer t : due) {
+                //a timer cancelled by an earlier Action does not run
+                if (!t.cancelled) {
+                    try {
+                        t.action.act(NO_ARGS);
+                    } catch (Exception ex) {
+                        LOG.error("{}", ex);
+                    }
+                }
+            }
+            reschedule();
+        }
+    }
+    
+    //advances until a millisecond with due timers, which are taken off the
+    //wheel, returns false once now is reached with nothing due
+    private synchronized boolean collectDue(long now) {
+        due.clear();
+        while (current < now && due.isEmpty()) {
+            current++;
+            //move down each higher level whose slot is reached
+            for (int l = 1; l < LEVELS; l++) {
+                if ((current & ((1L << (BITS * l)) - 1)) != 0) {
+                    break;
+                }
+                cascade(l, (int) ((current >> (BITS * l)) & MASK));
+            }
+            Timer head = wheels[0][(int) (current & MASK)];
+            Timer t = head.next;
+            while (t != head) {
+                Timer next = t.next;
+                if (t.deadline <= current) {
+                    unlink(t);
+                    pending--;
+                    due.add(t);
+                }
+                t = next;
+            }
+        }
+        return !due.isEmpty();
+    }
+    
+    private synchronized void reschedule() {
+        for (Timer t : due) {
+            if (t.period > 0 && !t.cancelled) {
+                t.deadline += t.period;
+                insert(t);
+                pending++;
+            }
+        }
+        due.clear();
+    }
+    
+    private void cascade(int level, int slot) {
+        Timer head = wheels[level][slot];
+        Timer t = head.next;
+        while (t != head) {
+            Timer next = t.next;
+            unlink(t);
+            //the slot of the current millisecond is fired after cascading
+            insert(t, current);
+            t = next;
+        }
+    }
+    
+    //timers due before the next millisecond run in the next millisecond
+    private void insert(Timer t) {
+        insert(t, current + 1);
+    }
+    
+    private void insert(Timer t, long earliest) {
+        long delay = t.deadline - current;
+        long target = t.deadline;
+        if (delay > MAX_DELAY) {
+            target = current + MAX_DELAY;
+            delay = MAX_DELAY;
+        }
+        int level = 0;
+        if (delay < SLOTS) {
+            target = Math.max(target, earliest);
+        } else {
+            while (level < LEVELS - 1 && delay >= (1L << (BITS * (level + 1)))) {
+                level++;
+            }
+        }
+        t.wheel = this;
+        link(wheels[level][(int) ((target >> (BITS * level)) & MASK)], t);
+    }
+    
+    private static void link(Timer head, Timer t) {
+        t.prev = head.prev;
+        t.next = head;
+        head.prev.next = t;
+        head.prev = t;
+    }
+    
+    private static void unlink(Timer t) {
+        t.prev.next = t.next;
+        t.next.prev = t.prev;
+        t.next = null;
+        t.prev = null;
+    }
+    
+    public synchronized long getTime() {
+        return current;
+    }
+    
+    public synchronized int getPending() {
+        return pending;
+    }
+    
+    public static class Timer {
+        
+        private final Action action;
+        private long deadline;
+        private final long period;
+        private volatile boolean cancelled;
+        private Timer prev, next;
+        private TimerWheel wheel;
+        
+        private Timer(Action action, long deadline, long period) {
+            this.action = action;
+            this.deadline = deadline;
+            this.period = period;
+        }
+        
+        public boolean cancel() {
+            return wheel == null ? false : wheel.cancel(this);
+        }
+        
+        public boolean isCancelled() {
+            return cancelled;
+        }
+        
+        public boolean isRepeating() {
+            return period > 0;
+        }
+        
+        //the time of the next run, in the milliseconds of the wheel
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}
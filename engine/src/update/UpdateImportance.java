@@ -0,0 +1,22 @@
+package update;
+
+/**
+ *
+ * @author Andrew_2
+ * 
+ * Measures how important it is to update an Updateable every frame
+ * An importance of 1 or more means every frame, 0 means as rarely as allowed
+ */
+public interface UpdateImportance {
+    
+    public float getImportance(Updateable u);
+    
+    //use the importance each Updateable declares for itself
+    public static final UpdateImportance DECLARED = new UpdateImportance() {
+        
+        @Override
+        public float getImportance(Updateable u) {
+            return u.getUpdateImportance();
+        }
+    };
+}
@@ -1,44 +1,123 @@
 package update;
 
 import java.util.Iterator;
+import java.util.Collections;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+import job.JobSystem;
+import util.LifecycleCollector;
 import util.ZIndexSet;
-import util.ZIndexSetStandard;
+import util.ZIndexSetBatched;
 
 /**
  *
  * @author Andrew_2
+ * 
+ * When the UpdateManager runs layers in parallel, a layer declares the named
+ * resources it reads and writes so that conflicting layers are serialized
+ * An ordered layer acts as a barrier and never runs alongside another layer
+ * 
+ * The name of a layer identifies it in the UpdateProfiler
+ * 
+ * Updateables pending release are released during the update and removed
+ * together at the end of it
  */
 public class UpdateLayer {
     
     private final Queue<Updateable> updateablesToAdd;
     private final ZIndexSet<Updateable> updateables;
+    private final LifecycleCollector<Updateable> lifecycle;
+    private UpdateManager updateManager;
+    private volatile String name;
+    
+    private final Set<String> reads;
+    private final Set<String> writes;
+    private volatile boolean ordered;
+    
+    private static final AtomicInteger layerCount = new AtomicInteger();
     
     public UpdateLayer(ZIndexSet<Updateable> updateables) {
         this.updateables = updateables;
         updateablesToAdd = new ConcurrentLinkedQueue<>();
+        lifecycle = new LifecycleCollector<>();
+        reads = new CopyOnWriteArraySet<>();
+        writes = new CopyOnWriteArraySet<>();
+        name = "UpdateLayer" + layerCount.getAndIncrement();
     }
     
     public void update(int delta) {
         
+        UpdateProfiler profiler = getProfiler();
+        long layerStart = profiler == null ? 0 : System.nanoTime();
+        
+        updateables.commit();
+        
         Updateable toInit;
         while((toInit = updateablesToAdd.poll()) != null) {
             toInit.updateInit();
         }
         
+        updateUpdateables(delta, profiler);
+        
+        lifecycle.compact(updateables);
+        
+        if(profiler != null) {
+            profiler.recordLayer(this, System.nanoTime() - layerStart);
+        }
+    }
+    
+    //visit every Updateable once, subclasses may choose which to update
+    protected void updateUpdateables(int delta, UpdateProfiler profiler) {
         Iterator<Updateable> updateableIterator = updateables.iterator();
         while(updateableIterator.hasNext()) {
-            Updateable u = updateableIterator.next();
-            
-            if(u.isUpdatePendingRelease()) {
-                u.updateRelease();
-            } else if(u.isUpdateEnabled()) {
+            updateUpdateable(updateableIterator.next(), delta, profiler);
+        }
+    }
+    
+    //release the Updateable if pending release, otherwise update it if enabled
+    protected final void updateUpdateable(Updateable u, int delta, UpdateProfiler profiler) {
+        if(u.isUpdatePendingRelease()) {
+            u.updateRelease();
+            lifecycle.collect(u);
+        } else if(u.isUpdateEnabled()) {
+            if(profiler == null) {
+                u.update(delta, this);
+            } else {
+                long start = System.nanoTime();
                 u.update(delta, this);
+                profiler.recordUpdateable(u, System.nanoTime() - start);
             }
         }
     }
     
+    protected final Iterator<Updateable> updateableIterator() {
+        return updateables.iterator();
+    }
+    
+    //the profiler of the owning UpdateManager, null unless profiling is enabled
+    private UpdateProfiler getProfiler() {
+        if(updateManager == null) {
+            return null;
+        }
+        UpdateProfiler profiler = updateManager.getProfiler();
+        return profiler.isEnabled() ? profiler : null;
+    }
+    
+    public LifecycleCollector<Updateable> getLifecycle() {
+        return lifecycle;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
     public void addUpdateable(Updateable u, int zIndex) {
         updateablesToAdd.add(u);
         updateables.add(u, zIndex);
@@ -49,9 +128,51 @@ public class UpdateLayer {
         updateables.remove(u);
     }
     
+    public void declareRead(String resource) {
+        reads.add(resource);
+    }
+    
+    public void declareWrite(String resource) {
+        writes.add(resource);
+    }
+    
+    public Set<String> getReads() {
+        return Collections.unmodifiableSet(reads);
+    }
+    
+    public Set<String> getWrites() {
+        return Collections.unmodifiableSet(writes);
+    }
+    
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+    
+    public boolean isOrdered() {
+        return ordered;
+    }
+    
+    protected void setUpdateManager(UpdateManager updateManager) {
+        this.updateManager = updateManager;
+    }
+    
+    public UpdateManager getUpdateManager() {
+        return updateManager;
+    }
+    
+    //the job system of the owning UpdateManager, null if none
+    public JobSystem getJobSystem() {
+        return updateManager == null ? null : updateManager.getJobSystem();
+    }
+    
+    //the interpolation alpha of the owning UpdateManager, 0 if not yet added
+    public float getInterpolationAlpha() {
+        return updateManager == null ? 0 : updateManager.getInterpolationAlpha();
+    }
+    
     public static UpdateLayer createUpdateLayer() {
         
-        return new UpdateLayer(ZIndexSetStandard.<Updateable>createCopyOnWriteSet());
+        return new UpdateLayer(ZIndexSetBatched.<Updateable>createBatchedSet());
     }
     
 }
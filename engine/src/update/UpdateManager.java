@@ -4,10 +4,15 @@
  */
 package update;
 
+import event.EventQueue;
 import game.Game;
+import game.Lifecycle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import job.JobSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.lwjgl.glfw.GLFW;
 import util.ZIndexSet;
 import util.ZIndexSetStandard;
 
@@ -19,24 +24,82 @@ import util.ZIndexSetStandard;
  * Logic is run in a separate thread from rendering and resource management
  * A list of Updateables is updated each frame with the time since last update
  * 
+ * Updates are run on a fixed timestep measured in nanoseconds by a Clock
+ * The clock defaults to real time and may be replaced to run headless or
+ * faster than real time
+ * Elapsed time is accumulated and consumed in whole ticks, at most
+ * maxCatchUpTicks per iteration, so the simulation rate does not drift with load
+ * The fraction of a tick left in the accumulator is exposed as the
+ * interpolation alpha for rendering between ticks
+ * 
+ * In parallel mode the layers of a tick are run by a ParallelLayerExecutor
+ * according to the dependencies each layer declares
+ * 
  */
 public class UpdateManager implements Runnable{
 
-    private long lastTime; //last time in milis
     private final ZIndexSet<UpdateLayer> layers;
-    private final long updateTime;
-    public static final int defaultUpdateTime = 1000 / 60; // 60 fps
-    private boolean toRelease, isReleased;
+    private final Clock clock;
+    private final long tickNanos;
+    private final int maxCatchUpTicks;
+    private volatile boolean toRelease;
+    private final Lifecycle lifecycle;
+    
+    //simulated time in nanoseconds, advanced by tickNanos each tick
+    private volatile long simulationNanos;
+    private volatile long tickCount;
+    private volatile float interpolationAlpha;
+    
+    private volatile ParallelLayerExecutor parallelExecutor;
+    private final List<UpdateLayer> orderedLayers;
+    
+    private volatile JobSystem jobSystem;
+    
+    private final UpdateProfiler profiler;
+    
+    //events sent to the update thread, drained at the start of each tick
+    private final EventQueue eventQueue;
+    
+    //delayed and periodic Actions, advanced by simulated time each tick
+    private final TimerWheel timers;
+    
+    //run on the update thread after every tick, such as to publish snapshots
+    private final List<Runnable> tickListeners;
+    
+    public static final int DEFAULT_TICK_RATE = 60;
+    public static final int DEFAULT_MAX_CATCH_UP_TICKS = 5;
+    
+    private static final long NANOS_PER_MILLI = 1000000;
+    private static final long NANOS_PER_SECOND = 1000000000;
     
     private static final Logger LOG = LoggerFactory.getLogger(UpdateManager.class);
     
     public UpdateManager() {
+        this(new RealTimeClock());
+    }
+    
+    public UpdateManager(Clock clock) {
+        this(clock, DEFAULT_TICK_RATE, DEFAULT_MAX_CATCH_UP_TICKS);
+    }
+    
+    public UpdateManager(Clock clock, int tickRate, int maxCatchUpTicks) {
         LOG.info("UpdateManager constructor entered");
         
+        this.clock = clock;
+        
         layers = ZIndexSetStandard.<UpdateLayer>createCopyOnWriteSet();
+        orderedLayers = new ArrayList<>();
+        tickListeners = new CopyOnWriteArrayList<>();
+        eventQueue = new EventQueue("update", EventQueue.DEFAULT_CAPACITY);
+        timers = new TimerWheel();
+        lifecycle = new Lifecycle("UpdateManager");
+        profiler = new UpdateProfiler();
         
-        this.updateTime = defaultUpdateTime;
-        lastTime = getTime();
+        if (tickRate <= 0 || maxCatchUpTicks <= 0) {
+            throw new IllegalArgumentException("Tick rate and catch up ticks must be positive");
+        }
+        this.tickNanos = NANOS_PER_SECOND / tickRate;
+        this.maxCatchUpTicks = maxCatchUpTicks;
         LOG.info("UpdateManager constructor exited");
     }
     
@@ -44,43 +107,156 @@ public class UpdateManager implements Runnable{
     public void run() {
         LOG.info(Game.threadMarker, "Update");
         LOG.info("UpdateManager run");
+        lifecycle.setReady();
+        
+        long accumulator = 0;
+        long previous = clock.nanoTime();
         while (!toRelease) {
 
-            long currentTime = getTime();
-            int deltaTime = (int) (currentTime - lastTime);
-            for(UpdateLayer layer : layers) {
-                layer.update(deltaTime);
+            long current = clock.nanoTime();
+            accumulator += current - previous;
+            previous = current;
+            
+            int ticks = 0;
+            while (accumulator >= tickNanos && ticks < maxCatchUpTicks) {
+                tick();
+                accumulator -= tickNanos;
+                ticks++;
             }
             
-            try {
-                Thread.sleep(updateTime);
-            } catch (Exception e) {
-                LOG.error("{}", e);
+            //too far behind to catch up, drop the remaining whole ticks
+            if (accumulator >= tickNanos) {
+                long dropped = accumulator / tickNanos;
+                accumulator -= dropped * tickNanos;
+                LOG.debug("UpdateManager dropped {} ticks", dropped);
             }
-            lastTime = currentTime;
+            
+            interpolationAlpha = (float) accumulator / tickNanos;
+            
+            clock.waitUntil(current + tickNanos - accumulator);
 
         }
-        isReleased = true;
+        lifecycle.setReleased();
+    }
+    
+    //run ticks synchronously on the calling thread without consulting the clock
+    //for headless tests and benchmarks, must not be used while run is active
+    public void step(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            tick();
+        }
+    }
+    
+    private void tick() {
+        //milliseconds are derived from simulated time so the deltas sum exactly
+        long nextNanos = simulationNanos + tickNanos;
+        int deltaTime = (int) (nextNanos / NANOS_PER_MILLI - simulationNanos / NANOS_PER_MILLI);
+        simulationNanos = nextNanos;
+        
+        boolean profile = profiler.isEnabled();
+        long start = profile ? System.nanoTime() : 0;
+        
+        eventQueue.drain();
+        timers.advanceTo(simulationNanos / NANOS_PER_MILLI);
+        layers.commit();
+        ParallelLayerExecutor executor = parallelExecutor;
+        if (executor == null) {
+            for(UpdateLayer layer : layers) {
+                layer.update(deltaTime);
+            }
+        } else {
+            orderedLayers.clear();
+            orderedLayers.addAll(layers);
+            executor.execute(orderedLayers, deltaTime);
+        }
+        tickCount++;
+        for (Runnable listener : tickListeners) {
+            listener.run();
+        }
+        
+        if (profile) {
+            profiler.recordTick(System.nanoTime() - start);
+        }
+    }
+    
+    public void addTickListener(Runnable listener) {
+        tickListeners.add(listener);
+    }
+    
+    public void removeTickListener(Runnable listener) {
+        tickListeners.remove(listener);
     }
     
     public void release() {
         LOG.info("UpdateManager release entered");
         toRelease = true;
-        while(!isReleased) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException ex) {
-                LOG.error("{}", ex);
-            }
-        }
+        lifecycle.awaitReleased();
         LOG.info("UpdateManager release exited");
     }
 
-    public static long getTime() {
-        return (long) (GLFW.glfwGetTime() * 1000);
+    //current time of the update clock in milliseconds
+    public long getClockTime() {
+        return clock.milliTime();
+    }
+    
+    public Clock getClock() {
+        return clock;
+    }
+    
+    //simulated time advanced by the ticks run so far, in nanoseconds
+    public long getSimulationNanos() {
+        return simulationNanos;
+    }
+    
+    //fraction of a tick elapsed since the last update, in [0, 1)
+    //renderers may blend the previous and current state by this amount
+    public float getInterpolationAlpha() {
+        return interpolationAlpha;
+    }
+    
+    //a null executor returns to serial updates
+    public void setParallelExecutor(ParallelLayerExecutor parallelExecutor) {
+        this.parallelExecutor = parallelExecutor;
+    }
+    
+    public boolean isParallel() {
+        return parallelExecutor != null;
+    }
+    
+    public void setJobSystem(JobSystem jobSystem) {
+        this.jobSystem = jobSystem;
+    }
+    
+    public JobSystem getJobSystem() {
+        return jobSystem;
+    }
+    
+    public Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+    
+    public TimerWheel getTimers() {
+        return timers;
+    }
+    
+    public EventQueue getEventQueue() {
+        return eventQueue;
+    }
+    
+    public UpdateProfiler getProfiler() {
+        return profiler;
+    }
+    
+    public long getTickNanos() {
+        return tickNanos;
+    }
+    
+    public long getTickCount() {
+        return tickCount;
     }
 
     public void addUpdateLayer(UpdateLayer layer, int zIndex) {
+        layer.setUpdateManager(this);
         layers.add(layer, zIndex);
     }
 
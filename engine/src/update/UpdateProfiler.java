@@ -0,0 +1,88 @@
+package update;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import util.LatencyHistogram;
+
+/**
+ *
+ * @author Andrew_2
+ * 
+ * UpdateProfiler records how long ticks, UpdateLayers and Updateables take
+ * 
+ * Histograms are kept for the whole tick, for each layer by name and for each
+ * Updateable by class name. Nothing is timed while the profiler is disabled.
+ * Scripts reach it through updateManager.getProfiler()
+ */
+public class UpdateProfiler {
+    
+    private volatile boolean enabled;
+    private final LatencyHistogram tickHistogram;
+    private final Map<String, LatencyHistogram> layerHistograms;
+    private final Map<String, LatencyHistogram> updateableHistograms;
+    
+    public UpdateProfiler() {
+        tickHistogram = new LatencyHistogram();
+        layerHistograms = new ConcurrentHashMap<>();
+        updateableHistograms = new ConcurrentHashMap<>();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public void recordTick(long nanos) {
+        tickHistogram.record(nanos);
+    }
+    
+    public void recordLayer(UpdateLayer layer, long nanos) {
+        getLayerHistogram(layer.getName()).record(nanos);
+    }
+    
+    public void recordUpdateable(Updateable u, long nanos) {
+        getUpdateableHistogram(u.getClass().getName()).record(nanos);
+    }
+    
+    public LatencyHistogram getTickHistogram() {
+        return tickHistogram;
+    }
+    
+    public LatencyHistogram getLayerHistogram(String layerName) {
+        return layerHistograms.computeIfAbsent(layerName, k -> new LatencyHistogram());
+    }
+    
+    public LatencyHistogram getUpdateableHistogram(String className) {
+        return updateableHistograms.computeIfAbsent(className, k -> new LatencyHistogram());
+    }
+    
+    public Map<String, LatencyHistogram> getLayerHistograms() {
+        return new TreeMap<>(layerHistograms);
+    }
+    
+    public Map<String, LatencyHistogram> getUpdateableHistograms() {
+        return new TreeMap<>(updateableHistograms);
+    }
+    
+    public void reset() {
+        tickHistogram.reset();
+        layerHistograms.clear();
+        updateableHistograms.clear();
+    }
+    
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        out.append("tick ").append(tickHistogram).append("\n");
+        for (Map.Entry<String, LatencyHistogram> e : getLayerHistograms().entrySet()) {
+            out.append("layer ").append(e.getKey()).append(" ").append(e.getValue()).append("\n");
+        }
+        for (Map.Entry<String, LatencyHistogram> e : getUpdateableHistograms().entrySet()) {
+            out.append("updateable ").append(e.getKey()).append(" ").append(e.getValue()).append("\n");
+        }
+        return out.toString();
+    }
+}
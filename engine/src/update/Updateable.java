@@ -15,4 +15,7 @@ public interface Updateable {
     public default boolean isUpdatePendingRelease() {return false;}
     public default boolean isUpdateReleased() {return false;}
     public default boolean isUpdateEnabled() {return true;}
+    
+    //how often a ScheduledUpdateLayer should update this, 1 or more is every frame
+    public default float getUpdateImportance() {return 1;}
 }
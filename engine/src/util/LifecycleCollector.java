@@ -0,0 +1,61 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * LifecycleCollector gathers released entries of a ZIndexSet during a frame
+ * and removes them all at once when the frame is compacted
+ *
+ * It keeps counters of the live entries after the last compaction, the
+ * entries released in the last frame and all entries ever released.
+ * Collection and compaction are done by the thread iterating the set, the
+ * counters may be read from any thread.
+ */
+public class LifecycleCollector<T> {
+
+    private final List<T> released;
+    private volatile int live;
+    private volatile int lastReleased;
+    private volatile long totalReleased;
+
+    public LifecycleCollector() {
+        released = new ArrayList<>();
+    }
+
+    public void collect(T t) {
+        released.add(t);
+    }
+
+    public void compact(ZIndexSet<T> set) {
+        lastReleased = released.size();
+        if (!released.isEmpty()) {
+            set.removeAll(released);
+            set.commit();
+            totalReleased += released.size();
+            released.clear();
+        }
+        live = set.size();
+    }
+
+    public int getLive() {
+        return live;
+    }
+
+    //entries removed by the last compaction
+    public int getLastReleased() {
+        return lastReleased;
+    }
+
+    public long getReleased() {
+        return totalReleased;
+    }
+
+    @Override
+    public String toString() {
+        return "live=" + live + " lastReleased=" + lastReleased + " released=" + totalReleased;
+    }
+}
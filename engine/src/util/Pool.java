@@ -0,0 +1,143 @@
+package util;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A Pool reuses objects instead of allocating them
+ *
+ * Objects are reset as they are freed, so nothing held by one use is seen
+ * by the next or kept from collection while pooled. At most maxSize free
+ * objects are kept, any more are left to the garbage collector.
+ *
+ * Freeing an object that is already pooled throws, as it would otherwise be
+ * handed out twice and reset under its next user.
+ *
+ * Pools created with createPool are named and listed by report.
+ */
+public class Pool<T> {
+
+    private final String name;
+    private final Supplier<? extends T> factory;
+    private final Consumer<? super T> reset;
+    private final int maxSize;
+    private final ArrayDeque<T> free;
+    //the objects in free, by identity as pooled objects need not define equals
+    private final Set<T> pooled;
+
+    private long created;
+    private long obtained;
+    private long discarded;
+    private int inUse;
+    private int highWater;
+
+    private static final Map<String, Pool<?>> pools = new ConcurrentHashMap<>();
+
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    public Pool(String name, Supplier<? extends T> factory, Consumer<? super T> reset, int maxSize) {
+        this.name = name;
+        this.factory = factory;
+        this.reset = reset;
+        this.maxSize = maxSize;
+        free = new ArrayDeque<>();
+        pooled = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    public synchronized T obtain() {
+        T t = free.poll();
+        if (t != null) {
+            pooled.remove(t);
+        } else {
+            t = factory.get();
+            created++;
+        }
+        obtained++;
+        inUse++;
+        if (inUse > highWater) {
+            highWater = inUse;
+        }
+        return t;
+    }
+
+    public synchronized void free(T t) {
+        if (pooled.contains(t)) {
+            throw new IllegalStateException("Object freed twice to pool " + name);
+        }
+        reset.accept(t);
+        inUse--;
+        if (free.size() < maxSize) {
+            free.push(t);
+            pooled.add(t);
+        } else {
+            discarded++;
+        }
+    }
+
+    //allocate ahead of time so later obtains do not
+    public synchronized void prefill(int count) {
+        while (free.size() < Math.min(count, maxSize)) {
+            T t = factory.get();
+            free.push(t);
+            pooled.add(t);
+            created++;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int getInUse() {
+        return inUse;
+    }
+
+    public synchronized int getFree() {
+        return free.size();
+    }
+
+    //the most objects in use at once
+    public synchronized int getHighWater() {
+        return highWater;
+    }
+
+    public synchronized long getCreated() {
+        return created;
+    }
+
+    public synchronized long getObtained() {
+        return obtained;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: in use %d, free %d, high water %d, created %d, obtained %d, discarded %d",
+                name, inUse, free.size(), highWater, created, obtained, discarded);
+    }
+
+    public static <T> Pool<T> createPool(String name, Supplier<? extends T> factory, Consumer<? super T> reset) {
+        return register(new Pool<>(name, factory, reset, DEFAULT_MAX_SIZE));
+    }
+
+    public static <P extends Pool<?>> P register(P pool) {
+        pools.put(pool.getName(), pool);
+        return pool;
+    }
+
+    public static String report() {
+        StringBuilder sb = new StringBuilder("Pools");
+        for (Pool<?> pool : pools.values()) {
+            sb.append("\n").append(pool);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * Least significant digit radix sort of unsigned 64 bit keys carrying an int
+ * value, eight passes of a byte each
+ * The sort is stable and passes where every key shares the same byte are
+ * skipped, so keys that differ only in a few fields sort in a few passes
+ */
+public class RadixSort {
+
+    private long[] keyScratch;
+    private int[] valueScratch;
+    private final int[] counts;
+
+    public RadixSort() {
+        keyScratch = new long[0];
+        valueScratch = new int[0];
+        counts = new int[256];
+    }
+
+    //sorts the first n keys ascending as unsigned, moving values alongside
+    public void sort(long[] keys, int[] values, int n) {
+        sort(keys, values, 0, n);
+    }
+
+    //sorts the keys from index from up to to, leaving the rest untouched
+    public void sort(long[] keys, int[] values, int from, int to) {
+        int n = to - from;
+        if (n < 2) {
+            return;
+        }
+        if (keyScratch.length < n) {
+            keyScratch = new long[n];
+            valueScratch = new int[n];
+        }
+        long[] srcKeys = keys;
+        int[] srcValues = values;
+        int srcOffset = from;
+        long[] dstKeys = keyScratch;
+        int[] dstValues = valueScratch;
+        int dstOffset = 0;
+
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            Arrays.fill(counts, 0);
+            for (int i = srcOffset; i < srcOffset + n; i++) {
+                counts[(int) (srcKeys[i] >>> shift) & 0xFF]++;
+            }
+            //a byte shared by every key leaves the order unchanged
+            if (counts[(int) (srcKeys[srcOffset] >>> shift) & 0xFF] == n) {
+                continue;
+            }
+            int sum = dstOffset;
+            for (int b = 0; b < 256; b++) {
+                int c = counts[b];
+                counts[b] = sum;
+                sum += c;
+            }
+            for (int i = srcOffset; i < srcOffset + n; i++) {
+                int pos = counts[(int) (srcKeys[i] >>> shift) & 0xFF]++;
+                dstKeys[pos] = srcKeys[i];
+                dstValues[pos] = srcValues[i];
+            }
+            long[] tk = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = tk;
+            int[] tv = srcValues;
+            srcValues = dstValues;
+            dstValues = tv;
+            int t = srcOffset;
+            srcOffset = dstOffset;
+            dstOffset = t;
+        }
+
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, srcOffset, keys, from, n);
+            System.arraycopy(srcValues, srcOffset, values, from, n);
+        }
+    }
+}
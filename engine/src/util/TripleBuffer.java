@@ -0,0 +1,74 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A lock free triple buffer between one writer thread and one reader thread
+ *
+ * The writer fills the write buffer and publishes it. The reader acquires the
+ * newest published buffer and may read it until it next acquires. Neither
+ * side ever waits for the other or sees a partially written buffer.
+ */
+public class TripleBuffer<T> {
+
+    private final Object[] buffers;
+    //index of the buffer between writer and reader, plus a flag if unread
+    private final AtomicInteger middle;
+    private int write;
+    private int read;
+    private volatile long published;
+
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    public TripleBuffer(Supplier<T> supplier) {
+        buffers = new Object[]{supplier.get(), supplier.get(), supplier.get()};
+        write = 0;
+        middle = new AtomicInteger(1);
+        read = 2;
+    }
+
+    //writer thread only
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) buffers[write];
+    }
+
+    //writer thread only
+    public void publish() {
+        write = middle.getAndSet(write | FRESH) & INDEX_MASK;
+        published++;
+    }
+
+    //reader thread only, returns the newest published buffer
+    public T acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            read = middle.getAndSet(read) & INDEX_MASK;
+        }
+        return getReadBuffer();
+    }
+
+    //reader thread only, the buffer returned by the last acquire
+    @SuppressWarnings("unchecked")
+    public T getReadBuffer() {
+        return (T) buffers[read];
+    }
+
+    //visits all three buffers, only for parts that neither the writer nor
+    //the reader is using at the time
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        for (Object buffer : buffers) {
+            action.accept((T) buffer);
+        }
+    }
+
+    public long getPublishedCount() {
+        return published;
+    }
+}
@@ -27,11 +27,16 @@ public final class Utilities {
     
     private static final Logger LOG = LoggerFactory.getLogger(Utilities.class);
     
+    //scratch for building matrices without allocating, one per thread
+    private static final ThreadLocal<Quaternionf> scratchOrientation = ThreadLocal.withInitial(Quaternionf::new);
+    private static final ThreadLocal<Vector3f> scratchVector = ThreadLocal.withInitial(Vector3f::new);
+    
     public static Matrix4f getTransformationMatrix(HasTransform t, Matrix4f dest) {
+        Vector3f v = scratchVector.get();
         dest.identity();
-        t.getOrientation(new Quaternionf()).get(dest);
-        dest.scale(t.getScale(new Vector3f()));
-        dest.setTranslation(t.getPosition(new Vector3f()));
+        t.getOrientation(scratchOrientation.get()).get(dest);
+        dest.scale(t.getScale(v));
+        dest.setTranslation(t.getPosition(v));
         return dest;
     }
     
@@ -12,6 +12,13 @@ public interface ZIndexSet<T> extends Set<T>  {
     public boolean add(T t, int index);
     
     public void sort();
+
+    public int getZIndex(T t);
+    
+    //bring the set up to date at a safe point before iterating
+    public default void commit() {
+        sort();
+    }
     
     @Override
     public default boolean add(T e) {
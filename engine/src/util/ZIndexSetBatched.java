@@ -0,0 +1,260 @@
+package util;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ *
+ * @author Andrew_2
+ *
+ * A ZIndexSet backed by a sorted array
+ *
+ * Adds and removes may come from any thread and are buffered until commit is
+ * called at a safe point, such as the start of a render or update. All
+ * buffered changes are then merged into a new sorted array in one pass.
+ * Iteration walks the last committed array without locking. Elements with
+ * equal z-index keep the order in which they were added.
+ * Only the net change between commits counts. An element committed at the
+ * same z-index as before keeps its place, even if it was moved or removed
+ * and re-added in between. One committed at a new z-index, or re-added
+ * after its removal was committed, is placed last among its z-index.
+ *
+ * contains reflects buffered changes immediately, size and iteration only
+ * after commit.
+ */
+public class ZIndexSetBatched<T> extends AbstractSet<T> implements ZIndexSet<T> {
+
+    private volatile Snapshot snapshot;
+    private final Map<T, Integer> indices;
+    private final Queue<Mutation<T>> pending;
+    //orders each update of indices with its mutation, so pending replays
+    //changes in the order indices saw them
+    private final Object lock = new Object();
+
+    private static final Object[] EMPTY = new Object[0];
+
+    public ZIndexSetBatched() {
+        snapshot = new Snapshot(EMPTY, new int[0]);
+        indices = new ConcurrentHashMap<>();
+        pending = new ConcurrentLinkedQueue<>();
+    }
+
+    @Override
+    public boolean add(T t, int index) {
+        synchronized (lock) {
+            Integer old = indices.put(t, index);
+            if (old != null && old == index) {
+                return false;
+            }
+            pending.add(new Mutation<>(t, index, false));
+            return old == null;
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        synchronized (lock) {
+            if (indices.remove(o) == null) {
+                return false;
+            }
+            @SuppressWarnings("unchecked")
+            T t = (T) o;
+            pending.add(new Mutation<>(t, 0, true));
+            return true;
+        }
+    }
+
+    @Override
+    public void sort() {
+        commit();
+    }
+
+    //merge all buffered changes, must not be called concurrently with itself
+    @Override
+    public void commit() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        //only the last change to each element matters
+        Map<T, Mutation<T>> staged = new LinkedHashMap<>();
+        Mutation<T> m;
+        while ((m = pending.poll()) != null) {
+            staged.remove(m.t);
+            staged.put(m.t, m);
+        }
+
+        //elements back at their committed z-index are left in place
+        Snapshot old = snapshot;
+        for (int i = 0; i < old.elements.length; i++) {
+            Mutation<T> s = staged.get(old.elements[i]);
+            if (s != null && !s.remove && s.z == old.zIndices[i]) {
+                staged.remove(s.t);
+            }
+        }
+        if (staged.isEmpty()) {
+            return;
+        }
+
+        List<Mutation<T>> adds = new ArrayList<>();
+        for (Mutation<T> s : staged.values()) {
+            if (!s.remove) {
+                adds.add(s);
+            }
+        }
+        //stable, so equal z-indices keep insertion order
+        adds.sort((a, b) -> Integer.compare(a.z, b.z));
+
+        Object[] elements = new Object[old.elements.length + adds.size()];
+        int[] zIndices = new int[elements.length];
+        int size = 0;
+        int i = 0, j = 0;
+        while (i < old.elements.length || j < adds.size()) {
+            if (i < old.elements.length && staged.containsKey(old.elements[i])) {
+                //removed or moved to a new z-index
+                i++;
+            } else if (j == adds.size()
+                    || (i < old.elements.length && old.zIndices[i] <= adds.get(j).z)) {
+                elements[size] = old.elements[i];
+                zIndices[size++] = old.zIndices[i++];
+            } else {
+                elements[size] = adds.get(j).t;
+                zIndices[size++] = adds.get(j++).z;
+            }
+        }
+
+        snapshot = new Snapshot(Arrays.copyOf(elements, size), Arrays.copyOf(zIndices, size));
+    }
+
+    //position of the first committed element with z-index at least zIndex
+    public int lowerBound(int zIndex) {
+        int[] z = snapshot.zIndices;
+        int lo = 0, hi = z.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (z[mid] < zIndex) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    @Override
+    public int getZIndex(T t) {
+        return indices.getOrDefault(t, 0);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public int size() {
+        return snapshot.elements.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indices.containsKey(o);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Object[] elements = snapshot.elements;
+        return new Iterator<T>() {
+
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < elements.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (next >= elements.length) {
+                    throw new NoSuchElementException();
+                }
+                return (T) elements[next++];
+            }
+        };
+    }
+
+    @Override
+    public Object[] toArray() {
+        return snapshot.elements.clone();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        boolean changed = false;
+        for (T t : indices.keySet()) {
+            if (!c.contains(t)) {
+                changed |= remove(t);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean changed = false;
+        for (Object o : c) {
+            changed |= remove(o);
+        }
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        for (T t : indices.keySet()) {
+            remove(t);
+        }
+    }
+
+    public static <T> ZIndexSetBatched<T> createBatchedSet() {
+        return new ZIndexSetBatched<>();
+    }
+
+    private static final class Snapshot {
+
+        private final Object[] elements;
+        private final int[] zIndices;
+
+        private Snapshot(Object[] elements, int[] zIndices) {
+            this.elements = elements;
+            this.zIndices = zIndices;
+        }
+    }
+
+    private static final class Mutation<T> {
+
+        private final T t;
+        private final int z;
+        private final boolean remove;
+
+        private Mutation(T t, int z, boolean remove) {
+            this.t = t;
+            this.z = z;
+            this.remove = remove;
+        }
+    }
+}
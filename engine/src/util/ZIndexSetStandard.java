@@ -50,6 +50,11 @@ public class ZIndexSetStandard<T> implements ZIndexSet<T> {
         }
     }
 
+    @Override
+    public int getZIndex(T t) {
+        return indices.getOrDefault(t, 0);
+    }
+
     @Override
     public int size() {
         return objects.size();
@@ -105,8 +110,9 @@ public class ZIndexSetStandard<T> implements ZIndexSet<T> {
 
     @Override
     public boolean removeAll(Collection<?> c) {
-        boolean changed = objects.remove(c);
-        indices.remove(c);
+        //a single pass, so a copy on write list is only copied once
+        boolean changed = objects.removeAll(c);
+        indices.keySet().removeAll(c);
         return changed;
     }
 